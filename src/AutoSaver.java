@@ -0,0 +1,150 @@
+import java.io.IOException;
+import java.util.function.Consumer;
+
+public class AutoSaver implements AutoCloseable {
+
+    private final String filename;
+    private final boolean fsync;
+    private final Consumer<IOException> onError;
+    private final Thread thread;
+
+    // guarded by this: the newest snapshot not written yet, how many snapshots
+    // were submitted, how many of them are on the disk (or failed) and how many
+    // files were written
+    private GameState pending;
+    private long submitted;
+    private long completed;
+    private long writes;
+    private boolean closed;
+
+    /**
+     * Constructor for a saver that writes snapshots to a file on its own thread,
+     * so the thread playing the game never waits for the disk. A snapshot
+     * submitted while another is waiting replaces it, only the newest position
+     * is worth writing
+     * 
+     * @param filename The save file, replaced atomically by every write
+     * @param fsync    Whether every write is forced to the disk before the next,
+     *                 slower but the save survives a power loss
+     * @param onError  Called on the saver's thread when a write fails, the
+     *                 previous save is kept
+     */
+    public AutoSaver(String filename, boolean fsync, Consumer<IOException> onError) {
+        this.filename = filename;
+        this.fsync = fsync;
+        this.onError = onError;
+        thread = new Thread(this::run, "autosave");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Method that queues a position to be written. Only copies a reference, the
+     * snapshot is immutable
+     * 
+     * @param state The position to save, taken on the thread playing the game
+     */
+    public synchronized void submit(GameState state) {
+        if (closed) {
+            throw new IllegalStateException("autosaver is closed");
+        }
+        pending = state;
+        submitted++;
+        notifyAll();
+    }
+
+    /**
+     * Method that waits until every position submitted so far has been written
+     * or has failed
+     * 
+     * @throws InterruptedException If interrupted while waiting
+     */
+    public synchronized void flush() throws InterruptedException {
+        long target = submitted;
+        while (completed < target) {
+            wait();
+        }
+    }
+
+    /**
+     * Getter method for the number of files written, lower than the number of
+     * submitted positions when writes were coalesced
+     * 
+     * @return long The number of writes, failed ones included
+     */
+    public synchronized long getWrites() {
+        return writes;
+    }
+
+    /**
+     * Getter method for the number of positions submitted
+     * 
+     * @return long The number of calls to submit
+     */
+    public synchronized long getSubmitted() {
+        return submitted;
+    }
+
+    /**
+     * Method that writes the pending position and stops the saver's thread. If
+     * interrupted while waiting for the write it returns early with the
+     * interrupt flag set
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Helper method that writes the newest pending position until the saver is
+     * closed and nothing is pending
+     */
+    private void run() {
+        while (true) {
+            GameState state;
+            long sequence;
+            synchronized (this) {
+                while (pending == null && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (pending == null) {
+                    return;
+                }
+                state = pending;
+                pending = null;
+                sequence = submitted;
+            }
+
+            try {
+                SaveFormat.write(state, filename, fsync);
+            } catch (IOException e) {
+                try {
+                    onError.accept(e);
+                } catch (RuntimeException callbackFailure) {
+                    // a broken callback must not stop the saves that follow
+                    Thread t = Thread.currentThread();
+                    t.getUncaughtExceptionHandler().uncaughtException(t, callbackFailure);
+                }
+            } finally {
+                synchronized (this) {
+                    completed = sequence;
+                    writes++;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AutoSaverTest {
+
+    @Test
+    public void testFlushWritesNewestSnapshot() throws Exception {
+        File file = File.createTempFile("autosave", ".dat");
+        file.deleteOnExit();
+        Tetris t = new Tetris(new BagRandomizer(4));
+        List<IOException> errors = new ArrayList<IOException>();
+        AutoSaver saver = new AutoSaver(file.getPath(), true, e -> errors.add(e));
+        for (int i = 0; i < 12; i++) {
+            t.getPlacements().get(i % 5).play(t);
+            saver.submit(t.snapshot());
+        }
+        saver.flush();
+
+        assertTrue(errors.isEmpty());
+        assertEquals(12, saver.getSubmitted());
+        assertTrue(saver.getWrites() >= 1 && saver.getWrites() <= 12);
+        assertEquals(t.getHash(), new Tetris(file.getPath()).getHash());
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+        saver.close();
+    }
+
+    @Test
+    public void testFailedWriteKeepsOldSave() throws Exception {
+        File dir = File.createTempFile("autosave", "");
+        dir.delete();
+        File missing = new File(dir, "saved.dat");
+        List<IOException> errors = new ArrayList<IOException>();
+        AutoSaver saver = new AutoSaver(missing.getPath(), false, e -> errors.add(e));
+        saver.submit(new Tetris().snapshot());
+        saver.flush();
+
+        assertEquals(1, errors.size());
+        assertFalse(missing.exists());
+        saver.close();
+    }
+
+    @Test
+    public void testThrowingCallbackDoesNotStopSaves() throws Exception {
+        File dir = File.createTempFile("autosave", "");
+        dir.delete();
+        File missing = new File(dir, "saved.dat");
+        AutoSaver saver = new AutoSaver(missing.getPath(), false, e -> {
+            throw new IllegalStateException("callback failed");
+        });
+        saver.submit(new Tetris().snapshot());
+        saver.flush();
+        assertEquals(1, saver.getWrites());
+
+        // the saver thread is still running and writes once the directory exists
+        assertTrue(dir.mkdir());
+        missing.deleteOnExit();
+        dir.deleteOnExit();
+        Tetris t = new Tetris(new BagRandomizer(3));
+        saver.submit(t.snapshot());
+        saver.flush();
+        assertEquals(t.getHash(), new Tetris(missing.getPath()).getHash());
+        saver.close();
+    }
+
+    @Test
+    public void testCloseWritesPendingSnapshot() throws Exception {
+        File file = File.createTempFile("autosave", ".dat");
+        file.deleteOnExit();
+        Tetris t = new Tetris(new BagRandomizer(9));
+        t.hardFall();
+        List<IOException> errors = new ArrayList<IOException>();
+        AutoSaver saver = new AutoSaver(file.getPath(), false, e -> errors.add(e));
+        saver.submit(t.snapshot());
+        saver.close();
+
+        assertTrue(errors.isEmpty());
+        assertEquals(t.getHash(), new Tetris(file.getPath()).getHash());
+        assertThrows(IllegalStateException.class, () -> saver.submit(t.snapshot()));
+    }
+
+}
@@ -0,0 +1,95 @@
+public class BagRandomizer implements Randomizer {
+
+    private XorShiftRandom random;
+    private int[] bag; // the current shuffled bag of all 7 pieces
+    private int index; // number of pieces already dealt from the bag
+
+    /**
+     * Constructor for a 7-bag randomizer, which deals all 7 pieces in a random
+     * order before starting a new bag
+     * 
+     * @param seed Seed of the piece sequence
+     */
+    public BagRandomizer(long seed) {
+        random = new XorShiftRandom(seed);
+        bag = new int[] { 0, 1, 2, 3, 4, 5, 6 };
+        index = 7;
+    }
+
+    @Override
+    public int next() {
+        if (index == 7) {
+            newBag();
+        }
+        return bag[index++];
+    }
+
+    /**
+     * Getter method for the pieces left in the current bag
+     * 
+     * @return int Bit mask with bit p set if piece p can still be dealt before a new
+     *         bag starts, all pieces when the bag is empty
+     */
+    public int getRemaining() {
+        int remaining = 0;
+        for (int i = index; i < 7; i++) {
+            remaining |= 1 << bag[i];
+        }
+        return index == 7 ? 0x7F : remaining;
+    }
+
+    /**
+     * Helper method that starts a new bag with a Fisher-Yates shuffle
+     */
+    private void newBag() {
+        for (int i = 6; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int temp = bag[i];
+            bag[i] = bag[j];
+            bag[j] = temp;
+        }
+        index = 0;
+    }
+
+    @Override
+    public double[] probabilities() {
+        int remaining = getRemaining();
+        double[] p = new double[7];
+        for (int i = 0; i < 7; i++) {
+            if ((remaining >>> i & 1) != 0) {
+                p[i] = 1.0 / Integer.bitCount(remaining);
+            }
+        }
+        return p;
+    }
+
+    /**
+     * Method that deals a chosen piece from the bag, starting a new bag if it is
+     * empty. The other pieces left in the bag stay in random order
+     */
+    @Override
+    public void advance(int piece) {
+        if (index == 7) {
+            newBag();
+        }
+        for (int i = index; i < 7; i++) {
+            if (bag[i] == piece) {
+                bag[i] = bag[index];
+                bag[index] = piece;
+                index++;
+                return;
+            }
+        }
+        throw new IllegalArgumentException("piece already dealt from the bag");
+    }
+
+    @Override
+    public Randomizer copy() {
+        BagRandomizer copy = new BagRandomizer(0);
+        copy.random = random.copy();
+        copy.bag = bag.clone();
+        copy.index = index;
+        return copy;
+    }
+
+}
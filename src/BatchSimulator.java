@@ -0,0 +1,164 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+public class BatchSimulator {
+
+    // games played by one fork/join task before it stops splitting
+    private static final int GAMES_PER_TASK = 8;
+
+    // mixed into the seed of a game's moves so they do not repeat the random
+    // numbers that shuffle its pieces
+    private static final long POLICY_SEED = 0x5DEECE66DL;
+
+    private final int parallelism;
+    private final int maxPieces;
+
+    /**
+     * Constructor for a simulator that uses every core of the machine
+     * 
+     * @param maxPieces Pieces after which a game is stopped even if not over
+     */
+    public BatchSimulator(int maxPieces) {
+        this(Runtime.getRuntime().availableProcessors(), maxPieces);
+    }
+
+    /**
+     * Constructor for a simulator with a fixed number of worker threads
+     * 
+     * @param parallelism Number of games played at once
+     * @param maxPieces   Pieces after which a game is stopped even if not over
+     */
+    public BatchSimulator(int parallelism, int maxPieces) {
+        this.parallelism = parallelism;
+        this.maxPieces = maxPieces;
+    }
+
+    /**
+     * Method that plays a batch of games headlessly, spread over a fork/join pool
+     * 
+     * @param games       Number of games to play
+     * @param randomizers Creates the piece randomizer of each game from the game's
+     *                    index, called from the worker threads
+     * @param policies    Creates the move policy of each game from the game's index,
+     *                    called from the worker threads
+     * @return GameResult[] The result of each game, indexed like the policies
+     */
+    public GameResult[] run(int games, IntFunction<Randomizer> randomizers,
+            IntFunction<MovePolicy> policies) {
+        GameResult[] results = new GameResult[games];
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new GameRange(results, randomizers, policies, 0, games));
+        } finally {
+            pool.shutdown();
+        }
+        return results;
+    }
+
+    /**
+     * Method that plays one complete game
+     * 
+     * @param randomizer Generates the pieces of the game
+     * @param policy     The policy that chooses every move
+     * @return GameResult The result of the game
+     */
+    public GameResult play(Randomizer randomizer, MovePolicy policy) {
+        long start = System.nanoTime();
+        Tetris game = new Tetris(randomizer);
+        int pieces = 0;
+        while (!game.gameIsOver() && pieces < maxPieces) {
+            policy.choose(game).play(game);
+            pieces++;
+        }
+        return new GameResult(game.getScore(), game.getLinesCleared(), pieces,
+                System.nanoTime() - start);
+    }
+
+    /**
+     * Method that derives the seed of a game's random moves from the seed of its
+     * pieces. Both would draw the same numbers from the same seed, which ties
+     * every move to the piece it is played with
+     * 
+     * @param gameSeed The seed of the game's pieces
+     * @return long An unrelated seed for the game's moves
+     */
+    public static long policySeed(long gameSeed) {
+        return XorShiftRandom.mix(gameSeed) ^ POLICY_SEED;
+    }
+
+    /**
+     * Fork/join task that plays the games of an index range, splitting it in half
+     * until it is small
+     */
+    @SuppressWarnings("serial")
+    private class GameRange extends RecursiveAction {
+
+        private final GameResult[] results;
+        private final IntFunction<Randomizer> randomizers;
+        private final IntFunction<MovePolicy> policies;
+        private final int from;
+        private final int to;
+
+        GameRange(GameResult[] results, IntFunction<Randomizer> randomizers,
+                IntFunction<MovePolicy> policies, int from, int to) {
+            this.results = results;
+            this.randomizers = randomizers;
+            this.policies = policies;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= GAMES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    results[i] = play(randomizers.apply(i), policies.apply(i));
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new GameRange(results, randomizers, policies, from, mid),
+                        new GameRange(results, randomizers, policies, mid, to));
+            }
+        }
+    }
+
+    /**
+     * Plays a batch of 7-bag games with random moves (or the beam search bot) and
+     * prints the average score, lines, pieces and throughput. Game i uses seed + i
+     * for its pieces and a seed derived from it with policySeed for its moves
+     * 
+     * @param args Optional number of games, pieces per game, worker threads, seed
+     *             and policy ("random" or "beam")
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int maxPieces = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int threads = args.length > 2 ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        boolean beam = args.length > 4 && args[4].equals("beam");
+        BoardEvaluator evaluator = new BoardEvaluator();
+
+        long start = System.nanoTime();
+        GameResult[] results = new BatchSimulator(threads, maxPieces).run(games,
+                i -> new BagRandomizer(seed + i),
+                i -> beam ? new BeamSearchBot(evaluator, 16, 3, 50)
+                        : new RandomPolicy(policySeed(seed + i)));
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long score = 0;
+        long lines = 0;
+        long pieces = 0;
+        for (GameResult r : results) {
+            score += r.getScore();
+            lines += r.getLinesCleared();
+            pieces += r.getPiecesPlaced();
+        }
+        System.out.printf("%d games on %d threads in %.2f s (%.0f games/s, %.0f pieces/s)%n",
+                games, threads, seconds, games / seconds, pieces / seconds);
+        System.out.printf("average score %.1f, lines %.2f, pieces %.1f%n", (double) score / games,
+                (double) lines / games, (double) pieces / games);
+    }
+
+}
@@ -0,0 +1,63 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+public class BatchSimulatorTest {
+
+    private static GameResult[] run(int threads, int games) {
+        // random moves for even games, the lowest placement for odd ones so lines
+        // get cleared
+        return new BatchSimulator(threads, 300).run(games, i -> new BagRandomizer(100 + i),
+                i -> i % 2 == 0 ? new RandomPolicy(100 + i) : game -> {
+                    List<Placement> placements = game.getPlacements();
+                    if (placements.isEmpty()) {
+                        return new Move(false, 0, Tetromino.SPAWN_X);
+                    }
+                    Placement lowest = placements.get(0);
+                    for (Placement p : placements) {
+                        if (p.getY() > lowest.getY()) {
+                            lowest = p;
+                        }
+                    }
+                    return lowest.toMove(false);
+                });
+    }
+
+    private static void assertSameResults(GameResult[] expected, GameResult[] actual) {
+        assertEquals(expected.length, actual.length);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].getScore(), actual[i].getScore(), "game " + i);
+            assertEquals(expected[i].getLinesCleared(), actual[i].getLinesCleared(), "game " + i);
+            assertEquals(expected[i].getPiecesPlaced(), actual[i].getPiecesPlaced(), "game " + i);
+        }
+    }
+
+    @Test
+    public void testSeededBatchIsDeterministic() {
+        GameResult[] first = run(2, 40);
+        assertSameResults(first, run(2, 40));
+
+        int lines = 0;
+        for (GameResult r : first) {
+            assertTrue(r.getPiecesPlaced() > 0);
+            lines += r.getLinesCleared();
+        }
+        assertTrue(lines > 0);
+    }
+
+    @Test
+    public void testResultsDoNotDependOnThreads() {
+        GameResult[] single = run(1, 40);
+        assertSameResults(single, run(3, 40));
+        assertSameResults(single, run(8, 40));
+    }
+
+    @Test
+    public void testGamesStopAtMaxPieces() {
+        GameResult result = new BatchSimulator(1, 5).play(new BagRandomizer(1),
+                new RandomPolicy(1));
+        assertEquals(5, result.getPiecesPlaced());
+    }
+
+}
@@ -0,0 +1,268 @@
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class BeamSearchBot implements MovePolicy {
+
+    // beam nodes expanded by one fork/join task before it stops splitting
+    private static final int NODES_PER_TASK = 4;
+
+    private final BoardEvaluator evaluator;
+    private final int beamWidth;
+    private final int maxDepth;
+    private final long timeBudget; // nanoseconds
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor for a bot that expands its beam on the common fork/join pool
+     * 
+     * @param evaluator        Scores the boards reached by the search
+     * @param beamWidth        Number of positions kept after each ply
+     * @param maxDepth         Number of pieces searched ahead at most
+     * @param timeBudgetMillis Time after which the bot stops deepening and plays
+     *                         the best move of the deepest completed search
+     */
+    public BeamSearchBot(BoardEvaluator evaluator, int beamWidth, int maxDepth,
+            long timeBudgetMillis) {
+        this(evaluator, beamWidth, maxDepth, timeBudgetMillis, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for a bot that expands its beam on a given fork/join pool
+     * 
+     * @param evaluator        Scores the boards reached by the search
+     * @param beamWidth        Number of positions kept after each ply
+     * @param maxDepth         Number of pieces searched ahead at most
+     * @param timeBudgetMillis Time after which the bot stops deepening and plays
+     *                         the best move of the deepest completed search
+     * @param pool             The pool the beam expansion is split over
+     */
+    public BeamSearchBot(BoardEvaluator evaluator, int beamWidth, int maxDepth,
+            long timeBudgetMillis, ForkJoinPool pool) {
+        if (beamWidth < 1 || maxDepth < 1) {
+            throw new IllegalArgumentException("beam width and depth must be positive");
+        }
+        this.evaluator = evaluator;
+        this.beamWidth = beamWidth;
+        this.maxDepth = maxDepth;
+        this.timeBudget = timeBudgetMillis * 1000000;
+        this.pool = pool;
+    }
+
+    /**
+     * Method that searches one piece deeper at a time over the falling piece, the
+     * hold slot and the queue until the maximum depth, the end of the queue or
+     * the time budget is reached. The first ply always completes so a move is
+     * returned even with no time left. The falling piece is searched from where
+     * it is with the game's rotation system, the pieces after it from their
+     * spawn
+     */
+    @Override
+    public Move choose(Tetris game) {
+        long deadline = System.nanoTime() + timeBudget;
+        GameState state = game.snapshot();
+        int[] pieces = new int[1 + state.getQueueLength()];
+        pieces[0] = state.getFallingPiece();
+        for (int i = 1; i < pieces.length; i++) {
+            pieces[i] = state.getQueuedPiece(i - 1);
+        }
+        Node root = new Node(state.getBoard(), 0, state.getHeldPiece(), state.canHold(), 0, null);
+
+        Move best = null;
+        int depthLimit = Math.min(maxDepth, pieces.length);
+        for (int depth = 1; depth <= depthLimit; depth++) {
+            Move move = search(root, state, game.getRotationSystem(), pieces, depth,
+                    depth == 1 ? Long.MAX_VALUE : deadline);
+            if (move == null) {
+                break;
+            }
+            best = move;
+            if (System.nanoTime() - deadline > 0) {
+                break;
+            }
+        }
+        return best != null ? best : new Move(false, 0, Tetromino.SPAWN_X);
+    }
+
+    /**
+     * Helper method that runs one beam search of a fixed depth
+     * 
+     * @return Move The first move towards the best position found, null if the
+     *         search ran out of time or the root has no placement
+     */
+    private Move search(Node root, GameState state, RotationSystem rotationSystem,
+            int[] pieces, int depth, long deadline) {
+        List<Node> beam = Collections.singletonList(root);
+        for (int ply = 0; ply < depth; ply++) {
+            List<Node> children = pool.invoke(new Expansion(beam, 0, beam.size(), pieces, state,
+                    rotationSystem, deadline));
+            if (children == null) {
+                return null;
+            }
+            if (children.isEmpty()) {
+                break;
+            }
+            beam = select(children);
+        }
+        return beam.get(0).first;
+    }
+
+    /**
+     * Helper method that keeps the best node of every distinct position and then
+     * the beamWidth best of those, best first
+     */
+    private List<Node> select(List<Node> children) {
+        Map<Long, Node> distinct = new HashMap<Long, Node>();
+        for (Node child : children) {
+            Long key = child.key();
+            Node other = distinct.get(key);
+            if (other == null || child.value > other.value) {
+                distinct.put(key, child);
+            }
+        }
+        List<Node> sorted = new ArrayList<Node>(children.size());
+        for (Node child : children) {
+            if (distinct.get(child.key()) == child) {
+                sorted.add(child);
+            }
+        }
+        sorted.sort(Comparator.comparingDouble((Node n) -> -n.value));
+        return sorted.size() > beamWidth ? sorted.subList(0, beamWidth) : sorted;
+    }
+
+    /**
+     * Helper method that adds every hard drop placement of the next piece of a
+     * node, starting at (state, x, y), to the children, and those of the held
+     * piece from its spawn when holding is allowed
+     */
+    private void expand(Node node, int[] pieces, int state, int x, int y,
+            RotationSystem rotationSystem, List<Node> children) {
+        if (node.index >= pieces.length) {
+            return;
+        }
+        int piece = pieces[node.index];
+        addPlacements(node, piece, state, x, y, rotationSystem, false, node.index + 1,
+                node.held, children);
+        if (!node.canHold) {
+            return;
+        }
+        if (node.held >= 0) {
+            int spawn = PlacementFinder.spawnRow(node.board, node.held);
+            addPlacements(node, node.held, 0, Tetromino.SPAWN_X, spawn, rotationSystem, true,
+                    node.index + 1, piece, children);
+        } else if (node.index + 1 < pieces.length) {
+            int next = pieces[node.index + 1];
+            int spawn = PlacementFinder.spawnRow(node.board, next);
+            addPlacements(node, next, 0, Tetromino.SPAWN_X, spawn, rotationSystem, true,
+                    node.index + 2, piece, children);
+        }
+    }
+
+    private void addPlacements(Node node, int piece, int state, int x, int y,
+            RotationSystem rotationSystem, boolean hold, int index, int held,
+            List<Node> children) {
+        for (Placement p : PlacementFinder.findHardDrops(node.board, piece, state, x, y,
+                rotationSystem)) {
+            int lines = node.lines + p.getLinesCleared();
+            Node child = new Node(p.getBoard(), index, held, true, lines,
+                    node.first != null ? node.first : p.toMove(hold));
+            child.value = evaluator.evaluate(child.board, lines);
+            children.add(child);
+        }
+    }
+
+    /**
+     * A position reached by the search: the board after some placements, the next
+     * piece to place and the hold slot
+     */
+    private static class Node {
+
+        private final BitBoard board;
+        private final int index; // index of the next piece to place
+        private final int held;
+        private final boolean canHold;
+        private final int lines;
+        private final Move first; // move at the root leading here, null for the root
+        private double value;
+
+        Node(BitBoard board, int index, int held, boolean canHold, int lines, Move first) {
+            this.board = board;
+            this.index = index;
+            this.held = held;
+            this.canHold = canHold;
+            this.lines = lines;
+            this.first = first;
+        }
+
+        long key() {
+            return 31 * (board.getHash() ^ Zobrist.held(held, canHold)) + index;
+        }
+    }
+
+    /**
+     * Fork/join task that expands the nodes of a range of the beam, splitting it
+     * in half until it is small. Returns null if the deadline passes
+     */
+    @SuppressWarnings("serial")
+    private class Expansion extends RecursiveTask<List<Node>> {
+
+        private final List<Node> beam;
+        private final int from;
+        private final int to;
+        private final int[] pieces;
+        private final GameState root; // where the falling piece is
+        private final RotationSystem rotationSystem;
+        private final long deadline;
+
+        Expansion(List<Node> beam, int from, int to, int[] pieces, GameState root,
+                RotationSystem rotationSystem, long deadline) {
+            this.beam = beam;
+            this.from = from;
+            this.to = to;
+            this.pieces = pieces;
+            this.root = root;
+            this.rotationSystem = rotationSystem;
+            this.deadline = deadline;
+        }
+
+        @Override
+        protected List<Node> compute() {
+            if (to - from <= NODES_PER_TASK) {
+                List<Node> children = new ArrayList<Node>();
+                for (int i = from; i < to; i++) {
+                    if (deadline != Long.MAX_VALUE && System.nanoTime() - deadline > 0) {
+                        return null;
+                    }
+                    Node node = beam.get(i);
+                    if (node.first == null) {
+                        expand(node, pieces, root.getFallingState(), root.getFallingX(),
+                                root.getFallingY(), rotationSystem, children);
+                        continue;
+                    }
+                    int piece = node.index < pieces.length ? pieces[node.index] : 0;
+                    expand(node, pieces, 0, Tetromino.SPAWN_X,
+                            PlacementFinder.spawnRow(node.board, piece), rotationSystem, children);
+                }
+                return children;
+            }
+            int mid = (from + to) >>> 1;
+            Expansion left = new Expansion(beam, from, mid, pieces, root, rotationSystem,
+                    deadline);
+            left.fork();
+            List<Node> right = new Expansion(beam, mid, to, pieces, root, rotationSystem,
+                    deadline).compute();
+            List<Node> children = left.join();
+            if (children == null || right == null) {
+                return null;
+            }
+            children.addAll(right);
+            return children;
+        }
+    }
+
+}
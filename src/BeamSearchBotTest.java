@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BeamSearchBotTest {
+
+    /**
+     * Randomizer that only generates one piece
+     */
+    private static class SamePiece implements Randomizer {
+        private final int piece;
+
+        SamePiece(char block) {
+            piece = Tetromino.PIECES.indexOf(block);
+        }
+
+        public int next() {
+            return piece;
+        }
+
+        public Randomizer copy() {
+            return this;
+        }
+
+        public double[] probabilities() {
+            double[] p = new double[7];
+            p[piece] = 1;
+            return p;
+        }
+
+        public void advance(int piece) {
+        }
+    }
+
+    @Test
+    public void testTakesLineClear() {
+        Tetris t = new Tetris(new SamePiece('I'));
+        for (int j = 0; j < BitBoard.COLS - 1; j++) {
+            t.fill(19, j);
+            t.fill(18, j);
+            t.fill(17, j);
+            t.fill(16, j);
+        }
+        Move move = new BeamSearchBot(new BoardEvaluator(), 8, 1, 1000).choose(t);
+        assertEquals(BitBoard.COLS - 1, move.getColumn());
+        move.play(t);
+        assertEquals(4, t.getLinesCleared());
+    }
+
+    @Test
+    public void testSurvivesWithLookAhead() {
+        Tetris t = new Tetris(new BagRandomizer(5));
+        BeamSearchBot bot = new BeamSearchBot(new BoardEvaluator(), 16, 3, 1000);
+        for (int i = 0; i < 200; i++) {
+            bot.choose(t).play(t);
+        }
+        assertFalse(t.gameIsOver());
+        assertTrue(t.getLinesCleared() >= 70);
+    }
+
+    @Test
+    public void testSearchesFromMovedPiece() {
+        // after holding, rotating and shifting the falling piece, with a rotation
+        // system other than SRS, the move played is the best placement reachable
+        // from where the piece is
+        BoardEvaluator evaluator = new BoardEvaluator();
+        for (RotationSystem system : new RotationSystem[] { RotationSystem.SRS,
+            RotationSystem.ARS }) {
+            Tetris t = new Tetris(new BagRandomizer(4));
+            t.setRotationSystem(system);
+            for (int j = 0; j < 6; j++) {
+                t.fill(19, j);
+            }
+            t.saveBlock();
+            t.rotateCW();
+            t.moveLeft();
+            t.moveLeft();
+
+            Placement best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Placement p : t.getPlacements()) {
+                double value = evaluator.evaluate(p.getBoard(), p.getLinesCleared());
+                if (value > bestValue) {
+                    best = p;
+                    bestValue = value;
+                }
+            }
+            new BeamSearchBot(evaluator, 8, 1, 1000).choose(t).play(t);
+            assertEquals(best.getBoard().getHash(), t.snapshot().getBoard().getHash());
+        }
+    }
+
+    @Test
+    public void testNoTimeStillMoves() {
+        Tetris t = new Tetris(new BagRandomizer(9));
+        Move move = new BeamSearchBot(new BoardEvaluator(), 4, 5, 0).choose(t);
+        assertNotNull(move);
+    }
+
+}
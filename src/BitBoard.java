@@ -0,0 +1,350 @@
+public class BitBoard {
+
+    public static final int ROWS = 20;
+    public static final int COLS = 10;
+    public static final int FULL_ROW = (1 << COLS) - 1; // mask of a completely filled row
+
+    // INVARIANT: bit c of rows[r] is set iff cell (r, c) is filled, and the 3 bit
+    // color code of cell (r, c) stored in colors[r] is non zero iff it is filled
+    private int[] rows;
+    private int[] colors;
+
+    // INVARIANT: every full row lies between dirtyTop and dirtyBottom inclusive, the
+    // range is empty (dirtyTop > dirtyBottom) when the board has no full row. Each
+    // row mask doubles as the row's fill counter, full means equal to FULL_ROW
+    private int dirtyTop;
+    private int dirtyBottom;
+
+    // INVARIANT: heights[c] is ROWS minus the row of the topmost filled cell of
+    // column c, 0 if the column is empty
+    private int[] heights;
+
+    // INVARIANT: hash is the xor of Zobrist.row(r, rows[r]) over every row
+    private long hash;
+
+    /**
+     * Constructor that creates an empty board
+     */
+    public BitBoard() {
+        rows = new int[ROWS];
+        colors = new int[ROWS];
+        heights = new int[COLS];
+        dirtyTop = ROWS;
+        dirtyBottom = -1;
+    }
+
+    /**
+     * Method that returns an independent copy of the board
+     * 
+     * @return Copy of the board
+     */
+    public BitBoard copy() {
+        BitBoard copy = new BitBoard();
+        System.arraycopy(rows, 0, copy.rows, 0, ROWS);
+        System.arraycopy(colors, 0, copy.colors, 0, ROWS);
+        System.arraycopy(heights, 0, copy.heights, 0, COLS);
+        copy.hash = hash;
+        copy.dirtyTop = dirtyTop;
+        copy.dirtyBottom = dirtyBottom;
+        return copy;
+    }
+
+    /**
+     * Method that empties every cell of the board
+     */
+    public void clearAll() {
+        for (int i = 0; i < ROWS; i++) {
+            rows[i] = 0;
+            colors[i] = 0;
+        }
+        for (int j = 0; j < COLS; j++) {
+            heights[j] = 0;
+        }
+        hash = 0;
+        dirtyTop = ROWS;
+        dirtyBottom = -1;
+    }
+
+    /**
+     * Method that checks whether a cell of the board is filled, cells above the
+     * top of the board are always empty
+     * 
+     * @param row The row of the cell
+     * @param col The column of the cell
+     * @return boolean Whether or not the cell is filled
+     */
+    public boolean isOccupied(int row, int col) {
+        if (row < 0) {
+            return false;
+        }
+        return (rows[row] >>> col & 1) != 0;
+    }
+
+    /**
+     * Method that checks whether a mask of cells collides with the filled cells of
+     * a row. Rows above the top of the board are empty, rows below the bottom are
+     * completely filled
+     * 
+     * @param row  The row to test against
+     * @param mask The columns to test, bit c for column c
+     * @return boolean Whether any cell of the mask is filled
+     */
+    public boolean collides(int row, int mask) {
+        if (row < 0) {
+            return false;
+        }
+        if (row >= ROWS) {
+            return mask != 0;
+        }
+        return (rows[row] & mask) != 0;
+    }
+
+    /**
+     * Method that checks whether a piece orientation placed with the top left
+     * corner of its bounding box at (x, y) stays between the walls and above the
+     * floor without overlapping any filled cell. Blocks above the top of the board
+     * are allowed
+     * 
+     * @param piece The id of the piece
+     * @param state The orientation of the piece
+     * @param x     The column of the bounding box
+     * @param y     The row of the bounding box
+     * @return boolean Whether or not the piece fits
+     */
+    public boolean fits(int piece, int state, int x, int y) {
+        if (x + Tetromino.minCol(piece, state) < 0 || x + Tetromino.maxCol(piece, state) >= COLS) {
+            return false;
+        }
+        int size = Tetromino.size(piece);
+        for (int r = 0; r < size; r++) {
+            int mask = Tetromino.rowMask(piece, state, r);
+            if (mask != 0 && collides(y + r, x >= 0 ? mask << x : mask >>> -x)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method that checks whether a piece orientation fits with every block inside
+     * the board, which is required of the result of a rotation
+     * 
+     * @param piece The id of the piece
+     * @param state The orientation of the piece
+     * @param x     The column of the bounding box
+     * @param y     The row of the bounding box
+     * @return boolean Whether or not the piece fits inside the board
+     */
+    public boolean fitsInside(int piece, int state, int x, int y) {
+        return y + Tetromino.minRow(piece, state) >= 0 && fits(piece, state, x, y);
+    }
+
+    /**
+     * Method that returns how many rows a piece can fall from a position before
+     * it lands. When every column of the piece is above the surface of the stack
+     * the answer comes from the column heights and the piece's skirt, otherwise
+     * (the piece is tucked under an overhang) it falls row by row
+     * 
+     * @param piece The id of the piece
+     * @param state The orientation of the piece
+     * @param x     The column of the bounding box
+     * @param y     The row of the bounding box, where the piece must fit
+     * @return int The number of rows the piece can fall
+     */
+    public int dropDistance(int piece, int state, int x, int y) {
+        int distance = Integer.MAX_VALUE;
+        int maxCol = Tetromino.maxCol(piece, state);
+        for (int c = Tetromino.minCol(piece, state); c <= maxCol; c++) {
+            int bottom = y + Tetromino.skirt(piece, state, c);
+            int surface = ROWS - heights[x + c];
+            if (bottom >= surface) {
+                distance = 0;
+                while (fits(piece, state, x, y + distance + 1)) {
+                    distance++;
+                }
+                return distance;
+            }
+            distance = Math.min(distance, surface - 1 - bottom);
+        }
+        return distance;
+    }
+
+    /**
+     * Method that fills the cells of a piece orientation with the piece's color
+     * 
+     * @param piece The id of the piece
+     * @param state The orientation of the piece
+     * @param x     The column of the bounding box
+     * @param y     The row of the bounding box
+     * @return boolean False, leaving the board unchanged, if a block of the piece
+     *         is above the top of the board
+     */
+    public boolean lock(int piece, int state, int x, int y) {
+        if (y + Tetromino.minRow(piece, state) < 0) {
+            return false;
+        }
+        for (int i = 0; i < 4; i++) {
+            fill(y + Tetromino.cellRow(piece, state, i), x + Tetromino.cellCol(piece, state, i),
+                    piece + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Method that removes every completely filled row, shifting the rows above
+     * them down. Only the rows filled since the last clear are checked, and the
+     * surviving rows are compacted in a single pass that moves each row at most
+     * once
+     * 
+     * @return int The number of rows removed
+     */
+    public int clearFullRows() {
+        int top = dirtyTop;
+        int write = dirtyBottom;
+        dirtyTop = ROWS;
+        dirtyBottom = -1;
+
+        // rows below the lowest full row stay where they are
+        while (write >= top && rows[write] != FULL_ROW) {
+            write--;
+        }
+        if (write < top) {
+            return 0;
+        }
+
+        for (int read = write - 1; read >= 0; read--) {
+            if (read < top || rows[read] != FULL_ROW) {
+                hash ^= Zobrist.row(write, rows[write]) ^ Zobrist.row(write, rows[read]);
+                rows[write] = rows[read];
+                colors[write] = colors[read];
+                write--;
+            }
+        }
+        int cleared = write + 1;
+        for (; write >= 0; write--) {
+            hash ^= Zobrist.row(write, rows[write]);
+            rows[write] = 0;
+            colors[write] = 0;
+        }
+        updateHeights();
+        return cleared;
+    }
+
+    /**
+     * Getter method for the color code of a cell
+     * 
+     * @param row The row of the cell
+     * @param col The column of the cell
+     * @return int The color code of the cell, 0 if the cell is empty
+     */
+    public int getColor(int row, int col) {
+        return colors[row] >>> (3 * col) & 7;
+    }
+
+    /**
+     * Method that fills a cell of the board with a color
+     * 
+     * @param row   The row of the cell
+     * @param col   The column of the cell
+     * @param color The color code of the cell (1-7)
+     */
+    public void fill(int row, int col, int color) {
+        if ((rows[row] >>> col & 1) == 0) {
+            hash ^= Zobrist.row(row, 1 << col);
+        }
+        rows[row] |= 1 << col;
+        colors[row] = colors[row] & ~(7 << (3 * col)) | (color << (3 * col));
+        if (row < dirtyTop) {
+            dirtyTop = row;
+        }
+        if (row > dirtyBottom) {
+            dirtyBottom = row;
+        }
+        if (ROWS - row > heights[col]) {
+            heights[col] = ROWS - row;
+        }
+    }
+
+    /**
+     * Getter method for the Zobrist hash of the filled cells, equal for boards
+     * with the same filled cells whatever their colors
+     * 
+     * @return long The hash of the board
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Getter method for the height of a column
+     * 
+     * @param col The column
+     * @return int Number of rows from the bottom of the board up to and including
+     *         the topmost filled cell of the column, 0 if the column is empty
+     */
+    public int getHeight(int col) {
+        return heights[col];
+    }
+
+    /**
+     * Getter method for the occupancy mask of a row
+     * 
+     * @param row The row to return
+     * @return int Mask of the filled columns of the row
+     */
+    public int getRow(int row) {
+        return rows[row];
+    }
+
+    /**
+     * Method that checks whether a row is completely filled
+     * 
+     * @param row The row to check
+     * @return boolean Whether or not the row is full
+     */
+    public boolean isRowFull(int row) {
+        return rows[row] == FULL_ROW;
+    }
+
+    /**
+     * Method that removes a row and shifts everything above it down by one
+     * 
+     * @param row The row that is removed
+     */
+    public void removeRow(int row) {
+        System.arraycopy(rows, 0, rows, 1, row);
+        System.arraycopy(colors, 0, colors, 1, row);
+        rows[0] = 0;
+        colors[0] = 0;
+        // full rows above the removed one moved down by one
+        if (dirtyTop <= dirtyBottom && dirtyBottom < row) {
+            dirtyBottom++;
+        }
+        updateHeights();
+        hash = 0;
+        for (int i = 0; i < ROWS; i++) {
+            hash ^= Zobrist.row(i, rows[i]);
+        }
+    }
+
+    /**
+     * Helper method that recomputes every column height from the row masks, top
+     * row first, after rows were removed
+     */
+    private void updateHeights() {
+        int pending = FULL_ROW; // columns whose topmost filled cell is not found yet
+        for (int i = 0; i < ROWS && pending != 0; i++) {
+            int found = rows[i] & pending;
+            pending &= ~found;
+            while (found != 0) {
+                heights[Integer.numberOfTrailingZeros(found)] = ROWS - i;
+                found &= found - 1;
+            }
+        }
+        while (pending != 0) {
+            heights[Integer.numberOfTrailingZeros(pending)] = 0;
+            pending &= pending - 1;
+        }
+    }
+
+}
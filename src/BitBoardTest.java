@@ -0,0 +1,228 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class BitBoardTest {
+
+    @Test
+    public void testEmptyBoard() {
+        BitBoard b = new BitBoard();
+        for (int i = 0; i < BitBoard.ROWS; i++) {
+            assertEquals(0, b.getRow(i));
+            for (int j = 0; j < BitBoard.COLS; j++) {
+                assertFalse(b.isOccupied(i, j));
+                assertEquals(0, b.getColor(i, j));
+            }
+        }
+    }
+
+    @Test
+    public void testFill() {
+        BitBoard b = new BitBoard();
+        b.fill(19, 0, 3);
+        b.fill(19, 9, 7);
+        assertTrue(b.isOccupied(19, 0));
+        assertTrue(b.isOccupied(19, 9));
+        assertFalse(b.isOccupied(19, 5));
+        assertEquals(3, b.getColor(19, 0));
+        assertEquals(7, b.getColor(19, 9));
+        assertEquals(0b1000000001, b.getRow(19));
+    }
+
+    @Test
+    public void testCellsAboveBoardAreEmpty() {
+        BitBoard b = new BitBoard();
+        b.fill(0, 4, 1);
+        assertFalse(b.isOccupied(-1, 4));
+        assertFalse(b.collides(-1, BitBoard.FULL_ROW));
+        assertTrue(b.collides(0, 1 << 4));
+    }
+
+    @Test
+    public void testFloorCollides() {
+        BitBoard b = new BitBoard();
+        assertTrue(b.collides(BitBoard.ROWS, 1));
+        assertFalse(b.collides(BitBoard.ROWS - 1, 1));
+    }
+
+    @Test
+    public void testRowFull() {
+        BitBoard b = new BitBoard();
+        for (int j = 0; j < BitBoard.COLS - 1; j++) {
+            b.fill(19, j, 1);
+        }
+        assertFalse(b.isRowFull(19));
+        b.fill(19, BitBoard.COLS - 1, 1);
+        assertTrue(b.isRowFull(19));
+    }
+
+    @Test
+    public void testRemoveRowShiftsDown() {
+        BitBoard b = new BitBoard();
+        b.fill(17, 2, 5);
+        b.fill(18, 3, 6);
+        b.removeRow(19);
+        assertTrue(b.isOccupied(18, 2));
+        assertTrue(b.isOccupied(19, 3));
+        assertFalse(b.isOccupied(17, 2));
+        assertEquals(5, b.getColor(18, 2));
+        assertEquals(6, b.getColor(19, 3));
+    }
+
+    @Test
+    public void testClearFullRowsCompactsOnce() {
+        BitBoard b = new BitBoard();
+        b.fill(14, 0, 3);
+        for (int j = 0; j < BitBoard.COLS; j++) {
+            b.fill(15, j, 1);
+            b.fill(17, j, 1);
+            b.fill(19, j, 1);
+        }
+        b.fill(16, 1, 4);
+        b.fill(18, 2, 5);
+        assertEquals(3, b.clearFullRows());
+        assertEquals(3, b.getColor(17, 0));
+        assertEquals(4, b.getColor(18, 1));
+        assertEquals(5, b.getColor(19, 2));
+        assertEquals(0, b.getRow(16));
+        assertEquals(0, b.clearFullRows());
+    }
+
+    @Test
+    public void testHeightsFollowFillsAndClears() {
+        BitBoard b = new BitBoard();
+        assertEquals(0, b.getHeight(4));
+        b.fill(15, 4, 2);
+        b.fill(18, 4, 2);
+        assertEquals(5, b.getHeight(4));
+        for (int j = 0; j < BitBoard.COLS; j++) {
+            b.fill(19, j, 1);
+        }
+        assertEquals(1, b.getHeight(0));
+        b.clearFullRows();
+        assertEquals(0, b.getHeight(0));
+        assertEquals(4, b.getHeight(4));
+    }
+
+    @Test
+    public void testDropDistance() {
+        BitBoard b = new BitBoard();
+        int t = Tetromino.PIECES.indexOf('T');
+        // flat T spawns with its cells in rows 0 and 1 of the bounding box
+        assertEquals(18, b.dropDistance(t, 0, 3, 0));
+        b.fill(10, 4, 1);
+        assertEquals(8, b.dropDistance(t, 0, 3, 0));
+        // under the overhang the piece falls to the floor
+        assertEquals(7, b.dropDistance(t, 0, 3, 11));
+    }
+
+    @Test
+    public void testHashDependsOnCellsOnly() {
+        BitBoard a = new BitBoard();
+        BitBoard b = new BitBoard();
+        a.fill(19, 0, 1);
+        a.fill(18, 5, 2);
+        b.fill(18, 5, 7);
+        b.fill(19, 0, 3);
+        b.fill(19, 0, 4);
+        assertEquals(a.getHash(), b.getHash());
+        a.fill(17, 5, 2);
+        assertNotEquals(a.getHash(), b.getHash());
+        assertEquals(0, new BitBoard().getHash());
+    }
+
+    @Test
+    public void testHashFollowsClears() {
+        BitBoard b = new BitBoard();
+        for (int j = 0; j < BitBoard.COLS; j++) {
+            b.fill(19, j, 1);
+        }
+        b.fill(18, 3, 2);
+        b.fill(17, 4, 2);
+        b.clearFullRows();
+        BitBoard expected = new BitBoard();
+        expected.fill(19, 3, 2);
+        expected.fill(18, 4, 2);
+        assertEquals(expected.getHash(), b.getHash());
+        b.removeRow(19);
+        BitBoard removed = new BitBoard();
+        removed.fill(19, 4, 2);
+        assertEquals(removed.getHash(), b.getHash());
+    }
+
+    @Test
+    public void testCopyEncapsulation() {
+        BitBoard b = new BitBoard();
+        BitBoard copy = b.copy();
+        b.fill(10, 4, 2);
+        assertFalse(copy.isOccupied(10, 4));
+    }
+
+    /**
+     * Helper method that checks a rotation the way the game did before bit
+     * boards: rotate a clone of the tetromino at the kicked position and test its
+     * blocks one by one
+     */
+    private static boolean cloneFits(BitBoard b, Tetromino t, int turns, int x, int y) {
+        Tetromino test = t.clone();
+        test.moveTo(x, y, t.getState());
+        for (int i = 0; i < turns; i++) {
+            test.rotateCW();
+        }
+        for (int i = 0; i < 4; i++) {
+            int row = test.getBlock(i).getRow();
+            int col = test.getBlock(i).getCol();
+            if (col < 0 || col >= BitBoard.COLS || row < 0 || row >= BitBoard.ROWS) {
+                return false;
+            }
+            if (b.isOccupied(row, col)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    public void testKickFitsMatchCloneCheck() {
+        Random random = new Random(11);
+        for (int round = 0; round < 20; round++) {
+            BitBoard b = new BitBoard();
+            for (int i = 0; i < BitBoard.ROWS; i++) {
+                for (int j = 0; j < BitBoard.COLS; j++) {
+                    if (random.nextInt(BitBoard.ROWS) < i) {
+                        b.fill(i, j, 1);
+                    }
+                }
+            }
+
+            for (int p = 0; p < 7; p++) {
+                Tetromino t = new Tetromino(Tetromino.PIECES.charAt(p));
+                for (int from = 0; from < 4; from++) {
+                    for (int x = -3; x <= BitBoard.COLS; x++) {
+                        for (int y = -3; y <= BitBoard.ROWS; y++) {
+                            t.moveTo(x, y, from);
+                            for (int turns = 1; turns <= 3; turns++) {
+                                int to = (from + turns) & 3;
+                                assertEquals(cloneFits(b, t, turns, x, y),
+                                        b.fitsInside(p, to, x, y));
+
+                                // the first kick test that fits is the one taken
+                                int[] kicks = RotationSystem.SRS_180.getKicks(p, from, turns);
+                                int expected = -1;
+                                for (int k = 0; k < kicks.length && expected < 0; k += 2) {
+                                    if (cloneFits(b, t, turns, x + kicks[k], y + kicks[k + 1])) {
+                                        expected = k;
+                                    }
+                                }
+                                assertEquals(expected,
+                                        RotationSystem.SRS_180.kick(b, p, from, turns, x, y));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+}
@@ -1,21 +1,21 @@
-
-
-import java.awt.*;
-
 public class Block {
 
-    // INVARIANT: color can be yellow, cyan, blue, orange, magenta, green, or red
-    // (for loading game)
-    private Color color;
+    // color names indexed by the color codes used on the board (see Tetromino.PIECES)
+    public static final String[] COLOR_NAMES = { null, "cyan", "yellow", "blue", "magenta",
+        "orange", "green", "red" };
+
+    // INVARIANT: color is the code of yellow, cyan, blue, orange, magenta, green, or
+    // red (for loading game), or 0 for an unknown color
+    private int color;
     private int row;
     private int column;
 
     /**
      * Constructor for the block object
      * 
-     * @param color The color of the block
+     * @param color The color code of the block
      */
-    public Block(Color color) {
+    public Block(int color) {
         this.color = color;
         row = 0;
         column = 0;
@@ -33,23 +33,8 @@ public class Block {
     public Block(int row, int col, String color) {
         this.row = row;
         this.column = col;
-        if (color.equals("yellow")) {
-            this.color = Color.YELLOW;
-        } else if (color.equals("cyan")) {
-            this.color = Color.CYAN;
-        } else if (color.equals("blue")) {
-            this.color = Color.BLUE;
-        } else if (color.equals("orange")) {
-            this.color = Color.ORANGE;
-        } else if (color.equals("magenta")) {
-            this.color = Color.MAGENTA;
-        } else if (color.equals("green")) {
-            this.color = Color.GREEN;
-        } else if (color.equals("red")) {
-            this.color = Color.RED;
-        }
+        this.color = colorCode(color);
     }
-
     /**
      * getter method for the row the block is in
      * 
@@ -93,47 +78,31 @@ public class Block {
      * @return String for the color of the block
      */
     public String getColorString() {
-        if (color.equals(Color.YELLOW)) {
-            return "yellow";
-        } else if (color.equals(Color.CYAN)) {
-            return "cyan";
-        } else if (color.equals(Color.BLUE)) {
-            return "blue";
-        } else if (color.equals(Color.ORANGE)) {
-            return "orange";
-        } else if (color.equals(Color.MAGENTA)) {
-            return "magenta";
-        } else if (color.equals(Color.GREEN)) {
-            return "green";
-        } else if (color.equals(Color.RED)) {
-            return "red";
-        } else {
-            return null;
-        }
+        return COLOR_NAMES[color];
     }
 
     /**
-     * Draws the block based on the column and row it is in, and draw a border
-     * around it
+     * getter method for the color code of the block
      * 
-     * @param g The Graphics context we are drawing in
+     * @return int The color code of the block, 0 if the color is unknown
      */
-    public void draw(Graphics g) {
-
-        // draw the block
-        g.setColor(color);
-        g.fillRect(column * 45 + 250, row * 45, 45, 45);
+    public int getColorCode() {
+        return color;
+    }
 
-        // draw a border around the block
-        g.setColor(Color.WHITE);
-        // top line
-        g.drawLine(column * 45 + 250, row * 45, (column + 1) * 45 + 250, row * 45);
-        // left line
-        g.drawLine(column * 45 + 250, row * 45, column * 45 + 250, (row + 1) * 45);
-        // right line
-        g.drawLine((column + 1) * 45 + 250, row * 45, (column + 1) * 45 + 250, (row + 1) * 45);
-        // bottom line
-        g.drawLine(column * 45 + 250, (row + 1) * 45, (column + 1) * 45 + 250, (row + 1) * 45);
+    /**
+     * Method that converts the String name of a block color to its color code
+     * 
+     * @param name The String name of the color
+     * @return int The color code of the color, 0 if the name is not a block color
+     */
+    public static int colorCode(String name) {
+        for (int i = 1; i < COLOR_NAMES.length; i++) {
+            if (COLOR_NAMES[i].equals(name)) {
+                return i;
+            }
+        }
+        return 0;
     }
 
 }
@@ -1,9 +1,6 @@
-
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
-import java.awt.Color;
-
 
 public class BlockTetrominoTest {
 
@@ -17,7 +14,7 @@ public class BlockTetrominoTest {
 
     @Test
     public void testGetColorString() {
-        Block b = new Block(Color.RED);
+        Block b = new Block(Block.colorCode("red"));
         assertEquals("red", b.getColorString());
     }
 
@@ -199,4 +196,87 @@ public class BlockTetrominoTest {
         assertTrue(bSpace3[3][2]);
     }
 
+    // spawn shapes of "IOJTLSZ" drawn row by row, '#' for a block
+    private static final String[][] SPAWN_SHAPES = {
+        { "....", "####", "....", "...." },
+        { "....", ".##.", ".##.", "...." },
+        { "#..", "###", "..." },
+        { ".#.", "###", "..." },
+        { "..#", "###", "..." },
+        { ".##", "##.", "..." },
+        { "##.", ".##", "..." } };
+
+    @Test
+    public void testOrientationTablesMatchRotatedShapes() {
+        for (int p = 0; p < 7; p++) {
+            int size = SPAWN_SHAPES[p].length;
+            boolean[][] shape = new boolean[size][size];
+            for (int r = 0; r < size; r++) {
+                for (int c = 0; c < size; c++) {
+                    shape[r][c] = SPAWN_SHAPES[p][r].charAt(c) == '#';
+                }
+            }
+            assertEquals(size, Tetromino.size(p));
+
+            Tetromino t = new Tetromino(Tetromino.PIECES.charAt(p));
+            for (int state = 0; state < 4; state++) {
+                String name = Tetromino.PIECES.charAt(p) + " state " + state;
+                assertEquals(state, t.getState(), name);
+                assertArrayEquals(shape, t.getBlockSpace(), name);
+
+                int minRow = size;
+                int maxRow = -1;
+                int minCol = size;
+                int maxCol = -1;
+                for (int r = 0; r < size; r++) {
+                    int mask = 0;
+                    for (int c = 0; c < size; c++) {
+                        if (shape[r][c]) {
+                            mask |= 1 << c;
+                            minRow = Math.min(minRow, r);
+                            maxRow = Math.max(maxRow, r);
+                            minCol = Math.min(minCol, c);
+                            maxCol = Math.max(maxCol, c);
+                        }
+                    }
+                    assertEquals(mask, Tetromino.rowMask(p, state, r), name + " row " + r);
+                }
+                assertEquals(minRow, Tetromino.minRow(p, state), name);
+                assertEquals(maxRow, Tetromino.maxRow(p, state), name);
+                assertEquals(minCol, Tetromino.minCol(p, state), name);
+                assertEquals(maxCol, Tetromino.maxCol(p, state), name);
+
+                for (int c = 0; c < size; c++) {
+                    int lowest = -1;
+                    for (int r = 0; r < size; r++) {
+                        if (shape[r][c]) {
+                            lowest = r;
+                        }
+                    }
+                    assertEquals(lowest, Tetromino.skirt(p, state, c), name + " column " + c);
+                }
+
+                // the cells and the blocks of a placed tetromino agree with the shape
+                t.moveTo(2, 5, state);
+                assertEquals(5 + maxRow, t.getLowestBlock(), name);
+                for (int i = 0; i < 4; i++) {
+                    int r = Tetromino.cellRow(p, state, i);
+                    int c = Tetromino.cellCol(p, state, i);
+                    assertTrue(shape[r][c], name);
+                    assertEquals(5 + r, t.getBlock(i).getRow(), name);
+                    assertEquals(2 + c, t.getBlock(i).getCol(), name);
+                }
+
+                boolean[][] rotated = new boolean[size][size];
+                for (int r = 0; r < size; r++) {
+                    for (int c = 0; c < size; c++) {
+                        rotated[c][size - r - 1] = shape[r][c];
+                    }
+                }
+                shape = rotated;
+                t.rotateCW();
+            }
+        }
+    }
+
 }
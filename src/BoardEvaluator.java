@@ -0,0 +1,163 @@
+public class BoardEvaluator {
+
+    // features of a board, indexes into the weights
+    public static final int AGGREGATE_HEIGHT = 0; // sum of the column heights
+    public static final int BUMPINESS = 1; // sum of height differences of neighbors
+    public static final int HOLES = 2; // empty cells below the top of their column
+    public static final int LINES_CLEARED = 3; // lines cleared to reach the board
+    public static final int COVERED_CELLS = 4; // filled cells with a hole below
+    public static final int ROW_TRANSITIONS = 5; // filled/empty changes along rows
+    public static final int COLUMN_TRANSITIONS = 6; // filled/empty changes down columns
+    public static final int WELL_DEPTHS = 7; // 1 + 2 + ... + depth for every well
+    public static final int ALMOST_FULL_ROWS = 8; // rows missing exactly one cell
+    public static final int FEATURES = 9;
+
+    // value searches give a position where the next piece cannot be placed, below
+    // the score of any board
+    public static final double GAME_OVER = -1e6;
+
+    // a row with walls on both sides has column c at bit c + 1
+    private static final int WALLS = 1 | 1 << (BitBoard.COLS + 1);
+    private static final int WALLED_PAIRS = (1 << (BitBoard.COLS + 1)) - 1;
+
+    private final double[] weights;
+
+    /**
+     * Constructor for an evaluator with the weights of the well known hand tuned
+     * 4 feature player: heights and holes are penalized, cleared lines rewarded
+     * and the other features ignored
+     */
+    public BoardEvaluator() {
+        this(new double[] { -0.510066, -0.184483, -0.35663, 0.760666, 0, 0, 0, 0, 0 });
+    }
+
+    /**
+     * Constructor for an evaluator with custom weights
+     * 
+     * @param weights Weight of each feature, indexed by the feature constants
+     */
+    public BoardEvaluator(double[] weights) {
+        if (weights.length != FEATURES) {
+            throw new IllegalArgumentException("expected " + FEATURES + " weights");
+        }
+        this.weights = weights.clone();
+    }
+
+    /**
+     * Getter method for the weights of the evaluator
+     * 
+     * @return double[] Copy of the weights, indexed by the feature constants
+     */
+    public double[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Method that scores a board, higher is better
+     * 
+     * @param board        The board to score
+     * @param linesCleared The number of lines cleared to reach the board
+     * @return double The weighted sum of the board's features
+     */
+    public double evaluate(BitBoard board, int linesCleared) {
+        // the array does not escape, so the JIT keeps it in registers
+        int[] features = new int[FEATURES];
+        measure(board, features);
+        features[LINES_CLEARED] = linesCleared;
+        double value = 0;
+        for (int i = 0; i < FEATURES; i++) {
+            value += weights[i] * features[i];
+        }
+        return value;
+    }
+
+    /**
+     * Method that computes the features of a board
+     * 
+     * @param board The board to measure
+     * @return int[] The value of each feature, lines cleared is always 0
+     */
+    public static int[] features(BitBoard board) {
+        int[] features = new int[FEATURES];
+        measure(board, features);
+        return features;
+    }
+
+    /**
+     * Helper method that computes every feature but lines cleared, counting the
+     * bits of whole row masks instead of visiting cells and using the column
+     * heights the board keeps up to date. Split in two so each part is small
+     * enough for the JIT to inline and keep the features array in registers
+     */
+    private static void measure(BitBoard board, int[] features) {
+        measureRows(board, features);
+        measureColumns(board, features);
+    }
+
+    /**
+     * Helper method that computes the row based features in one bottom up pass.
+     * Holes are left as minus the number of filled cells for measureColumns
+     */
+    private static void measureRows(BitBoard board, int[] features) {
+        // a covered cell is a filled cell with an empty cell below it, a column
+        // transition a change from the row below (the floor is filled)
+        int filledCells = 0;
+        int coveredCells = 0;
+        int rowTransitions = 0;
+        int columnTransitions = 0;
+        int almostFull = 0;
+        int emptyBelow = 0;
+        int below = BitBoard.FULL_ROW;
+        for (int i = BitBoard.ROWS - 1; i >= 0; i--) {
+            int row = board.getRow(i);
+            int filled = Integer.bitCount(row);
+            filledCells += filled;
+            coveredCells += Integer.bitCount(row & emptyBelow);
+            emptyBelow |= ~row & BitBoard.FULL_ROW;
+            columnTransitions += Integer.bitCount(row ^ below);
+            int walled = row << 1 | WALLS;
+            rowTransitions += Integer.bitCount((walled ^ walled >>> 1) & WALLED_PAIRS);
+            almostFull += (filled + 1) / BitBoard.COLS - filled / BitBoard.COLS;
+            below = row;
+        }
+        // the area above the board is empty
+        columnTransitions += Integer.bitCount(below);
+
+        features[HOLES] = -filledCells;
+        features[COVERED_CELLS] = coveredCells;
+        features[ROW_TRANSITIONS] = rowTransitions;
+        features[COLUMN_TRANSITIONS] = columnTransitions;
+        features[ALMOST_FULL_ROWS] = almostFull;
+    }
+
+    /**
+     * Helper method that computes the column based features from the heights
+     */
+    private static void measureColumns(BitBoard board, int[] features) {
+        // a well is a column lower than both its neighbors, the walls are as high
+        // as the board
+        int aggregate = 0;
+        int bumpiness = 0;
+        int wells = 0;
+        int left = BitBoard.ROWS;
+        int height = board.getHeight(0);
+        for (int j = 1; j <= BitBoard.COLS; j++) {
+            int right = j < BitBoard.COLS ? board.getHeight(j) : BitBoard.ROWS;
+            aggregate += height;
+            bumpiness += Math.abs(height - right);
+            int depth = Math.max(Math.min(left, right) - height, 0);
+            wells += depth * (depth + 1) / 2;
+            left = height;
+            height = right;
+        }
+        // the last difference was against the right wall
+        bumpiness -= BitBoard.ROWS - left;
+
+        features[AGGREGATE_HEIGHT] = aggregate;
+        features[BUMPINESS] = bumpiness;
+        // every cell below the top of a column is either filled or a hole
+        features[HOLES] += aggregate;
+        features[WELL_DEPTHS] = wells;
+    }
+
+}
@@ -0,0 +1,96 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Random;
+
+public class BoardEvaluatorTest {
+
+    @Test
+    public void testEmptyBoard() {
+        int[] f = BoardEvaluator.features(new BitBoard());
+        assertEquals(0, f[BoardEvaluator.AGGREGATE_HEIGHT]);
+        assertEquals(0, f[BoardEvaluator.HOLES]);
+        assertEquals(2 * BitBoard.ROWS, f[BoardEvaluator.ROW_TRANSITIONS]);
+        assertEquals(BitBoard.COLS, f[BoardEvaluator.COLUMN_TRANSITIONS]);
+        assertEquals(0, f[BoardEvaluator.WELL_DEPTHS]);
+    }
+
+    @Test
+    public void testSmallStack() {
+        // column 0 two high with a hole under its top, columns 1-8 one high and an
+        // empty well in column 9
+        BitBoard b = new BitBoard();
+        b.fill(18, 0, 1);
+        for (int j = 1; j < BitBoard.COLS - 1; j++) {
+            b.fill(19, j, 1);
+        }
+        int[] f = BoardEvaluator.features(b);
+        assertEquals(2 + 8, f[BoardEvaluator.AGGREGATE_HEIGHT]);
+        assertEquals(1 + 1, f[BoardEvaluator.BUMPINESS]);
+        assertEquals(1, f[BoardEvaluator.HOLES]);
+        assertEquals(1, f[BoardEvaluator.COVERED_CELLS]);
+        assertEquals(1, f[BoardEvaluator.WELL_DEPTHS]);
+        assertEquals(0, f[BoardEvaluator.ALMOST_FULL_ROWS]);
+        b.fill(19, 0, 1);
+        assertEquals(1, BoardEvaluator.features(b)[BoardEvaluator.ALMOST_FULL_ROWS]);
+    }
+
+    @Test
+    public void testMatchesCellByCellCount() {
+        Random random = new Random(3);
+        for (int n = 0; n < 500; n++) {
+            BitBoard b = new BitBoard();
+            for (int j = 0; j < BitBoard.COLS; j++) {
+                for (int i = BitBoard.ROWS - random.nextInt(12); i < BitBoard.ROWS; i++) {
+                    if (random.nextInt(5) > 0) {
+                        b.fill(i, j, 1);
+                    }
+                }
+            }
+            b.clearFullRows();
+            int[] f = BoardEvaluator.features(b);
+            int holes = 0;
+            int covered = 0;
+            int columnTransitions = 0;
+            int rowTransitions = 0;
+            for (int j = 0; j < BitBoard.COLS; j++) {
+                boolean top = false;
+                for (int i = 0; i < BitBoard.ROWS; i++) {
+                    boolean filled = b.isOccupied(i, j);
+                    top |= filled;
+                    if (top && !filled) {
+                        holes++;
+                    }
+                    boolean emptyBelow = false;
+                    for (int k = i + 1; k < BitBoard.ROWS; k++) {
+                        emptyBelow |= !b.isOccupied(k, j);
+                    }
+                    if (filled && emptyBelow) {
+                        covered++;
+                    }
+                    if (filled != b.isOccupied(i - 1, j)) {
+                        columnTransitions++;
+                    }
+                }
+                if (!b.isOccupied(BitBoard.ROWS - 1, j)) {
+                    columnTransitions++;
+                }
+            }
+            for (int i = 0; i < BitBoard.ROWS; i++) {
+                boolean left = true;
+                for (int j = 0; j <= BitBoard.COLS; j++) {
+                    boolean filled = j == BitBoard.COLS || b.isOccupied(i, j);
+                    if (filled != left) {
+                        rowTransitions++;
+                    }
+                    left = filled;
+                }
+            }
+            assertEquals(holes, f[BoardEvaluator.HOLES]);
+            assertEquals(covered, f[BoardEvaluator.COVERED_CELLS]);
+            assertEquals(columnTransitions, f[BoardEvaluator.COLUMN_TRANSITIONS]);
+            assertEquals(rowTransitions, f[BoardEvaluator.ROW_TRANSITIONS]);
+        }
+    }
+
+}
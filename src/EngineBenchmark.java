@@ -0,0 +1,239 @@
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+public class EngineBenchmark {
+
+    // number of prepared games each measured batch runs an operation on
+    private static final int BATCH = 512;
+    private static final String[] FIXTURES = { "empty", "half", "jagged", "near-top" };
+    // reused by the encode benchmark
+    private static final ByteBuffer BUFFER = ByteBuffer.allocate(SaveFormat.MAX_SIZE);
+
+    private static volatile long sink; // consumes results so they are not optimized away
+
+    /**
+     * An engine operation to measure, run once on each prepared game
+     */
+    private interface Operation {
+        void run(Tetris t) throws IOException;
+    }
+
+    /**
+     * Prepares the game an operation is run on, not included in the measurement
+     */
+    private interface Setup {
+        Tetris create(String fixture, Random random) throws IOException;
+    }
+
+    /**
+     * Runs the benchmarks whose name contains the first argument (all of them by
+     * default) and prints ops/sec and bytes allocated per op for every fixture
+     * 
+     * @param args Optional name filter, measured batches and warmup batches
+     */
+    public static void main(String[] args) throws IOException {
+        String filter = args.length > 0 ? args[0] : "";
+        int batches = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int warmup = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        File saveFile = File.createTempFile("tetris-bench", ".txt");
+        saveFile.deleteOnExit();
+        String path = saveFile.getPath();
+        new Tetris().save(path);
+
+        System.out.printf("%-22s %-10s %14s %10s %10s%n", "benchmark", "fixture", "ops/s", "ns/op",
+                "B/op");
+        for (String fixture : FIXTURES) {
+            run("fall", fixture, EngineBenchmark::fixture, t -> t.fall(), filter, batches, warmup);
+            run("hardFall", fixture, EngineBenchmark::fixture, t -> t.hardFall(), filter, batches,
+                    warmup);
+            run("moveLeft", fixture, EngineBenchmark::fixture, t -> t.moveLeft(), filter, batches,
+                    warmup);
+            run("moveRight", fixture, EngineBenchmark::fixture, t -> t.moveRight(), filter, batches,
+                    warmup);
+            run("rotateCW", fixture, EngineBenchmark::fixture, t -> t.rotateCW(), filter, batches,
+                    warmup);
+            run("rotateCCW", fixture, EngineBenchmark::fixture, t -> t.rotateCCW(), filter, batches,
+                    warmup);
+            run("sendNextBlock", fixture, EngineBenchmark::fixture, t -> t.sendNextBlock(), filter,
+                    batches, warmup);
+            run("getBoard", fixture, EngineBenchmark::fixture, t -> sink += t.getBoard().length,
+                    filter, batches, warmup);
+            run("snapshot", fixture, EngineBenchmark::fixture, t -> sink += t.snapshot().getScore(),
+                    filter, batches, warmup);
+            run("snapshot+restore", fixture, EngineBenchmark::fixture, t -> t.restore(t.snapshot()),
+                    filter, batches, warmup);
+            run("encode", fixture, EngineBenchmark::fixture, t -> {
+                BUFFER.clear();
+                SaveFormat.encode(t.snapshot(), BUFFER);
+            }, filter, batches, warmup);
+            run("save", fixture, EngineBenchmark::fixture, t -> t.save(path), filter, batches / 10,
+                    warmup / 10);
+        }
+
+        // operations that need a specific board rather than the common fixtures
+        run("rotateCW-blocked", "boxed-in", EngineBenchmark::boxedIn, t -> t.rotateCW(), filter,
+                batches, warmup);
+        run("rotateCCW-blocked", "boxed-in", EngineBenchmark::boxedIn, t -> t.rotateCCW(), filter,
+                batches, warmup);
+        for (int lines = 1; lines <= 4; lines++) {
+            final int full = lines;
+            run("clear-" + lines, "jagged", (f, r) -> fullRows(full, r), t -> t.clear(), filter,
+                    batches, warmup);
+        }
+        run("load", "saved", (f, r) -> new Tetris(r.nextLong()), t -> t.load(path), filter, batches / 10,
+                warmup / 10);
+    }
+
+    /**
+     * Helper method that measures one operation on one fixture and prints the
+     * result
+     */
+    private static void run(String name, String fixture, Setup setup, Operation op,
+            String filter, int batches, int warmup) throws IOException {
+        if (!name.contains(filter)) {
+            return;
+        }
+        Random random = new Random(42);
+        Tetris[] games = new Tetris[BATCH];
+
+        // warm up the JIT before measuring
+        for (int b = 0; b < warmup; b++) {
+            prepare(games, setup, fixture, random);
+            for (Tetris t : games) {
+                op.run(t);
+            }
+        }
+
+        long time = 0;
+        long allocated = 0;
+        for (int b = 0; b < batches; b++) {
+            prepare(games, setup, fixture, random);
+            long bytes = allocatedBytes();
+            long start = System.nanoTime();
+            for (Tetris t : games) {
+                op.run(t);
+            }
+            time += System.nanoTime() - start;
+            allocated += allocatedBytes() - bytes;
+        }
+
+        long ops = (long) batches * BATCH;
+        double nsPerOp = (double) time / ops;
+        String bytesPerOp = allocated < 0 ? "n/a" : String.format("%.1f", (double) allocated / ops);
+        System.out.printf("%-22s %-10s %14.0f %10.1f %10s%n", name, fixture, 1e9 / nsPerOp, nsPerOp,
+                bytesPerOp);
+    }
+
+    /**
+     * Helper method that fills the batch with freshly prepared games
+     */
+    private static void prepare(Tetris[] games, Setup setup, String fixture, Random random)
+            throws IOException {
+        for (int i = 0; i < games.length; i++) {
+            games[i] = setup.create(fixture, random);
+        }
+    }
+
+    /**
+     * Helper method that returns the number of bytes allocated by the current
+     * thread so far, or a negative number if the JVM cannot tell
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getCurrentThreadAllocatedBytes();
+        }
+        return -1;
+    }
+
+    /**
+     * Helper method that creates a game whose board matches a fixture: empty, the
+     * bottom half filled, a jagged stack of random column heights or a stack
+     * reaching a few rows below the top. No row is ever completely filled
+     * 
+     * @param fixture The name of the fixture
+     * @param random  The source of the board layout
+     * @return Tetris A new game with the fixture's board
+     */
+    private static Tetris fixture(String fixture, Random random) {
+        Tetris t = new Tetris(random.nextLong());
+        if (fixture.equals("half")) {
+            fillRows(t, 10, 0.7, random);
+        } else if (fixture.equals("near-top")) {
+            fillRows(t, 4, 0.8, random);
+        } else if (fixture.equals("jagged")) {
+            // random column heights next to an empty well so no row is full
+            int well = random.nextInt(BitBoard.COLS);
+            for (int j = 0; j < BitBoard.COLS; j++) {
+                int height = j == well ? 0 : random.nextInt(12);
+                for (int i = BitBoard.ROWS - height; i < BitBoard.ROWS; i++) {
+                    t.fill(i, j);
+                }
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Helper method that fills the rows from top down to the bottom with a given
+     * density, leaving at least one hole per row
+     */
+    private static void fillRows(Tetris t, int top, double density, Random random) {
+        for (int i = top; i < BitBoard.ROWS; i++) {
+            int hole = random.nextInt(BitBoard.COLS);
+            for (int j = 0; j < BitBoard.COLS; j++) {
+                if (j != hole && random.nextDouble() < density) {
+                    t.fill(i, j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Helper method that creates a game with a jagged stack on top of a number of
+     * completely filled bottom rows
+     */
+    private static Tetris fullRows(int lines, Random random) {
+        Tetris t = new Tetris(random.nextLong());
+        fillRows(t, 12, 0.6, random);
+        for (int i = BitBoard.ROWS - lines; i < BitBoard.ROWS; i++) {
+            for (int j = 0; j < BitBoard.COLS; j++) {
+                t.fill(i, j);
+            }
+        }
+        return t;
+    }
+
+    /**
+     * Helper method that creates a game whose falling tetromino is surrounded by
+     * filled cells, so every rotation runs through all its kick tests and fails
+     */
+    private static Tetris boxedIn(String fixture, Random random) {
+        Tetris t = new Tetris(random.nextLong());
+        // an O block rotates onto its own cells, so it is never blocked
+        while (t.getFallingTetromino().getBlockChar() == 'O') {
+            t = new Tetris(random.nextLong());
+        }
+        for (int i = 0; i < 8; i++) {
+            t.fall();
+        }
+        Tetromino falling = t.getFallingTetromino();
+        boolean[][] piece = new boolean[BitBoard.ROWS][BitBoard.COLS];
+        for (int i = 0; i < 4; i++) {
+            piece[falling.getBlock(i).getRow()][falling.getBlock(i).getCol()] = true;
+        }
+        for (int i = 0; i < BitBoard.ROWS; i++) {
+            for (int j = 0; j < BitBoard.COLS; j++) {
+                if (!piece[i][j]) {
+                    t.fill(i, j);
+                }
+            }
+        }
+        return t;
+    }
+
+}
@@ -0,0 +1,155 @@
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class ExpectimaxBot implements MovePolicy {
+
+    private final BoardEvaluator evaluator;
+    private final int depth;
+    private final int preview;
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructor for a bot that searches on the common fork/join pool
+     * 
+     * @param evaluator Scores the boards at the leaves of the search
+     * @param depth     Number of pieces searched after the falling one, each unseen
+     *                  piece multiplies the work by about 7 times 30
+     * @param preview   Number of queued pieces the search may see, the pieces after
+     *                  them are averaged over
+     */
+    public ExpectimaxBot(BoardEvaluator evaluator, int depth, int preview) {
+        this(evaluator, depth, preview, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for a bot that searches on a given fork/join pool
+     * 
+     * @param evaluator Scores the boards at the leaves of the search
+     * @param depth     Number of pieces searched after the falling one
+     * @param preview   Number of queued pieces the search may see
+     * @param pool      The pool the placements of the falling piece are split over
+     */
+    public ExpectimaxBot(BoardEvaluator evaluator, int depth, int preview, ForkJoinPool pool) {
+        this.evaluator = evaluator;
+        this.depth = depth;
+        this.preview = preview;
+        this.pool = pool;
+    }
+
+    /**
+     * Method that plays the placement of the falling piece with the best expected
+     * value. Known pieces are maximized over, unseen pieces are averaged over the
+     * distribution of the game's randomizer. Pieces hidden by a preview shorter
+     * than the queue are assumed to follow the distribution of the piece after
+     * the queue, which is exact for uniform pieces. The falling piece is placed
+     * from where it is and every piece rotates with the game's rotation system
+     */
+    @Override
+    public Move choose(Tetris game) {
+        GameState state = game.snapshot();
+        int[] known = new int[Math.min(preview, state.getQueueLength())];
+        for (int i = 0; i < known.length; i++) {
+            known[i] = state.getQueuedPiece(i);
+        }
+        List<Placement> candidates = game.getPlacements();
+        if (candidates.isEmpty()) {
+            return new Move(false, 0, Tetromino.SPAWN_X);
+        }
+
+        double[] values = new double[candidates.size()];
+        pool.invoke(new CandidateRange(candidates, values, known, state.randomizer(),
+                game.getRotationSystem(), 0, values.length));
+        int best = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[best]) {
+                best = i;
+            }
+        }
+        return candidates.get(best).toMove(false);
+    }
+
+    /**
+     * Helper method that returns the expected value of a board before the k-th
+     * piece after the falling one is placed
+     */
+    private double expected(BitBoard board, int lines, Randomizer randomizer,
+            RotationSystem rotationSystem, int[] known, int k, int remaining) {
+        if (remaining == 0) {
+            return evaluator.evaluate(board, lines);
+        }
+        if (k < known.length) {
+            return best(board, lines, known[k], randomizer, rotationSystem, known, k + 1,
+                    remaining - 1);
+        }
+        double[] p = randomizer.probabilities();
+        double value = 0;
+        for (int piece = 0; piece < 7; piece++) {
+            if (p[piece] > 0) {
+                Randomizer next = randomizer.copy();
+                next.advance(piece);
+                value += p[piece] * best(board, lines, piece, next, rotationSystem, known, k + 1,
+                        remaining - 1);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Helper method that returns the value of the best placement of a piece
+     */
+    private double best(BitBoard board, int lines, int piece, Randomizer randomizer,
+            RotationSystem rotationSystem, int[] known, int k, int remaining) {
+        double best = BoardEvaluator.GAME_OVER;
+        int y = PlacementFinder.spawnRow(board, piece);
+        for (Placement p : PlacementFinder.findHardDrops(board, piece, 0, Tetromino.SPAWN_X, y,
+                rotationSystem)) {
+            best = Math.max(best, expected(p.getBoard(), lines + p.getLinesCleared(), randomizer,
+                    rotationSystem, known, k, remaining));
+        }
+        return best;
+    }
+
+    /**
+     * Fork/join task that computes the expected values of a range of the falling
+     * piece's placements, splitting it in half until it holds one placement
+     */
+    @SuppressWarnings("serial")
+    private class CandidateRange extends RecursiveAction {
+
+        private final List<Placement> candidates;
+        private final double[] values;
+        private final int[] known;
+        private final Randomizer randomizer; // never advanced, copied before use
+        private final RotationSystem rotationSystem;
+        private final int from;
+        private final int to;
+
+        CandidateRange(List<Placement> candidates, double[] values, int[] known,
+                Randomizer randomizer, RotationSystem rotationSystem, int from, int to) {
+            this.candidates = candidates;
+            this.values = values;
+            this.known = known;
+            this.randomizer = randomizer;
+            this.rotationSystem = rotationSystem;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                Placement p = candidates.get(from);
+                values[from] = expected(p.getBoard(), p.getLinesCleared(), randomizer,
+                        rotationSystem, known, 0, depth);
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new CandidateRange(candidates, values, known, randomizer,
+                        rotationSystem, from, mid),
+                        new CandidateRange(candidates, values, known, randomizer,
+                                rotationSystem, mid, to));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,64 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ExpectimaxBotTest {
+
+    @Test
+    public void testTakesTetrisWithKnownPiece() {
+        long seed = 0;
+        while (new BagRandomizer(seed).next() != Tetromino.PIECES.indexOf('I')) {
+            seed++;
+        }
+        Tetris t = new Tetris(new BagRandomizer(seed));
+        for (int i = 16; i < 20; i++) {
+            for (int j = 1; j < BitBoard.COLS; j++) {
+                t.fill(i, j);
+            }
+        }
+        new ExpectimaxBot(new BoardEvaluator(), 1, 0).choose(t).play(t);
+        assertEquals(4, t.getLinesCleared());
+    }
+
+    @Test
+    public void testSurvivesUnseenPieces() {
+        Tetris t = new Tetris(7);
+        ExpectimaxBot bot = new ExpectimaxBot(new BoardEvaluator(), 1, 0);
+        for (int i = 0; i < 60; i++) {
+            bot.choose(t).play(t);
+        }
+        assertFalse(t.gameIsOver());
+        assertTrue(t.getLinesCleared() > 15);
+    }
+
+    @Test
+    public void testPlaysFromMovedPiece() {
+        // with no look ahead the bot plays the placement the evaluator prefers
+        // among those reachable from where the rotated and shifted piece is, also
+        // with a rotation system other than SRS
+        BoardEvaluator evaluator = new BoardEvaluator();
+        for (RotationSystem system : new RotationSystem[] { RotationSystem.SRS,
+            RotationSystem.ARS }) {
+            Tetris t = new Tetris(new BagRandomizer(6));
+            t.setRotationSystem(system);
+            for (int j = 0; j < 6; j++) {
+                t.fill(19, j);
+            }
+            t.rotateCW();
+            t.moveLeft();
+            t.moveLeft();
+
+            Placement best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Placement p : t.getPlacements()) {
+                double value = evaluator.evaluate(p.getBoard(), p.getLinesCleared());
+                if (value > bestValue) {
+                    best = p;
+                    bestValue = value;
+                }
+            }
+            new ExpectimaxBot(evaluator, 0, 0).choose(t).play(t);
+            assertEquals(best.getBoard().getHash(), t.snapshot().getBoard().getHash());
+        }
+    }
+
+}
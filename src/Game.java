@@ -1,10 +1,10 @@
-
-
 import javax.swing.*;
 
 public class Game {
     public static void main(String[] args) {
-        Runnable game = new RunTetris();
+        // "record" writes the journal of every game for JournalReplayer
+        boolean record = args.length > 0 && args[0].equals("record");
+        Runnable game = new RunTetris(record ? GameBoard.JOURNAL_FILE : null);
         SwingUtilities.invokeLater(game);
     }
 }
@@ -1,7 +1,9 @@
-
-
 import java.awt.*;
 import java.awt.event.*;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
 
 import javax.swing.*;
 
@@ -13,15 +15,36 @@ public class GameBoard extends JPanel {
     private boolean paused;
     private Timer timer;
     private Timer fastTimer;
+    private Timer autoSaveTimer;
+    private AutoSaver saver; // writes saves off the event dispatch thread
+    private AutoSaver autoSaver; // the same for autosaves, to their own file
+    private InputJournal journal; // actions of the current game
+    private long journalStart; // System.nanoTime() when the game started
+    private boolean journalDone; // whether the journal of the game was written
+    private Thread journalWriter; // the last thread started to write a journal
+    private String journalFile; // null when journals are not written
 
     // Game constants
     public static final int BOARD_WIDTH = 1000;
     public static final int BOARD_HEIGHT = 900;
+    public static final int AUTOSAVE_DELAY = 5000; // milliseconds between autosaves
+    // autosaves never replace the save of the save button, they are only loaded
+    // when there is none, for example after a crash
+    public static final String AUTOSAVE_FILE = "files/autosaved_tetris_game.dat";
+    public static final String JOURNAL_FILE = "files/last_game.journal";
 
     /**
      * Initializes the game board.
      */
     public GameBoard(JLabel statusInit) {
+        this(statusInit, null);
+    }
+
+    /**
+     * Initializes the game board, writing the journal of every game to a file
+     * when it is over or restarted so it can be replayed with JournalReplayer
+     */
+    public GameBoard(JLabel statusInit, String journalFile) {
         // creates border around the court area, JComponent method
         setBorder(BorderFactory.createLineBorder(Color.BLACK));
 
@@ -29,7 +52,8 @@ public class GameBoard extends JPanel {
         // keyboard focus, key events are handled by its key listener.
         setFocusable(true);
 
-        tetris = new Tetris();
+        this.journalFile = journalFile;
+        startGame(null);
         status = statusInit; // initializes the status JLabel
 
         timer = new Timer(500, new ActionListener() {
@@ -45,25 +69,41 @@ public class GameBoard extends JPanel {
         });
         timer.start(); // starts the normal timer
 
+        // the snapshot is taken here on the event dispatch thread, the file is
+        // written on the saver's thread and failures are reported back here
+        saver = new AutoSaver(Tetris.SAVE_FILE, true, e -> SwingUtilities.invokeLater(
+                () -> status.setText("Save Failed: " + e.getMessage())));
+        autoSaver = new AutoSaver(AUTOSAVE_FILE, true, e -> SwingUtilities.invokeLater(
+                () -> status.setText("Autosave Failed: " + e.getMessage())));
+        autoSaveTimer = new Timer(AUTOSAVE_DELAY, new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                if (!paused && !tetris.gameIsOver()) {
+                    autoSaver.submit(tetris.snapshot());
+                }
+            }
+        });
+        autoSaveTimer.start();
+
         addKeyListener(new KeyAdapter() {
             public void keyPressed(KeyEvent e) {
                 if (e.getKeyCode() == KeyEvent.VK_LEFT && !paused) {
-                    tetris.moveLeft();
+                    act(InputJournal.MOVE_LEFT);
                 } else if (e.getKeyCode() == KeyEvent.VK_RIGHT && !paused) {
-                    tetris.moveRight();
+                    act(InputJournal.MOVE_RIGHT);
                 } else if (e.getKeyCode() == KeyEvent.VK_SPACE && !paused) {
-                    tetris.hardFall();
+                    act(InputJournal.HARD_FALL);
                 } else if (e.getKeyCode() == KeyEvent.VK_DOWN && !paused) {
+                    record(InputJournal.SOFT_DROP_START);
                     // stops the normal timer
                     timer.stop();
                     // starts the fast timer
                     fastTimer.start();
                 } else if (e.getKeyChar() == 'x' || e.getKeyChar() == 'X' && !paused) {
-                    tetris.rotateCW();
+                    act(InputJournal.ROTATE_CW);
                 } else if (e.getKeyChar() == 'z' || e.getKeyChar() == 'Z' && !paused) {
-                    tetris.rotateCCW();
+                    act(InputJournal.ROTATE_CCW);
                 } else if (e.getKeyChar() == 'c' || e.getKeyChar() == 'C' && !paused) {
-                    tetris.saveBlock();
+                    act(InputJournal.SAVE_BLOCK);
                 } else if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
                     pause();
                 }
@@ -72,6 +112,7 @@ public class GameBoard extends JPanel {
 
             public void keyReleased(KeyEvent e) {
                 if (e.getKeyCode() == KeyEvent.VK_DOWN) {
+                    record(InputJournal.SOFT_DROP_STOP);
                     // stop the fast timer and start the normal timer
                     fastTimer.stop();
                     timer.start();
@@ -84,7 +125,8 @@ public class GameBoard extends JPanel {
      * (Re-)sets the game to its initial state.
      */
     public void reset() {
-        tetris.reset();
+        writeJournal();
+        startGame(null);
         status.setText("Playing...");
         paused = false;
         repaint();
@@ -94,27 +136,92 @@ public class GameBoard extends JPanel {
     }
 
     /**
-     * Pauses the game and saves the games current state
+     * Pauses the game and saves the games current state. The save is written in
+     * the background, a failure shows up in the status text
      */
     public void save() {
         if (!paused) {
+            record(InputJournal.PAUSE);
             paused = true;
             status.setText("Paused");
         }
-        tetris.save();
+        saver.submit(tetris.snapshot());
     }
 
     /**
-     * Loads a previously saved game
+     * Loads a previously saved game. The file is read in the background, after a
+     * save still being written, and the game is replaced once it is read
      */
     public void load() {
+        status.setText("Loading...");
+        new Thread(() -> {
+            GameState loaded = null;
+            String error = null;
+            try {
+                // a save still being written is the one to load
+                saver.flush();
+                loaded = new Tetris(saveFileToLoad()).snapshot();
+            } catch (FileNotFoundException e) {
+                error = "Save File Could Not Be Found";
+            } catch (IOException e) {
+                error = "Loading failed: " + e.getMessage();
+            } catch (InterruptedException e) {
+                return;
+            }
+            GameState state = loaded;
+            String message = error;
+            SwingUtilities.invokeLater(() -> finishLoad(state, message));
+        }, "save-loader").start();
+    }
+
+    /**
+     * Replaces the game by a loaded one, on the event dispatch thread
+     */
+    private void finishLoad(GameState loaded, String error) {
         reset();
-        tetris = new Tetris("files/saved_tetris_game.txt");
+        if (loaded != null) {
+            startGame(loaded);
+        } else {
+            JOptionPane.showMessageDialog(this, error);
+        }
         pause();
         repaint();
     }
 
+    /**
+     * Returns the save of the save button, else the last autosave, else a save
+     * of an earlier version
+     */
+    private static String saveFileToLoad() {
+        if (new File(Tetris.SAVE_FILE).exists()) {
+            return Tetris.SAVE_FILE;
+        }
+        return new File(AUTOSAVE_FILE).exists() ? AUTOSAVE_FILE : Tetris.LEGACY_SAVE_FILE;
+    }
+
+    /**
+     * Stops the game and waits until the saves still queued and the journal of
+     * the current game are on the disk, called when the window closes so a
+     * save made just before and the journal of an unfinished game are not lost
+     */
+    public void close() {
+        timer.stop();
+        fastTimer.stop();
+        autoSaveTimer.stop();
+        writeJournal();
+        saver.close();
+        autoSaver.close();
+        if (journalWriter != null) {
+            try {
+                journalWriter.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
     public void pause() {
+        record(InputJournal.PAUSE);
         paused = !paused;
         if (paused) {
             status.setText("Paused");
@@ -128,13 +235,69 @@ public class GameBoard extends JPanel {
     public void tick() {
         if (tetris.gameIsOver()) {
             status.setText("Game Over");
+            writeJournal();
             return;
         } else if (!paused) {
-            tetris.fall();
+            act(InputJournal.FALL);
         }
         repaint();
     }
 
+    /**
+     * Starts a game with a new journal, from the start or from a position
+     */
+    private void startGame(GameState start) {
+        long seed = ThreadLocalRandom.current().nextLong();
+        journal = start == null ? new InputJournal(seed) : new InputJournal(seed, start);
+        journalStart = System.nanoTime();
+        journalDone = false;
+        tetris = journal.newGame();
+    }
+
+    /**
+     * Applies an action to the game and records it in the journal
+     */
+    private void act(int action) {
+        record(action);
+        JournalReplayer.apply(tetris, action);
+    }
+
+    /**
+     * Records an action in the journal, nothing is recorded once it is written
+     */
+    private void record(int action) {
+        if (!journalDone) {
+            journal.record(action, (System.nanoTime() - journalStart) / 1000000);
+        }
+    }
+
+    /**
+     * Writes the journal of the current game in the background, once
+     */
+    private void writeJournal() {
+        if (journalFile == null || journalDone || journal.size() == 0) {
+            return;
+        }
+        journalDone = true;
+        InputJournal finished = journal;
+        Thread previous = journalWriter;
+        journalWriter = new Thread(() -> {
+            try {
+                // an older journal must not replace this one
+                if (previous != null) {
+                    previous.join();
+                }
+                finished.save(journalFile);
+            } catch (IOException e) {
+                SwingUtilities.invokeLater(
+                        () -> status.setText("Journal Failed: " + e.getMessage()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "journal-writer");
+        journalWriter.start();
+    }
+
     /**
      * Draws the game board.
      */
@@ -143,7 +306,7 @@ public class GameBoard extends JPanel {
         super.paintComponent(g);
 
         // draws the tetris game
-        tetris.draw(g);
+        TetrisRenderer.draw(g, tetris);
 
         // draw the lines of the grid
         g.setColor(Color.WHITE);
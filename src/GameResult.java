@@ -0,0 +1,59 @@
+public class GameResult {
+
+    private final int score;
+    private final int linesCleared;
+    private final int piecesPlaced;
+    private final long durationNanos;
+
+    /**
+     * Constructor for the result of one simulated game
+     * 
+     * @param score         The final score of the game
+     * @param linesCleared  The total lines cleared in the game
+     * @param piecesPlaced  The number of moves played
+     * @param durationNanos The wall clock time the game took in nanoseconds
+     */
+    public GameResult(int score, int linesCleared, int piecesPlaced, long durationNanos) {
+        this.score = score;
+        this.linesCleared = linesCleared;
+        this.piecesPlaced = piecesPlaced;
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * Getter method for the final score
+     * 
+     * @return int The final score of the game
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Getter method for the lines cleared
+     * 
+     * @return int The total lines cleared in the game
+     */
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+
+    /**
+     * Getter method for the number of pieces placed
+     * 
+     * @return int The number of moves played
+     */
+    public int getPiecesPlaced() {
+        return piecesPlaced;
+    }
+
+    /**
+     * Getter method for the duration of the game
+     * 
+     * @return long The time the game took in nanoseconds
+     */
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+}
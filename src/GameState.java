@@ -0,0 +1,240 @@
+public final class GameState {
+
+    // INVARIANT: board is never modified or exposed, queue packs the queued piece
+    // ids 4 bits each (id + 1, front of the queue in the lowest bits) followed by
+    // zeros, held is -1 when no piece is held
+    private final BitBoard board;
+    private final byte falling;
+    private final byte fallingState;
+    private final byte fallingX;
+    private final byte fallingY;
+    private final byte held;
+    private final long queue;
+    private final int score;
+    private final int linesCleared;
+    private final boolean canHold;
+    private final boolean gameOver;
+    private final Randomizer randomizer;
+
+    /**
+     * Constructor for a snapshot, called by Tetris.snapshot. The board and
+     * randomizer must be copies that no one else references
+     */
+    GameState(BitBoard board, Tetromino falling, Tetromino held, Iterable<Tetromino> queue,
+            int score, int linesCleared, boolean canHold, boolean gameOver,
+            Randomizer randomizer) {
+        this.board = board;
+        this.falling = (byte) falling.getPieceId();
+        this.fallingState = (byte) falling.getState();
+        this.fallingX = (byte) falling.getX();
+        this.fallingY = (byte) falling.getY();
+        this.held = (byte) (held == null ? -1 : held.getPieceId());
+        long packed = 0;
+        int shift = 0;
+        for (Tetromino t : queue) {
+            packed |= (long) (t.getPieceId() + 1) << shift;
+            shift += 4;
+        }
+        this.queue = packed;
+        this.score = score;
+        this.linesCleared = linesCleared;
+        this.canHold = canHold;
+        this.gameOver = gameOver;
+        this.randomizer = randomizer;
+    }
+
+    /**
+     * Constructor for a position read back by SaveFormat.decode, taking the
+     * fields as they are stored. The board and randomizer must not be referenced
+     * by anyone else
+     */
+    GameState(BitBoard board, int falling, int fallingState, int fallingX, int fallingY,
+            int held, long queue, int score, int linesCleared, boolean canHold,
+            boolean gameOver, Randomizer randomizer) {
+        this.board = board;
+        this.falling = (byte) falling;
+        this.fallingState = (byte) fallingState;
+        this.fallingX = (byte) fallingX;
+        this.fallingY = (byte) fallingY;
+        this.held = (byte) held;
+        this.queue = queue;
+        this.score = score;
+        this.linesCleared = linesCleared;
+        this.canHold = canHold;
+        this.gameOver = gameOver;
+        this.randomizer = randomizer;
+    }
+
+    /**
+     * Getter method for the board of the snapshot
+     * 
+     * @return BitBoard Independent copy of the board
+     */
+    public BitBoard getBoard() {
+        return board.copy();
+    }
+
+    /**
+     * Getter method for the falling tetromino
+     * 
+     * @return Tetromino New tetromino at the falling piece's position
+     */
+    public Tetromino getFallingTetromino() {
+        Tetromino t = new Tetromino(Tetromino.PIECES.charAt(falling));
+        t.moveTo(fallingX, fallingY, fallingState);
+        return t;
+    }
+
+    /**
+     * Getter method for the id of the falling piece
+     * 
+     * @return int The id of the piece, an index into Tetromino.PIECES
+     */
+    public int getFallingPiece() {
+        return falling;
+    }
+
+    /**
+     * Getter method for the orientation of the falling piece
+     * 
+     * @return int The number of clockwise rotations from spawn
+     */
+    public int getFallingState() {
+        return fallingState;
+    }
+
+    /**
+     * Getter method for the column of the falling piece's bounding box
+     * 
+     * @return int The column of the top left corner of the bounding box
+     */
+    public int getFallingX() {
+        return fallingX;
+    }
+
+    /**
+     * Getter method for the row of the falling piece's bounding box
+     * 
+     * @return int The row of the top left corner of the bounding box
+     */
+    public int getFallingY() {
+        return fallingY;
+    }
+
+    /**
+     * Getter method for the id of the held piece
+     * 
+     * @return int The id of the held piece, -1 if no piece is held
+     */
+    public int getHeldPiece() {
+        return held;
+    }
+
+    /**
+     * Getter method for the number of pieces in the queue
+     * 
+     * @return int The length of the queue
+     */
+    public int getQueueLength() {
+        return (64 - Long.numberOfLeadingZeros(queue) + 3) / 4;
+    }
+
+    /**
+     * Getter method for a piece in the queue
+     * 
+     * @param i The position in the queue, 0 for the next piece
+     * @return int The id of the piece, -1 past the end of the queue
+     */
+    public int getQueuedPiece(int i) {
+        return i < 16 ? (int) (queue >>> (4 * i) & 15) - 1 : -1;
+    }
+
+    /**
+     * Getter method for the score
+     * 
+     * @return int The score of the game
+     */
+    public int getScore() {
+        return score;
+    }
+
+    /**
+     * Getter method for the number of lines cleared
+     * 
+     * @return int The number of lines cleared in the game
+     */
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+
+    /**
+     * Getter method for whether the falling piece may be swapped with the held one
+     * 
+     * @return boolean Whether or not holding is allowed
+     */
+    public boolean canHold() {
+        return canHold;
+    }
+
+    /**
+     * Getter method for whether the game is over
+     * 
+     * @return boolean Whether or not the game is over
+     */
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    /**
+     * Method that returns the Zobrist hash of the snapshot, equal to the hash of
+     * the game when the snapshot was taken
+     * 
+     * @return long The hash of the position with the whole queue
+     */
+    public long getHash() {
+        return getHash(Zobrist.MAX_QUEUE);
+    }
+
+    /**
+     * Method that returns the Zobrist hash of the snapshot with only the first
+     * pieces of the queue, see Tetris.getHash
+     * 
+     * @param previewDepth The number of queued pieces included in the hash
+     * @return long The hash of the position
+     */
+    public long getHash(int previewDepth) {
+        long hash = board.getHash() ^ Zobrist.falling(falling, fallingState)
+                ^ Zobrist.held(held, canHold);
+        long packed = queue;
+        for (int i = 0; i < previewDepth && packed != 0; i++, packed >>>= 4) {
+            hash ^= Zobrist.queued(i, (int) (packed & 15) - 1);
+        }
+        return hash;
+    }
+
+    /**
+     * Method that returns the same position with other pieces after the queue,
+     * used by InputJournal to make a loaded game's pieces reproducible
+     */
+    GameState withRandomizer(Randomizer randomizer) {
+        return new GameState(board, falling, fallingState, fallingX, fallingY, held, queue,
+                score, linesCleared, canHold, gameOver, randomizer);
+    }
+
+    /**
+     * Package-private accessors used by Tetris.restore and the search bots, which
+     * copy what they keep
+     */
+    BitBoard board() {
+        return board;
+    }
+
+    long packedQueue() {
+        return queue;
+    }
+
+    Randomizer randomizer() {
+        return randomizer;
+    }
+
+}
@@ -0,0 +1,114 @@
+public class HistoryRandomizer implements Randomizer {
+
+    // piece ids, see Tetromino.PIECES
+    private static final int I = 0;
+    private static final int O = 1;
+    private static final int J = 2;
+    private static final int T = 3;
+    private static final int L = 4;
+    private static final int S = 5;
+    private static final int Z = 6;
+    private static final int[] FIRST_PIECES = { I, J, L, T };
+
+    private XorShiftRandom random;
+    private int tries;
+    private int[] history; // the last 4 pieces, used as a ring buffer
+    private int oldest; // index of the oldest piece of the history
+    private boolean first;
+
+    /**
+     * Constructor for a TGM style randomizer, which rerolls a piece that is in the
+     * history of the last 4 pieces up to a number of times. The history starts out
+     * filled with Z and S, and the first piece is never S, Z or O
+     * 
+     * @param seed  Seed of the piece sequence
+     * @param tries Number of rolls per piece, 4 in TGM and 6 in TGM2
+     */
+    public HistoryRandomizer(long seed, int tries) {
+        random = new XorShiftRandom(seed);
+        this.tries = tries;
+        history = new int[] { Z, S, S, Z };
+        oldest = 0;
+        first = true;
+    }
+
+    @Override
+    public int next() {
+        int piece;
+        if (first) {
+            first = false;
+            piece = FIRST_PIECES[random.nextInt(4)];
+        } else {
+            piece = random.nextInt(7);
+            for (int roll = 1; roll < tries && inHistory(piece); roll++) {
+                piece = random.nextInt(7);
+            }
+        }
+        history[oldest] = piece;
+        oldest = (oldest + 1) & 3;
+        return piece;
+    }
+
+    /**
+     * Helper method that checks whether a piece is one of the last 4 pieces
+     * 
+     * @param piece The id of the piece
+     * @return boolean Whether or not the piece is in the history
+     */
+    private boolean inHistory(int piece) {
+        return history[0] == piece || history[1] == piece || history[2] == piece
+                || history[3] == piece;
+    }
+
+    /**
+     * Method that returns the distribution of the next piece: a roll hits the
+     * history with probability q, so a piece outside the history comes up with
+     * probability (1 + q + ... + q^(tries - 1)) / 7 and one inside it only when
+     * every roll hits, q^(tries - 1) / 7
+     */
+    @Override
+    public double[] probabilities() {
+        double[] p = new double[7];
+        if (first) {
+            for (int piece : FIRST_PIECES) {
+                p[piece] = 0.25;
+            }
+            return p;
+        }
+        int distinct = 0;
+        for (int piece = 0; piece < 7; piece++) {
+            if (inHistory(piece)) {
+                distinct++;
+            }
+        }
+        int rolls = Math.max(tries, 1);
+        double q = distinct / 7.0;
+        double allHit = Math.pow(q, rolls - 1);
+        double miss = 0;
+        for (int k = 0; k < rolls; k++) {
+            miss += Math.pow(q, k);
+        }
+        for (int piece = 0; piece < 7; piece++) {
+            p[piece] = (inHistory(piece) ? allHit : miss) / 7;
+        }
+        return p;
+    }
+
+    @Override
+    public void advance(int piece) {
+        first = false;
+        history[oldest] = piece;
+        oldest = (oldest + 1) & 3;
+    }
+
+    @Override
+    public Randomizer copy() {
+        HistoryRandomizer copy = new HistoryRandomizer(0, tries);
+        copy.random = random.copy();
+        copy.history = history.clone();
+        copy.oldest = oldest;
+        copy.first = first;
+        return copy;
+    }
+
+}
@@ -0,0 +1,255 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+public class InputJournal {
+
+    // first bytes of a journal file ("TJRN") and its version
+    public static final int MAGIC = 0x544A524E;
+    public static final byte VERSION = 1;
+
+    // the actions of the game board, the ones that only change timers or what is
+    // shown are kept so a replay can be watched as it was played
+    public static final int MOVE_LEFT = 0;
+    public static final int MOVE_RIGHT = 1;
+    public static final int ROTATE_CW = 2;
+    public static final int ROTATE_CCW = 3;
+    public static final int HARD_FALL = 4;
+    public static final int SAVE_BLOCK = 5;
+    public static final int FALL = 6; // a gravity tick
+    public static final int SOFT_DROP_START = 7;
+    public static final int SOFT_DROP_STOP = 8;
+    public static final int PAUSE = 9;
+    public static final int ACTIONS = 10;
+
+    // an entry is one varint of the milliseconds since the previous entry shifted
+    // left by ACTION_BITS, plus the action
+    private static final int ACTION_BITS = 4;
+
+    private final long seed;
+    private final GameState start; // null for a new game of the seed
+
+    private byte[] entries = new byte[256];
+    private int length; // bytes of entries used
+    private int count;
+    private long time; // of the last entry
+
+    /**
+     * Constructor for a journal of a new game whose uniformly random pieces are
+     * determined by a seed, see Tetris(long)
+     * 
+     * @param seed Seed of the piece sequence
+     */
+    public InputJournal(long seed) {
+        this.seed = seed;
+        this.start = null;
+    }
+
+    /**
+     * Constructor for a journal of a game continued from a position, for example
+     * a loaded save. The pieces after the position's queue are determined by the
+     * seed, so the game must be started with newGame
+     * 
+     * @param seed  Seed of the pieces after the queue
+     * @param start The position the game starts from
+     */
+    public InputJournal(long seed, GameState start) {
+        this.seed = seed;
+        this.start = start.withRandomizer(new UniformRandomizer(seed));
+    }
+
+    /**
+     * Method that starts the game the journal's actions are played on
+     * 
+     * @return Tetris A new game in the journal's starting position
+     */
+    public Tetris newGame() {
+        return start == null ? new Tetris(seed) : new Tetris(start);
+    }
+
+    /**
+     * Method that appends an action, one or two bytes for actions less than a few
+     * seconds apart
+     * 
+     * @param action The action, one of the action constants
+     * @param time   Milliseconds since the game started, earlier times are
+     *               recorded as the time of the last action
+     */
+    public void record(int action, long time) {
+        if (action < 0 || action >= ACTIONS) {
+            throw new IllegalArgumentException("unknown action " + action);
+        }
+        long delta = Math.max(time - this.time, 0);
+        this.time += delta;
+        if (entries.length - length < 10) {
+            entries = Arrays.copyOf(entries, 2 * entries.length + 16);
+        }
+        long value = delta << ACTION_BITS | action;
+        for (; (value & ~0x7FL) != 0; value >>>= 7) {
+            entries[length++] = (byte) (value | 0x80);
+        }
+        entries[length++] = (byte) value;
+        count++;
+    }
+
+    /**
+     * Getter method for the seed of the game's pieces
+     * 
+     * @return long The seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Getter method for the number of recorded actions
+     * 
+     * @return int The number of entries
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Getter method for the time of the last action
+     * 
+     * @return long Milliseconds from the start of the game to the last action
+     */
+    public long getDuration() {
+        return time;
+    }
+
+    /**
+     * Method that starts reading the actions from the first one
+     * 
+     * @return Cursor A cursor before the first action
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    /**
+     * Method that writes the journal to a file, replacing an older one atomically
+     * 
+     * @param filename The file to write the journal to
+     * @throws IOException If the file cannot be written
+     */
+    public void save(String filename) throws IOException {
+        int header = 4 + 1 + 8 + 1 + (start != null ? SaveFormat.MAX_SIZE : 0) + 4;
+        ByteBuffer buffer = ByteBuffer.allocate(header + length);
+        buffer.putInt(MAGIC).put(VERSION).putLong(seed).put((byte) (start != null ? 1 : 0));
+        if (start != null) {
+            SaveFormat.encode(start, buffer);
+        }
+        buffer.putInt(count).put(entries, 0, length);
+
+        Path file = Paths.get(filename).toAbsolutePath();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, Arrays.copyOf(buffer.array(), buffer.position()));
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Method that reads a journal written by save
+     * 
+     * @param filename The file the journal is stored in
+     * @return InputJournal The journal
+     * @throws IOException If the file cannot be read or is not a valid journal
+     */
+    public static InputJournal load(String filename) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(Paths.get(filename)));
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Invalid Journal");
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported Journal Version " + version);
+            }
+            long seed = buffer.getLong();
+            InputJournal journal = new InputJournal(seed);
+            if (buffer.get() != 0) {
+                journal = new InputJournal(seed,
+                        SaveFormat.decode(buffer, new UniformRandomizer(seed)));
+            }
+            journal.count = buffer.getInt();
+            journal.length = buffer.remaining();
+            journal.entries = Arrays.copyOfRange(buffer.array(), buffer.position(),
+                    buffer.limit());
+
+            // the time of the last entry, also checks that every entry is whole
+            Cursor cursor = journal.cursor();
+            for (int i = 0; i < journal.count; i++) {
+                if (!cursor.next()) {
+                    throw new IOException("Invalid Journal");
+                }
+            }
+            if (cursor.offset != journal.length) {
+                throw new IOException("Invalid Journal");
+            }
+            journal.time = cursor.getTime();
+            return journal;
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Invalid Journal", e);
+        }
+    }
+
+    /**
+     * Reads the actions of a journal in order
+     */
+    public class Cursor {
+
+        private int offset;
+        private int action = -1;
+        private long time;
+
+        /**
+         * Method that moves to the next action
+         * 
+         * @return boolean False if there are no more complete actions
+         */
+        public boolean next() {
+            long value = 0;
+            int at = offset;
+            for (int shift = 0;; shift += 7) {
+                if (at >= length || shift > 63) {
+                    return false;
+                }
+                byte b = entries[at++];
+                value |= (b & 0x7FL) << shift;
+                if (b >= 0) {
+                    break;
+                }
+            }
+            offset = at;
+            action = (int) value & ((1 << ACTION_BITS) - 1);
+            time += value >>> ACTION_BITS;
+            return true;
+        }
+
+        /**
+         * Getter method for the current action
+         * 
+         * @return int One of the action constants
+         */
+        public int getAction() {
+            return action;
+        }
+
+        /**
+         * Getter method for the time of the current action
+         * 
+         * @return long Milliseconds since the game started
+         */
+        public long getTime() {
+            return time;
+        }
+    }
+
+}
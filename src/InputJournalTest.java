@@ -0,0 +1,88 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InputJournalTest {
+
+    // plays some actions on a game and records them with times 40 ms apart
+    private static long play(Tetris game, InputJournal journal, int steps) {
+        XorShiftRandom random = new XorShiftRandom(3);
+        long time = 0;
+        for (int i = 0; i < steps; i++) {
+            int action = random.nextInt(InputJournal.ACTIONS);
+            time += 40;
+            journal.record(action, time);
+            JournalReplayer.apply(game, action);
+        }
+        return time;
+    }
+
+    @Test
+    public void testReplayReproducesGame() {
+        InputJournal journal = new InputJournal(11);
+        Tetris game = journal.newGame();
+        play(game, journal, 2000);
+
+        Tetris replayed = JournalReplayer.replay(journal);
+        assertEquals(game.getHash(), replayed.getHash());
+        assertEquals(game.getScore(), replayed.getScore());
+        assertEquals(game.getLinesCleared(), replayed.getLinesCleared());
+        assertEquals(2000, journal.size());
+    }
+
+    @Test
+    public void testSaveAndLoadFromPosition() throws IOException {
+        Tetris loaded = new Tetris(new BagRandomizer(6));
+        for (int i = 0; i < 5; i++) {
+            loaded.getPlacements().get(i).play(loaded);
+        }
+        InputJournal journal = new InputJournal(4, loaded.snapshot());
+        Tetris game = journal.newGame();
+        long duration = play(game, journal, 500);
+
+        File file = File.createTempFile("game", ".journal");
+        file.deleteOnExit();
+        journal.save(file.getPath());
+        // two bytes for an action 40 ms after the last, plus the header and position
+        assertTrue(file.length() < 2 * 500 + 100);
+
+        InputJournal read = InputJournal.load(file.getPath());
+        assertEquals(500, read.size());
+        assertEquals(duration, read.getDuration());
+        assertEquals(game.getHash(), JournalReplayer.replay(read).getHash());
+    }
+
+    @Test
+    public void testAdvanceToStopsAtTime() {
+        InputJournal journal = new InputJournal(2);
+        journal.record(InputJournal.FALL, 100);
+        journal.record(InputJournal.MOVE_LEFT, 100);
+        journal.record(InputJournal.HARD_FALL, 5000);
+
+        JournalReplayer replayer = new JournalReplayer(journal);
+        assertFalse(replayer.advanceTo(99));
+        assertTrue(replayer.advanceTo(4999));
+        assertEquals(2, replayer.getApplied());
+        assertFalse(replayer.isFinished());
+        assertTrue(replayer.advanceTo(5000));
+        assertEquals(3, replayer.getApplied());
+        replayer.advanceTo(Long.MAX_VALUE);
+        assertTrue(replayer.isFinished());
+    }
+
+    @Test
+    public void testLoadRejectsTruncatedJournal() throws IOException {
+        InputJournal journal = new InputJournal(5);
+        journal.record(InputJournal.FALL, 1000000);
+        File file = File.createTempFile("game", ".journal");
+        file.deleteOnExit();
+        journal.save(file.getPath());
+        byte[] data = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(data, data.length - 1));
+        assertThrows(IOException.class, () -> InputJournal.load(file.getPath()));
+    }
+
+}
@@ -0,0 +1,201 @@
+import java.awt.*;
+import java.io.IOException;
+
+import javax.swing.*;
+
+public class JournalReplayer {
+
+    private final Tetris game;
+    private final InputJournal.Cursor cursor;
+    private boolean pending; // whether the cursor is on an action not applied yet
+    private boolean finished;
+    private int applied;
+
+    /**
+     * Constructor for a replay of a journal from the start of its game
+     *
+     * @param journal The journal to replay
+     */
+    public JournalReplayer(InputJournal journal) {
+        game = journal.newGame();
+        cursor = journal.cursor();
+    }
+
+    /**
+     * Method that applies an action to a game the way the game board does, so
+     * recording and replaying cannot disagree. Actions that only change timers
+     * or the status text do nothing
+     *
+     * @param game   The game to apply the action to
+     * @param action One of the InputJournal action constants
+     */
+    public static void apply(Tetris game, int action) {
+        switch (action) {
+        case InputJournal.MOVE_LEFT:
+            game.moveLeft();
+            break;
+        case InputJournal.MOVE_RIGHT:
+            game.moveRight();
+            break;
+        case InputJournal.ROTATE_CW:
+            game.rotateCW();
+            break;
+        case InputJournal.ROTATE_CCW:
+            game.rotateCCW();
+            break;
+        case InputJournal.HARD_FALL:
+            game.hardFall();
+            break;
+        case InputJournal.SAVE_BLOCK:
+            game.saveBlock();
+            break;
+        case InputJournal.FALL:
+            game.fall();
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Method that applies every action up to a time
+     *
+     * @param time Milliseconds since the start of the game
+     * @return boolean Whether an action was applied
+     */
+    public boolean advanceTo(long time) {
+        boolean changed = false;
+        while (!finished) {
+            if (!pending) {
+                pending = cursor.next();
+                finished = !pending;
+                continue;
+            }
+            if (cursor.getTime() > time) {
+                break;
+            }
+            apply(game, cursor.getAction());
+            pending = false;
+            applied++;
+            changed = true;
+        }
+        return changed;
+    }
+
+    /**
+     * Getter method for the replayed game
+     *
+     * @return Tetris The game after the actions applied so far
+     */
+    public Tetris getGame() {
+        return game;
+    }
+
+    /**
+     * Getter method for the number of actions applied
+     *
+     * @return int The number of actions replayed so far
+     */
+    public int getApplied() {
+        return applied;
+    }
+
+    /**
+     * Method that checks whether every action of the journal was applied
+     *
+     * @return boolean Whether the replay is over
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Method that replays a whole journal as fast as possible, without waiting
+     * between actions
+     *
+     * @param journal The journal to replay
+     * @return Tetris The game after the last action
+     */
+    public static Tetris replay(InputJournal journal) {
+        JournalReplayer replayer = new JournalReplayer(journal);
+        replayer.advanceTo(Long.MAX_VALUE);
+        return replayer.game;
+    }
+
+    /**
+     * Replays a journal. By default it is replayed headlessly many times and the
+     * replays per second, the speedup over real time and the final position are
+     * printed. With "watch" it is shown in a window at the speed it was played,
+     * optionally multiplied
+     *
+     * @param args The journal file, then "watch" and a speed or the number of
+     *             headless replays
+     */
+    public static void main(String[] args) throws IOException {
+        InputJournal journal = InputJournal.load(args.length > 0 ? args[0]
+                : GameBoard.JOURNAL_FILE);
+        if (args.length > 1 && args[1].equals("watch")) {
+            double speed = args.length > 2 ? Double.parseDouble(args[2]) : 1;
+            SwingUtilities.invokeLater(() -> watch(journal, speed));
+            return;
+        }
+
+        int replays = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Tetris game = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < replays; i++) {
+            game = replay(journal);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d actions over %.1f s replayed %d times in %.2f s "
+                + "(%.0f replays/s, %.0fx real time)%n", journal.size(),
+                journal.getDuration() / 1e3, replays, seconds, replays / seconds,
+                journal.getDuration() / 1e3 * replays / seconds);
+        System.out.printf("final position: score %d, lines %d, hash %016x%s%n",
+                game.getScore(), game.getLinesCleared(), game.getHash(),
+                game.gameIsOver() ? ", game over" : "");
+    }
+
+    /**
+     * Helper method that shows a replay in a window, applying actions on the
+     * event dispatch thread when their time has come
+     */
+    private static void watch(InputJournal journal, double speed) {
+        JournalReplayer replayer = new JournalReplayer(journal);
+        JFrame frame = new JFrame("Tetris Replay");
+        JLabel status = new JLabel("Replaying...");
+        @SuppressWarnings("serial")
+        JPanel panel = new JPanel() {
+            @Override
+            public void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                TetrisRenderer.draw(g, replayer.getGame());
+            }
+
+            @Override
+            public Dimension getPreferredSize() {
+                return new Dimension(GameBoard.BOARD_WIDTH, GameBoard.BOARD_HEIGHT);
+            }
+        };
+        panel.setBackground(Color.BLACK);
+        frame.add(panel, BorderLayout.CENTER);
+        frame.add(status, BorderLayout.SOUTH);
+        frame.pack();
+        frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        frame.setVisible(true);
+
+        long start = System.nanoTime();
+        Timer timer = new Timer(5, null);
+        timer.addActionListener(e -> {
+            if (replayer.advanceTo((long) ((System.nanoTime() - start) / 1e6 * speed))) {
+                panel.repaint();
+            }
+            if (replayer.isFinished()) {
+                status.setText("Replay finished after " + replayer.getApplied() + " actions");
+                timer.stop();
+            }
+        });
+        timer.start();
+    }
+
+}
@@ -0,0 +1,150 @@
+import java.util.Arrays;
+
+public class Move {
+
+    private final boolean hold;
+    private final int rotation;
+    private final int column;
+    private final byte[] inputs; // null when the move is played by rotating and shifting
+
+    /**
+     * Constructor for a move of the falling tetromino
+     * 
+     * @param hold     Whether to swap the falling tetromino with the held one first
+     * @param rotation Number of clockwise rotations to apply (0-3)
+     * @param column   Column the leftmost block of the tetromino should end up in
+     */
+    public Move(boolean hold, int rotation, int column) {
+        this(hold, rotation, column, null);
+    }
+
+    /**
+     * Constructor for a move of the falling tetromino that is played through the
+     * inputs a search found for it, so rotations kick and shifts go around the
+     * stack exactly as they did in the search
+     * 
+     * @param hold     Whether to swap the falling tetromino with the held one first
+     * @param rotation The orientation the tetromino ends up in (0-3)
+     * @param column   Column the leftmost block of the tetromino ends up in
+     * @param inputs   The ReachabilitySearch inputs played after holding, or null
+     *                 to rotate clockwise and shift towards the column
+     */
+    public Move(boolean hold, int rotation, int column, byte[] inputs) {
+        this.hold = hold;
+        this.rotation = rotation;
+        this.column = column;
+        this.inputs = inputs == null ? null : inputs.clone();
+    }
+
+    /**
+     * Getter method for whether the move starts by holding the falling tetromino
+     * 
+     * @return boolean Whether or not to hold first
+     */
+    public boolean isHold() {
+        return hold;
+    }
+
+    /**
+     * Getter method for the number of clockwise rotations of the move
+     * 
+     * @return int Number of clockwise rotations (0-3)
+     */
+    public int getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Getter method for the target column of the move
+     * 
+     * @return int Column of the leftmost block of the tetromino after the move
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Getter method for the inputs of the move
+     * 
+     * @return byte[] Copy of the ReachabilitySearch inputs played after holding,
+     *         or null if the move rotates clockwise and shifts to its column
+     */
+    public byte[] getInputs() {
+        return inputs == null ? null : inputs.clone();
+    }
+
+    /**
+     * Method that plays the move on a game through its input methods and hard
+     * drops. After holding, a move with inputs plays them in order, otherwise
+     * it rotates clockwise and shifts towards the target column until blocked.
+     * The rotation and column apply to the tetromino that falls after holding
+     * 
+     * @param game The game to play the move in
+     */
+    public void play(Tetris game) {
+        if (hold) {
+            game.saveBlock();
+        }
+        if (inputs != null) {
+            for (byte input : inputs) {
+                apply(game, input);
+            }
+            game.hardFall();
+            return;
+        }
+        for (int i = 0; i < rotation; i++) {
+            game.rotateCW();
+        }
+
+        Tetromino falling = game.getFallingTetromino();
+        int col = falling.getX() + Tetromino.minCol(falling.getPieceId(), falling.getState());
+        while (col < column && game.moveRight()) {
+            col++;
+        }
+        while (col > column && game.moveLeft()) {
+            col--;
+        }
+        game.hardFall();
+    }
+
+    /**
+     * Helper method that plays one ReachabilitySearch input through the game's
+     * input methods
+     */
+    static void apply(Tetris game, byte input) {
+        if (input == ReachabilitySearch.LEFT) {
+            game.moveLeft();
+        } else if (input == ReachabilitySearch.RIGHT) {
+            game.moveRight();
+        } else if (input == ReachabilitySearch.DOWN) {
+            game.fall();
+        } else if (input == ReachabilitySearch.CW) {
+            game.rotateCW();
+        } else if (input == ReachabilitySearch.CCW) {
+            game.rotateCCW();
+        } else {
+            game.rotate180();
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof Move) {
+            Move other = (Move) o;
+            return other.hold == hold && other.rotation == rotation && other.column == column
+                    && Arrays.equals(other.inputs, inputs);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return (hold ? 64 : 0) + rotation * 16 + column;
+    }
+
+    @Override
+    public String toString() {
+        return (hold ? "hold, " : "") + rotation + " CW, column " + column;
+    }
+
+}
@@ -0,0 +1,11 @@
+public interface MovePolicy {
+
+    /**
+     * Method that decides how to play the falling tetromino of a game
+     * 
+     * @param game The game to decide a move for, must not be modified
+     * @return Move The move to play
+     */
+    Move choose(Tetris game);
+
+}
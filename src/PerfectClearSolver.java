@@ -0,0 +1,386 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class PerfectClearSolver {
+
+    // plies whose placements are searched as separate fork/join tasks, deeper
+    // plies are searched on the thread that reached them
+    private static final int SPLIT_DEPTH = 2;
+    // empty rows kept below a piece whose reachability search starts above the
+    // bottom rows, enough for any rotation
+    private static final int MARGIN = 4;
+
+    private final boolean hold;
+    private final int maxHeight;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<ReachabilitySearch> searches;
+
+    /**
+     * Constructor for a solver that searches on the common fork/join pool
+     * 
+     * @param rotationSystem The kick tables pieces rotate with
+     * @param hold           Whether the solution may use the hold slot
+     * @param maxHeight      Number of bottom rows a solution may build in, 4 for
+     *                       the usual setups
+     */
+    public PerfectClearSolver(RotationSystem rotationSystem, boolean hold, int maxHeight) {
+        this(rotationSystem, hold, maxHeight, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for a solver that searches on a given fork/join pool
+     * 
+     * @param rotationSystem The kick tables pieces rotate with
+     * @param hold           Whether the solution may use the hold slot
+     * @param maxHeight      Number of bottom rows a solution may build in
+     * @param pool           The pool the first placements are split over
+     */
+    public PerfectClearSolver(RotationSystem rotationSystem, boolean hold, int maxHeight,
+            ForkJoinPool pool) {
+        this.hold = hold;
+        this.maxHeight = maxHeight;
+        this.pool = pool;
+        this.searches = ThreadLocal.withInitial(() -> new ReachabilitySearch(rotationSystem));
+    }
+
+    /**
+     * Method that looks for a perfect clear of a game position with the falling
+     * piece, the queue and the held piece, for example a game loaded from a save
+     * file
+     * 
+     * @param state The position to clear
+     * @return List of placements that empty the board, null if there is none
+     */
+    public List<Placement> solve(GameState state) {
+        int[] pieces = new int[1 + state.getQueueLength()];
+        pieces[0] = state.getFallingPiece();
+        for (int i = 1; i < pieces.length; i++) {
+            pieces[i] = state.getQueuedPiece(i - 1);
+        }
+        return solve(state.getBoard(), pieces, state.getHeldPiece(), state.canHold());
+    }
+
+    /**
+     * Method that looks for placements of a known piece sequence that leave the
+     * board empty, trying the lowest possible height first. Every piece starts at
+     * its spawn and may be moved, soft dropped and rotated into place, the inputs
+     * of each placement are recorded. With hold, a placement of a piece other than
+     * the falling one is played by holding first
+     * 
+     * @param board  The board to clear, not modified
+     * @param pieces The ids of the pieces in the order they fall
+     * @param held   The id of the held piece, -1 if none
+     * @return List of placements that empty the board, null if there is none
+     */
+    public List<Placement> solve(BitBoard board, int[] pieces, int held) {
+        return solve(board, pieces, held, true);
+    }
+
+    /**
+     * Helper method that solves a position where holding may not be allowed
+     * before the falling piece is placed
+     */
+    private List<Placement> solve(BitBoard board, int[] pieces, int held, boolean canHold) {
+        int filled = 0;
+        int top = 0;
+        for (int i = 0; i < BitBoard.ROWS; i++) {
+            filled += Integer.bitCount(board.getRow(i));
+        }
+        for (int j = 0; j < BitBoard.COLS; j++) {
+            top = Math.max(top, board.getHeight(j));
+        }
+        if (filled == 0) {
+            return new ArrayList<Placement>();
+        }
+
+        for (int height = Math.max(top, 1); height <= maxHeight; height++) {
+            int empty = BitBoard.COLS * height - filled;
+            Search search = new Search(pieces, canHold);
+            if (empty % 4 == 0 && feasible(search, board, 0, hold ? held : -1, height)) {
+                List<Placement> solution = pool.invoke(new Branch(search, board.copy(), 0,
+                        hold ? held : -1, height, 0, null));
+                if (solution != null) {
+                    return withInputs(board, solution);
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Helper method that searches every way to continue from a position, in
+     * parallel for the first plies
+     * 
+     * @return List of the placements that empty the board, null if there is none
+     *         or another branch found one first
+     */
+    private List<Placement> search(Search s, BitBoard board, int index, int held, int height,
+            int depth) {
+        if (isEmpty(board)) {
+            s.solved = true;
+            return new ArrayList<Placement>();
+        }
+        if (height == 0 || s.solved) {
+            return null;
+        }
+        long key = 31 * (board.getHash() ^ Zobrist.held(held, true)) + index;
+        if (s.failed.contains(key)) {
+            return null;
+        }
+
+        // the pieces that can be placed next: the falling one, or with hold the held
+        // one (or the one after the falling one when nothing is held)
+        int n = s.pieces.length;
+        boolean canHold = hold && (index > 0 || s.canHoldFirst);
+        List<Branch> branches = new ArrayList<Branch>();
+        if (index < n) {
+            branches.addAll(branches(s, board, s.pieces[index], index + 1, held, height, depth));
+        }
+        if (canHold && held >= 0 && (index == n || held != s.pieces[index])) {
+            int nextHeld = index < n ? s.pieces[index] : -1;
+            branches.addAll(branches(s, board, held, Math.min(index + 1, n), nextHeld, height,
+                    depth));
+        } else if (canHold && held < 0 && index + 1 < n
+                && s.pieces[index + 1] != s.pieces[index]) {
+            branches.addAll(branches(s, board, s.pieces[index + 1], index + 2, s.pieces[index],
+                    height, depth));
+        }
+
+        // filling from the bottom up finds most solutions first
+        branches.sort(Comparator.comparingInt((Branch b) -> -b.placement.getY()
+                - Tetromino.maxRow(b.placement.getPiece(), b.placement.getState())));
+        List<Placement> solution = null;
+        if (depth < SPLIT_DEPTH) {
+            for (Branch b : branches) {
+                b.fork();
+            }
+            for (Branch b : branches) {
+                List<Placement> found = b.join();
+                if (solution == null && found != null) {
+                    solution = found;
+                }
+            }
+        } else {
+            for (Branch b : branches) {
+                solution = b.compute();
+                if (solution != null) {
+                    break;
+                }
+            }
+        }
+        if (solution == null && !s.solved) {
+            // only a complete search proves the position has no solution
+            s.failed.add(key);
+        }
+        return solution;
+    }
+
+    /**
+     * Helper method that lists the placements of a piece inside the bottom rows
+     * that leave a position worth searching as branches of the search. Without
+     * overhangs every placement a piece can reach is a hard drop, so the full
+     * reachability search only runs when tucks and spins are possible. The rows
+     * above the bottom ones are empty, so that search starts just above them
+     * instead of at the spawn and skips the inputs, withInputs adds them back to
+     * the placements of a solution
+     */
+    private List<Branch> branches(Search s, BitBoard board, int piece, int index, int held,
+            int height, int depth) {
+        List<Branch> branches = new ArrayList<Branch>();
+        int y = PlacementFinder.spawnRow(board, piece);
+        List<Placement> placements;
+        if (hasOverhang(board, height)) {
+            int start = BitBoard.ROWS - height - MARGIN - 1 - Tetromino.maxRow(piece, 0);
+            placements = searches.get().search(board, piece, 0, Tetromino.SPAWN_X,
+                    Math.max(start, y), false);
+        } else {
+            placements = PlacementFinder.findHardDrops(board, piece, y);
+        }
+        for (Placement p : placements) {
+            int remaining = height - p.getLinesCleared();
+            if (p.getY() + Tetromino.minRow(piece, p.getState()) >= BitBoard.ROWS - height
+                    && feasible(s, p.board(), index, held, remaining)) {
+                branches.add(new Branch(s, p.board(), index, held, remaining, depth + 1, p));
+            }
+        }
+        return branches;
+    }
+
+    /**
+     * Helper method that replaces the placements of a solution by the same
+     * placements with the inputs that reach them from the spawn. Every placement
+     * the search tries is reachable from the spawn, since the rows above the
+     * bottom ones are empty, so a placement without inputs is a bug: without
+     * them it would be played as a plain hard drop and could land elsewhere
+     */
+    private List<Placement> withInputs(BitBoard board, List<Placement> solution) {
+        List<Placement> placements = new ArrayList<Placement>(solution.size());
+        for (Placement p : solution) {
+            int piece = p.getPiece();
+            long key = PlacementFinder.cellsKey(piece, p.getState(), p.getX(), p.getY());
+            int y = PlacementFinder.spawnRow(board, piece);
+            Placement found = null;
+            for (Placement q : searches.get().search(board, piece, 0, Tetromino.SPAWN_X, y)) {
+                if (PlacementFinder.cellsKey(piece, q.getState(), q.getX(), q.getY()) == key) {
+                    found = q;
+                    break;
+                }
+            }
+            if (found == null) {
+                throw new IllegalStateException("placement of " + Tetromino.PIECES.charAt(piece)
+                        + " in the solution cannot be reached from the spawn");
+            }
+            placements.add(found);
+            board = p.board();
+        }
+        return placements;
+    }
+
+    /**
+     * Helper method that checks whether an empty cell of the bottom rows has a
+     * filled cell above it
+     */
+    private static boolean hasOverhang(BitBoard board, int height) {
+        int emptyBelow = 0;
+        for (int i = BitBoard.ROWS - 1; i >= BitBoard.ROWS - height; i--) {
+            int row = board.getRow(i);
+            if ((row & emptyBelow) != 0) {
+                return true;
+            }
+            emptyBelow |= ~row & BitBoard.FULL_ROW;
+        }
+        return false;
+    }
+
+    /**
+     * Helper method that prunes positions that cannot be cleared. There must be
+     * enough pieces left to fill the empty cells of the bottom rows, a column
+     * filled up to the top of them splits the board into parts that are filled
+     * separately so each part needs a multiple of 4 empty cells, and the
+     * difference between the empty cells of even and odd columns must be made up
+     * by pieces that cover more of one than the other: a vertical I covers 4 more,
+     * a J, L or T 2 more in some orientations and every other piece as many of
+     * both. Line clears remove as many cells of both and never move cells between
+     * columns, so the argument holds across them
+     */
+    private boolean feasible(Search s, BitBoard board, int index, int held, int height) {
+        if (height == 0) {
+            return isEmpty(board);
+        }
+        int walls = BitBoard.FULL_ROW; // columns filled in every bottom row
+        int[] empty = new int[height];
+        for (int i = 0; i < height; i++) {
+            int row = board.getRow(BitBoard.ROWS - 1 - i);
+            walls &= row;
+            empty[i] = ~row & BitBoard.FULL_ROW;
+        }
+        int cells = 0;
+        int balance = 0; // empty cells in even columns minus in odd columns
+        int part = 0;
+        for (int j = 0; j <= BitBoard.COLS; j++) {
+            if (j == BitBoard.COLS || (walls >>> j & 1) != 0) {
+                if (part % 4 != 0) {
+                    return false;
+                }
+                part = 0;
+                continue;
+            }
+            int column = 0;
+            for (int i = 0; i < height; i++) {
+                column += empty[i] >>> j & 1;
+            }
+            part += column;
+            cells += column;
+            balance += (j & 1) == 0 ? column : -column;
+        }
+
+        int is = 0;
+        int twos = 0; // pieces that can cover 2 more cells of one column parity
+        int available = 0;
+        for (int k = index; k < s.pieces.length; k++) {
+            int piece = s.pieces[k];
+            is += piece == 0 ? 1 : 0;
+            twos += piece == 2 || piece == 3 || piece == 4 ? 1 : 0;
+            available++;
+        }
+        if (hold && held >= 0) {
+            is += held == 0 ? 1 : 0;
+            twos += held == 2 || held == 3 || held == 4 ? 1 : 0;
+            available++;
+        }
+        balance = Math.abs(balance);
+        return cells / 4 <= available && balance <= 4 * is + 2 * twos
+                && (balance % 4 == 0 || twos > 0);
+    }
+
+    private static boolean isEmpty(BitBoard board) {
+        for (int j = 0; j < BitBoard.COLS; j++) {
+            if (board.getHeight(j) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The state shared by every branch of one solve call: the pieces, the
+     * positions proven to have no solution and whether a solution was found
+     */
+    private static class Search {
+
+        private final int[] pieces;
+        private final boolean canHoldFirst;
+        private final Set<Long> failed = ConcurrentHashMap.newKeySet();
+        private volatile boolean solved; // set once, the other branches give up
+
+        Search(int[] pieces, boolean canHoldFirst) {
+            this.pieces = pieces;
+            this.canHoldFirst = canHoldFirst;
+        }
+    }
+
+    /**
+     * Fork/join task that searches the position after a placement and returns the
+     * solution from there, starting with the placement
+     */
+    @SuppressWarnings("serial")
+    private class Branch extends RecursiveTask<List<Placement>> {
+
+        private final Search search;
+        private final BitBoard board;
+        private final int index;
+        private final int held;
+        private final int height;
+        private final int depth;
+        private final Placement placement; // null for the starting position
+
+        Branch(Search search, BitBoard board, int index, int held, int height, int depth,
+                Placement placement) {
+            this.search = search;
+            this.board = board;
+            this.index = index;
+            this.held = held;
+            this.height = height;
+            this.depth = depth;
+            this.placement = placement;
+        }
+
+        @Override
+        protected List<Placement> compute() {
+            List<Placement> solution = search(search, board, index, held, height, depth);
+            if (solution == null) {
+                return null;
+            }
+            if (placement != null) {
+                solution.add(0, placement);
+            }
+            return solution;
+        }
+    }
+
+}
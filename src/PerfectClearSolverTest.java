@@ -0,0 +1,112 @@
+import java.util.List;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerfectClearSolverTest {
+
+    /**
+     * Helper method that checks a solution by locking its placements in order,
+     * holding whenever a placement is not of the falling piece
+     */
+    private static void assertClears(BitBoard board, int[] pieces, int held, List<Placement> solution) {
+        assertNotNull(solution);
+        BitBoard current = board.copy();
+        int index = 0;
+        for (Placement p : solution) {
+            if (p.getPiece() != pieces[index]) {
+                // hold: the held piece or, with nothing held, the next piece is placed
+                int falling = pieces[index];
+                if (held < 0) {
+                    index++;
+                }
+                assertEquals(held < 0 ? pieces[index] : held, p.getPiece());
+                held = falling;
+            }
+            index++;
+            assertTrue(current.lock(p.getPiece(), p.getState(), p.getX(), p.getY()));
+            current.clearFullRows();
+            for (int i = 0; i < BitBoard.ROWS; i++) {
+                assertEquals(p.getBoard().getRow(i), current.getRow(i));
+            }
+        }
+        for (int j = 0; j < BitBoard.COLS; j++) {
+            assertEquals(0, current.getHeight(j));
+        }
+    }
+
+    @Test
+    public void testWellNeedsI() {
+        BitBoard board = new BitBoard();
+        for (int i = 16; i < 20; i++) {
+            for (int j = 0; j < 9; j++) {
+                board.fill(i, j, 1);
+            }
+        }
+        int[] pieces = { Tetromino.PIECES.indexOf('O'), Tetromino.PIECES.indexOf('I') };
+        PerfectClearSolver solver = new PerfectClearSolver(RotationSystem.SRS, true, 4);
+        List<Placement> solution = solver.solve(board, pieces, -1);
+        assertClears(board, pieces, -1, solution);
+        assertEquals(1, solution.size());
+        assertNull(new PerfectClearSolver(RotationSystem.SRS, false, 4).solve(board, pieces, -1));
+    }
+
+    @Test
+    public void testParityPrunesOddColumns() {
+        // 2 empty cells in each of columns 0 and 2 cannot be filled by O pieces
+        BitBoard board = new BitBoard();
+        for (int i = 18; i < 20; i++) {
+            for (int j = 0; j < BitBoard.COLS; j++) {
+                if (j != 0 && j != 2) {
+                    board.fill(i, j, 1);
+                }
+            }
+        }
+        int[] pieces = { 1, 1, 1 };
+        assertNull(new PerfectClearSolver(RotationSystem.SRS, true, 4).solve(board, pieces, -1));
+    }
+
+    @Test
+    public void testSolutionPlaysInGame() {
+        // a 2x2 corner leaves 16 cells of the 2 bottom rows for 4 of the 5 known
+        // pieces
+        Tetris game = new Tetris(new BagRandomizer(0));
+        game.fill(19, 0);
+        game.fill(19, 1);
+        game.fill(18, 0);
+        game.fill(18, 1);
+        PerfectClearSolver solver = new PerfectClearSolver(RotationSystem.SRS, true, 4);
+        List<Placement> solution = solver.solve(game.snapshot());
+        assertNotNull(solution);
+        for (Placement p : solution) {
+            if (p.getPiece() != game.getFallingTetromino().getPieceId()) {
+                game.saveBlock();
+            }
+            assertEquals(p.getPiece(), game.getFallingTetromino().getPieceId());
+            assertNotNull(p.getInputs());
+            p.play(game);
+        }
+        assertEquals(2, game.getLinesCleared());
+        for (int j = 0; j < BitBoard.COLS; j++) {
+            assertEquals(0, game.getCellColor(19, j));
+        }
+    }
+
+    @Test
+    public void testOpeningPerfectClear() {
+        // with a square already in the bottom left corner, nine of the first 7-bag
+        // and the 4 pieces after it fill the other 36 cells of the 4 bottom rows
+        BagRandomizer bag = new BagRandomizer(4);
+        int[] pieces = new int[11];
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] = bag.next();
+        }
+        BitBoard board = new BitBoard();
+        board.fill(19, 0, 1);
+        board.fill(19, 1, 1);
+        board.fill(18, 0, 1);
+        board.fill(18, 1, 1);
+        PerfectClearSolver solver = new PerfectClearSolver(RotationSystem.SRS, true, 4);
+        assertClears(board, pieces, -1, solver.solve(board, pieces, -1));
+    }
+
+}
@@ -0,0 +1,362 @@
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Perft {
+
+    // positions of a level expanded by one fork/join task before it stops
+    // splitting
+    private static final int NODES_PER_TASK = 4;
+
+    private final RotationSystem rotationSystem;
+    private final boolean hold;
+    private final boolean reference;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<ReachabilitySearch> searches;
+    private final LongAdder nodes = new LongAdder();
+
+    /**
+     * Constructor for a counter that generates moves on bit boards directly and
+     * splits every level over the common fork/join pool
+     * 
+     * @param rotationSystem The kick tables pieces rotate with
+     * @param hold           Whether holding the falling piece counts as a move
+     */
+    public Perft(RotationSystem rotationSystem, boolean hold) {
+        this(rotationSystem, hold, false, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for a counter
+     * 
+     * @param rotationSystem The kick tables pieces rotate with
+     * @param hold           Whether holding the falling piece counts as a move
+     * @param reference      Whether the placements are found by trying every input
+     *                       method of a real game instead of searching the bit
+     *                       board, slower but exactly the game's rules
+     * @param pool           The pool every level is split over
+     */
+    public Perft(RotationSystem rotationSystem, boolean hold, boolean reference,
+            ForkJoinPool pool) {
+        this.rotationSystem = rotationSystem;
+        this.hold = hold;
+        this.reference = reference;
+        this.pool = pool;
+        this.searches = ThreadLocal.withInitial(() -> new ReachabilitySearch(rotationSystem));
+    }
+
+    /**
+     * Method that counts the distinct positions reachable by placing a number of
+     * pieces from a game position. A position is the board, the held piece,
+     * whether holding is allowed and how many pieces were used, positions reached
+     * by different move orders are counted and expanded once. Every placement
+     * reachable by moves, soft drops and rotations counts, positions where the
+     * game is over do not. The pieces come from the queue and the randomizer of
+     * the position, so the count is the same on every run
+     * 
+     * @param root  The position to count from
+     * @param depth The number of pieces to place
+     * @return long The number of distinct positions after the last piece
+     */
+    public long count(GameState root, int depth) {
+        return positions(root, depth).size();
+    }
+
+    /**
+     * Method that finds the distinct positions counted by count, so two counters
+     * can be compared position by position
+     * 
+     * @param root  The position to count from
+     * @param depth The number of pieces to place
+     * @return Set of the keys of the positions after the last piece: the hash of
+     *         the board and hold slot combined with the number of pieces used
+     */
+    public Set<Long> positions(GameState root, int depth) {
+        nodes.reset();
+        if (root.isGameOver()) {
+            return Collections.emptySet();
+        }
+        int[] pieces = pieces(root, hold ? 2 * depth + 1 : depth + 1);
+        Node start = new Node(root.getBoard(), 0, root.getHeldPiece(), root.canHold(),
+                root.getFallingState(), root.getFallingX(), root.getFallingY(),
+                reference ? root : null);
+
+        ConcurrentHashMap<Long, Node> level = new ConcurrentHashMap<Long, Node>();
+        level.put(start.key(), start);
+        for (int ply = 0; ply < depth && !level.isEmpty(); ply++) {
+            List<Node> expanded = new ArrayList<Node>(level.values());
+            level = new ConcurrentHashMap<Long, Node>();
+            pool.invoke(new Expansion(expanded, 0, expanded.size(), pieces, level));
+        }
+        return level.keySet();
+    }
+
+    /**
+     * Getter method for the number of placements generated by the last count,
+     * including those of positions reached more than once
+     * 
+     * @return long The number of generated placements
+     */
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    /**
+     * Helper method that lists the pieces of a position in order: the falling
+     * piece, the queue and then the pieces the randomizer generates
+     */
+    private static int[] pieces(GameState root, int length) {
+        int[] pieces = new int[length];
+        Randomizer randomizer = root.randomizer().copy();
+        pieces[0] = root.getFallingPiece();
+        for (int i = 1; i < length; i++) {
+            pieces[i] = i - 1 < root.getQueueLength() ? root.getQueuedPiece(i - 1)
+                    : randomizer.next();
+        }
+        return pieces;
+    }
+
+    /**
+     * Helper method that adds the positions after every placement of a node's
+     * falling piece, and of the piece it holds, to the next level
+     */
+    private void expand(Node node, int[] pieces, ConcurrentHashMap<Long, Node> next) {
+        int piece = pieces[node.index];
+        for (Placement p : searches.get().search(node.board, piece, node.state, node.x,
+                node.y)) {
+            add(p.getBoard(), node.index + 1, node.held, pieces, next);
+        }
+        if (!hold || !node.canHold) {
+            return;
+        }
+        if (node.held >= 0) {
+            // the held piece comes back at its spawn without being pushed up
+            int y = Tetromino.spawnY(node.held);
+            for (Placement p : searches.get().search(node.board, node.held, 0,
+                    Tetromino.SPAWN_X, y)) {
+                add(p.getBoard(), node.index + 1, piece, pieces, next);
+            }
+        } else {
+            int following = pieces[node.index + 1];
+            int y = PlacementFinder.spawnRow(node.board, following);
+            for (Placement p : searches.get().search(node.board, following, 0,
+                    Tetromino.SPAWN_X, y)) {
+                add(p.getBoard(), node.index + 2, piece, pieces, next);
+            }
+        }
+    }
+
+    private void add(BitBoard board, int index, int held, int[] pieces,
+            ConcurrentHashMap<Long, Node> next) {
+        nodes.increment();
+        int y = PlacementFinder.spawnRow(board, pieces[index]);
+        Node child = new Node(board, index, held, true, 0, Tetromino.SPAWN_X, y, null);
+        next.putIfAbsent(child.key(), child);
+    }
+
+    /**
+     * Helper method that does what expand does with a search of its own on a
+     * real game, as a reference for the bit board moves: every position of the
+     * falling piece is reached by trying each input method from the positions
+     * before it, and the piece locks where falling would not move it
+     */
+    private void expandReference(Tetris game, Node node, ConcurrentHashMap<Long, Node> next) {
+        game.restore(node.snapshot);
+        searchReference(game, node.index + 1, next);
+        if (!hold || !node.canHold) {
+            return;
+        }
+        game.restore(node.snapshot);
+        game.saveBlock();
+        searchReference(game, node.held >= 0 ? node.index + 1 : node.index + 2, next);
+    }
+
+    /**
+     * Helper method that runs a breadth-first search over the positions of the
+     * falling piece of a game and adds the position after every distinct lock
+     */
+    private void searchReference(Tetris game, int index, ConcurrentHashMap<Long, Node> next) {
+        GameState start = game.snapshot();
+        Set<Long> visited = new HashSet<Long>();
+        Set<Long> locked = new HashSet<Long>();
+        ArrayDeque<GameState> queue = new ArrayDeque<GameState>();
+        visited.add(fallingKey(game.getFallingTetromino()));
+        queue.add(start);
+
+        while (!queue.isEmpty()) {
+            GameState current = queue.poll();
+            for (int move = 0; move < 5; move++) {
+                game.restore(current);
+                boolean moved = move == 0 ? game.moveLeft()
+                        : move == 1 ? game.moveRight()
+                        : move == 2 ? game.rotateCW()
+                        : move == 3 ? game.rotateCCW()
+                        : game.rotate180();
+                if (moved && visited.add(fallingKey(game.getFallingTetromino()))) {
+                    queue.add(game.snapshot());
+                }
+            }
+
+            game.restore(current);
+            Tetromino falling = game.getFallingTetromino();
+            if (game.getDropDistance() > 0) {
+                game.fall();
+                if (visited.add(fallingKey(game.getFallingTetromino()))) {
+                    queue.add(game.snapshot());
+                }
+            } else if (locked.add(PlacementFinder.cellsKey(falling.getPieceId(),
+                    falling.getState(), falling.getX(), falling.getY()))) {
+                game.fall();
+                addReference(game, index, next);
+            }
+        }
+    }
+
+    /**
+     * Helper method that packs the orientation and bounding box position of a
+     * falling tetromino into a long
+     */
+    private static long fallingKey(Tetromino falling) {
+        return ((long) falling.getState() << 32) + ((long) falling.getX() << 16)
+                + falling.getY();
+    }
+
+    private void addReference(Tetris game, int index, ConcurrentHashMap<Long, Node> next) {
+        nodes.increment();
+        if (game.gameIsOver()) {
+            return;
+        }
+        GameState state = game.snapshot();
+        Node child = new Node(state.board(), index, state.getHeldPiece(), state.canHold(),
+                state.getFallingState(), state.getFallingX(), state.getFallingY(), state);
+        next.putIfAbsent(child.key(), child);
+    }
+
+    /**
+     * A position reached by the count: the board, the index of the falling piece
+     * in the piece order, the hold slot and where the falling piece starts
+     */
+    private static class Node {
+
+        private final BitBoard board;
+        private final int index;
+        private final int held;
+        private final boolean canHold;
+        private final int state;
+        private final int x;
+        private final int y;
+        private final GameState snapshot; // the whole game, only for the reference
+
+        Node(BitBoard board, int index, int held, boolean canHold, int state, int x, int y,
+                GameState snapshot) {
+            this.board = board;
+            this.index = index;
+            this.held = held;
+            this.canHold = canHold;
+            this.state = state;
+            this.x = x;
+            this.y = y;
+            this.snapshot = snapshot;
+        }
+
+        long key() {
+            return 31 * (board.getHash() ^ Zobrist.held(held, canHold)) + index;
+        }
+    }
+
+    /**
+     * Fork/join task that expands the nodes of a range of a level, splitting it in
+     * half until it is small
+     */
+    @SuppressWarnings("serial")
+    private class Expansion extends RecursiveAction {
+
+        private final List<Node> level;
+        private final int from;
+        private final int to;
+        private final int[] pieces;
+        private final ConcurrentHashMap<Long, Node> next;
+
+        Expansion(List<Node> level, int from, int to, int[] pieces,
+                ConcurrentHashMap<Long, Node> next) {
+            this.level = level;
+            this.from = from;
+            this.to = to;
+            this.pieces = pieces;
+            this.next = next;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= NODES_PER_TASK) {
+                Tetris game = null;
+                for (int i = from; i < to; i++) {
+                    Node node = level.get(i);
+                    if (!reference) {
+                        expand(node, pieces, next);
+                        continue;
+                    }
+                    if (game == null) {
+                        game = new Tetris(node.snapshot);
+                        game.setRotationSystem(rotationSystem);
+                    }
+                    expandReference(game, node, next);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Expansion(level, from, mid, pieces, next),
+                        new Expansion(level, mid, to, pieces, next));
+            }
+        }
+    }
+
+    /**
+     * Counts the positions after 1 to N pieces from the start of a 7-bag game and
+     * prints the counts and the placements generated per second. With "check"
+     * every count is repeated by searching the placements on real games and a
+     * different set of positions is reported as a failure
+     * 
+     * @param args Optional number of pieces, hold ("hold" or "nohold"), seed,
+     *             worker threads and "check"
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 3;
+        boolean hold = args.length > 1 && args[1].equals("hold");
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        int threads = args.length > 3 ? Integer.parseInt(args[3])
+                : Runtime.getRuntime().availableProcessors();
+        boolean check = args.length > 4 && args[4].equals("check");
+
+        GameState root = new Tetris(new BagRandomizer(seed)).snapshot();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            Perft fast = new Perft(RotationSystem.SRS, hold, false, pool);
+            Perft slow = new Perft(RotationSystem.SRS, hold, true, pool);
+            for (int d = 1; d <= depth; d++) {
+                long start = System.nanoTime();
+                Set<Long> positions = fast.positions(root, d);
+                double seconds = (System.nanoTime() - start) / 1e9;
+                System.out.printf("depth %d: %d positions, %d nodes in %.2f s (%.0f nodes/s)%n",
+                        d, positions.size(), fast.getNodes(), seconds,
+                        fast.getNodes() / seconds);
+                if (check) {
+                    Set<Long> expected = slow.positions(root, d);
+                    if (!expected.equals(positions)) {
+                        System.out.println("MISMATCH: reference counts " + expected.size());
+                        System.exit(1);
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PerftTest {
+
+    @Test
+    public void testOnePieceOnEmptyBoard() {
+        // the first piece of seed 0 spawns on an empty board, every orientation at
+        // every column is one position
+        GameState root = new Tetris(new BagRandomizer(0)).snapshot();
+        int piece = root.getFallingPiece();
+        int expected = PlacementFinder.findHardDrops(root.getBoard(), piece,
+                root.getFallingY()).size();
+        assertEquals(expected, new Perft(RotationSystem.SRS, false).count(root, 1));
+    }
+
+    @Test
+    public void testMatchesReference() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            GameState root = new Tetris(new BagRandomizer(3)).snapshot();
+            for (boolean hold : new boolean[] { false, true }) {
+                Perft fast = new Perft(RotationSystem.SRS, hold, false, pool);
+                Perft reference = new Perft(RotationSystem.SRS, hold, true, pool);
+                assertEquals(reference.positions(root, 2), fast.positions(root, 2));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testMatchesReferenceOnStack() {
+        // overhangs and a walled column, where tucks and kicks decide what is
+        // reachable
+        Tetris t = new Tetris(new BagRandomizer(5));
+        for (int i = 10; i < BitBoard.ROWS; i++) {
+            t.fill(i, 7);
+        }
+        for (int j = 0; j < 3; j++) {
+            t.fill(16, j);
+        }
+        t.fill(19, 4);
+        t.fill(17, 5);
+        GameState root = t.snapshot();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            Perft fast = new Perft(RotationSystem.SRS, true, false, pool);
+            Perft reference = new Perft(RotationSystem.SRS, true, true, pool);
+            assertEquals(reference.positions(root, 2), fast.positions(root, 2));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testRegressionCounts() {
+        // counts of the current movement and SRS kick rules, any change to them
+        // changes these numbers
+        GameState root = new Tetris(new BagRandomizer(0)).snapshot();
+        Perft noHold = new Perft(RotationSystem.SRS, false);
+        assertEquals(5628, noHold.count(root, 3));
+        assertEquals(6257, noHold.getNodes());
+        Perft hold = new Perft(RotationSystem.SRS, true);
+        assertEquals(1639, hold.count(root, 2));
+        assertEquals(1690, hold.getNodes());
+    }
+
+}
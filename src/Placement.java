@@ -0,0 +1,156 @@
+public class Placement {
+
+    private final int piece;
+    private final int state;
+    private final int x;
+    private final int y;
+    private final int linesCleared;
+    private final BitBoard board;
+    private final byte[] inputs; // null if unknown, then reached by rotating and shifting
+
+    /**
+     * Constructor for the final resting position of a piece
+     * 
+     * @param piece        The id of the piece
+     * @param state        The orientation of the piece
+     * @param x            The column of the piece's bounding box
+     * @param y            The row of the piece's bounding box
+     * @param linesCleared The number of rows the piece completes
+     * @param board        The board after locking the piece and clearing rows
+     */
+    public Placement(int piece, int state, int x, int y, int linesCleared, BitBoard board) {
+        this(piece, state, x, y, linesCleared, board, null);
+    }
+
+    /**
+     * Constructor for the final resting position of a piece reached through a
+     * sequence of inputs
+     * 
+     * @param piece        The id of the piece
+     * @param state        The orientation of the piece
+     * @param x            The column of the piece's bounding box
+     * @param y            The row of the piece's bounding box
+     * @param linesCleared The number of rows the piece completes
+     * @param board        The board after locking the piece and clearing rows
+     * @param inputs       The ReachabilitySearch inputs that lead to the position
+     */
+    public Placement(int piece, int state, int x, int y, int linesCleared, BitBoard board,
+            byte[] inputs) {
+        this.piece = piece;
+        this.state = state;
+        this.x = x;
+        this.y = y;
+        this.linesCleared = linesCleared;
+        this.board = board;
+        this.inputs = inputs;
+    }
+
+    /**
+     * Getter method for the piece that is placed
+     * 
+     * @return int The id of the piece
+     */
+    public int getPiece() {
+        return piece;
+    }
+
+    /**
+     * Getter method for the orientation of the piece
+     * 
+     * @return int Number of clockwise rotations from spawn
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * Getter method for the column of the piece's bounding box
+     * 
+     * @return int The column of the bounding box
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Getter method for the row of the piece's bounding box
+     * 
+     * @return int The row of the bounding box
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Getter method for the column of the leftmost block of the piece
+     * 
+     * @return int The leftmost column the piece occupies
+     */
+    public int getColumn() {
+        return x + Tetromino.minCol(piece, state);
+    }
+
+    /**
+     * Getter method for the number of rows the placement clears
+     * 
+     * @return int The number of rows cleared
+     */
+    public int getLinesCleared() {
+        return linesCleared;
+    }
+
+    /**
+     * Getter method for the board after the placement
+     * 
+     * @return BitBoard Copy of the resulting board
+     */
+    public BitBoard getBoard() {
+        return board.copy();
+    }
+
+    /**
+     * Package-private accessor used by searches that only read the board
+     */
+    BitBoard board() {
+        return board;
+    }
+
+    /**
+     * Method that returns the move that reaches this placement, through its
+     * inputs when they are known
+     * 
+     * @param hold Whether the piece is reached by holding first
+     * @return Move The move to play
+     */
+    public Move toMove(boolean hold) {
+        return new Move(hold, state, getColumn(), inputs);
+    }
+
+    /**
+     * Getter method for the inputs that lead to the placement
+     * 
+     * @return byte[] Copy of the ReachabilitySearch inputs, or null if they are
+     *         not known and the placement is reached by rotating clockwise at
+     *         spawn, shifting and hard dropping
+     */
+    public byte[] getInputs() {
+        return inputs == null ? null : inputs.clone();
+    }
+
+    /**
+     * Method that plays the placement in a game through its input methods and
+     * locks the piece with a hard drop
+     * 
+     * @param game The game whose falling tetromino is the placed piece
+     */
+    public void play(Tetris game) {
+        toMove(false).play(game);
+    }
+
+    @Override
+    public String toString() {
+        return Tetromino.PIECES.charAt(piece) + " state " + state + " at (" + x + ", " + y
+                + "), " + linesCleared + " lines";
+    }
+
+}
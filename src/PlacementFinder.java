@@ -0,0 +1,220 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PlacementFinder {
+
+    // more than enough for the distinct hard drop placements of any piece (34 at most)
+    private static final int MAX_PLACEMENTS = 48;
+
+    // bounds of the bounding box positions a piece can shift and kick to, the
+    // same as ReachabilitySearch
+    private static final int X_MIN = -2;
+    private static final int WIDTH = BitBoard.COLS + 2;
+    private static final int Y_MIN = -BitBoard.ROWS;
+    private static final int HEIGHT = 2 * BitBoard.ROWS;
+    private static final int STATES = 4 * HEIGHT * WIDTH;
+
+    private PlacementFinder() {
+    }
+
+    /**
+     * Method that returns every distinct final resting placement a piece can
+     * reach from its spawn column by rotating with SRS kicks, shifting sideways
+     * and hard dropping. Placements that cover the same cells are merged, so
+     * symmetric pieces (O, I, S and Z) only appear once per resting position.
+     * Placements that would leave a block above the top of the board are left out
+     * 
+     * @param board The board the piece falls on
+     * @param piece The id of the piece
+     * @param y     The row of the piece's bounding box before it drops
+     * @return List of the placements, each with the inputs that reach it
+     */
+    public static List<Placement> findHardDrops(BitBoard board, int piece, int y) {
+        return findHardDrops(board, piece, 0, Tetromino.SPAWN_X, y, RotationSystem.SRS);
+    }
+
+    /**
+     * Method that returns every distinct final resting placement a piece can
+     * reach from a position by rotating, shifting sideways and hard dropping,
+     * without soft drops. The rotations and shifts follow the same rules as
+     * Tetris.rotateCW, rotateCCW, rotate180, moveLeft and moveRight, so a wall
+     * that blocks the way to a column also blocks the placements behind it
+     * 
+     * @param board          The board the piece falls on
+     * @param piece          The id of the piece
+     * @param state          The starting orientation of the piece
+     * @param x              The starting column of the piece's bounding box
+     * @param y              The starting row of the piece's bounding box
+     * @param rotationSystem The kick tables used for rotations
+     * @return List of the placements, each with the inputs that reach it
+     */
+    public static List<Placement> findHardDrops(BitBoard board, int piece, int state, int x,
+            int y, RotationSystem rotationSystem) {
+        List<Placement> placements = new ArrayList<Placement>();
+        if (y < Y_MIN || !board.fits(piece, state, x, y)) {
+            return placements;
+        }
+
+        // flood fill the positions reachable without dropping, remembering for
+        // each queue slot the slot it was reached from and the input used
+        long[] visited = new long[(STATES + 63) / 64];
+        int[] queue = new int[64];
+        int[] parent = new int[64];
+        byte[] input = new byte[64];
+        int head = 0;
+        int tail = 0;
+        int start = index(state, x, y);
+        visited[start >>> 6] |= 1L << start;
+        queue[tail] = start;
+        parent[tail++] = -1;
+
+        int[] next = new int[5];
+        byte[] moves = new byte[5];
+        while (head < tail) {
+            int current = queue[head];
+            int s = current / (HEIGHT * WIDTH);
+            int cy = current / WIDTH % HEIGHT + Y_MIN;
+            int cx = current % WIDTH + X_MIN;
+
+            int n = 0;
+            if (board.fits(piece, s, cx - 1, cy)) {
+                next[n] = index(s, cx - 1, cy);
+                moves[n++] = ReachabilitySearch.LEFT;
+            }
+            if (board.fits(piece, s, cx + 1, cy)) {
+                next[n] = index(s, cx + 1, cy);
+                moves[n++] = ReachabilitySearch.RIGHT;
+            }
+            for (int turns = 1; turns <= 3; turns++) {
+                int test = rotationSystem.kick(board, piece, s, turns, cx, cy);
+                int[] kicks = rotationSystem.getKicks(piece, s, turns);
+                if (test >= 0 && cy + kicks[test + 1] >= Y_MIN) {
+                    next[n] = index((s + turns) & 3, cx + kicks[test], cy + kicks[test + 1]);
+                    moves[n++] = turns == 1 ? ReachabilitySearch.CW
+                            : turns == 3 ? ReachabilitySearch.CCW : ReachabilitySearch.HALF_TURN;
+                }
+            }
+
+            for (int i = 0; i < n; i++) {
+                if ((visited[next[i] >>> 6] & 1L << next[i]) != 0) {
+                    continue;
+                }
+                visited[next[i] >>> 6] |= 1L << next[i];
+                if (tail == queue.length) {
+                    queue = Arrays.copyOf(queue, 2 * tail);
+                    parent = Arrays.copyOf(parent, 2 * tail);
+                    input = Arrays.copyOf(input, 2 * tail);
+                }
+                queue[tail] = next[i];
+                parent[tail] = head;
+                input[tail++] = moves[i];
+            }
+            head++;
+        }
+
+        // drop from the reached positions by orientation, then column, then row,
+        // so the order does not depend on the order of the search
+        long[] order = new long[tail];
+        for (int i = 0; i < tail; i++) {
+            int s = queue[i] / (HEIGHT * WIDTH);
+            int ox = queue[i] % WIDTH;
+            int oy = queue[i] / WIDTH % HEIGHT;
+            order[i] = (long) ((s * WIDTH + ox) * HEIGHT + oy) << 32 | i;
+        }
+        Arrays.sort(order);
+
+        long[] seen = new long[MAX_PLACEMENTS];
+        int count = 0;
+        for (long entry : order) {
+            int slot = (int) entry;
+            int s = queue[slot] / (HEIGHT * WIDTH);
+            int cy = queue[slot] / WIDTH % HEIGHT + Y_MIN;
+            int cx = queue[slot] % WIDTH + X_MIN;
+            int landing = cy + board.dropDistance(piece, s, cx, cy);
+            if (landing + Tetromino.minRow(piece, s) < 0) {
+                continue;
+            }
+
+            long key = cellsKey(piece, s, cx, landing);
+            if (contains(seen, count, key)) {
+                continue;
+            }
+            if (count == seen.length) {
+                seen = Arrays.copyOf(seen, 2 * count);
+            }
+            seen[count++] = key;
+
+            BitBoard result = board.copy();
+            result.lock(piece, s, cx, landing);
+            int lines = result.clearFullRows();
+            placements.add(new Placement(piece, s, cx, landing, lines, result,
+                    path(slot, parent, input)));
+        }
+        return placements;
+    }
+
+    /**
+     * Method that returns the row a piece spawns in on a board, shifted up while
+     * the spawn is blocked like Tetris.sendNextBlock does
+     * 
+     * @param board The board the piece spawns on
+     * @param piece The id of the piece
+     * @return int The row of the piece's bounding box at spawn
+     */
+    public static int spawnRow(BitBoard board, int piece) {
+        int y = Tetromino.spawnY(piece);
+        while (!board.fits(piece, 0, Tetromino.SPAWN_X, y)) {
+            y--;
+        }
+        return y;
+    }
+
+    /**
+     * Helper method that packs the cells a piece occupies into a long, equal for
+     * two placements iff they cover the same cells of the board
+     * 
+     * @return long The top row of the piece followed by its 10 bit row masks
+     */
+    static long cellsKey(int piece, int state, int x, int y) {
+        int top = Tetromino.minRow(piece, state);
+        long key = y + top + 8; // keep the row positive
+        for (int r = top; r <= Tetromino.maxRow(piece, state); r++) {
+            int mask = Tetromino.rowMask(piece, state, r);
+            key = key << 10 | (x >= 0 ? mask << x : mask >>> -x);
+        }
+        return key;
+    }
+
+    /**
+     * Helper method that rebuilds the inputs leading to a queue slot of the fill
+     */
+    private static byte[] path(int slot, int[] parent, byte[] input) {
+        int length = 0;
+        for (int s = slot; parent[s] >= 0; s = parent[s]) {
+            length++;
+        }
+        byte[] inputs = new byte[length];
+        for (int s = slot; parent[s] >= 0; s = parent[s]) {
+            inputs[--length] = input[s];
+        }
+        return inputs;
+    }
+
+    private static int index(int state, int x, int y) {
+        return (state * HEIGHT + y - Y_MIN) * WIDTH + x - X_MIN;
+    }
+
+    /**
+     * Helper method that checks whether one of the first count keys equals key
+     */
+    private static boolean contains(long[] keys, int count, long key) {
+        for (int i = 0; i < count; i++) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,94 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+public class PlacementFinderTest {
+
+    private static int id(char block) {
+        return Tetromino.PIECES.indexOf(block);
+    }
+
+    @Test
+    public void testEmptyBoardPlacementCounts() {
+        BitBoard b = new BitBoard();
+        assertEquals(9, PlacementFinder.findHardDrops(b, id('O'), -1).size());
+        assertEquals(17, PlacementFinder.findHardDrops(b, id('I'), 0).size());
+        assertEquals(17, PlacementFinder.findHardDrops(b, id('S'), 0).size());
+        assertEquals(17, PlacementFinder.findHardDrops(b, id('Z'), 0).size());
+        assertEquals(34, PlacementFinder.findHardDrops(b, id('T'), 0).size());
+        assertEquals(34, PlacementFinder.findHardDrops(b, id('J'), 0).size());
+        assertEquals(34, PlacementFinder.findHardDrops(b, id('L'), 0).size());
+    }
+
+    @Test
+    public void testPlacementsRestOnFloor() {
+        BitBoard b = new BitBoard();
+        for (Placement p : PlacementFinder.findHardDrops(b, id('T'), 0)) {
+            assertEquals(BitBoard.ROWS - 1, p.getY() + Tetromino.maxRow(p.getPiece(), p.getState()));
+            assertFalse(b.fits(p.getPiece(), p.getState(), p.getX(), p.getY() + 1));
+        }
+    }
+
+    @Test
+    public void testResultingBoardClearsLines() {
+        BitBoard b = new BitBoard();
+        for (int j = 0; j < BitBoard.COLS - 1; j++) {
+            b.fill(19, j, 7);
+        }
+        List<Placement> placements = PlacementFinder.findHardDrops(b, id('I'), 0);
+        boolean cleared = false;
+        for (Placement p : placements) {
+            if (p.getLinesCleared() == 1) {
+                // the vertical I in the last column, three of its blocks remain
+                cleared = true;
+                BitBoard result = p.getBoard();
+                assertEquals(0, result.getRow(16));
+                assertEquals(1 << 9, result.getRow(17));
+                assertEquals(1 << 9, result.getRow(19));
+            }
+        }
+        assertTrue(cleared);
+    }
+
+    @Test
+    public void testWallBlocksShifts() {
+        // a full column 7 keeps a T that spawns in columns 3 to 5 out of columns 8
+        // and 9, and every placement must replay to the board it promises
+        Tetris t = new Tetris(0);
+        for (long seed = 1; t.getFallingTetromino().getPieceId() != id('T'); seed++) {
+            t = new Tetris(seed);
+        }
+        for (int i = 0; i < BitBoard.ROWS; i++) {
+            t.fill(i, 7);
+        }
+        GameState start = t.snapshot();
+
+        List<Placement> placements = t.getPlacements();
+        List<Placement> reachable = t.getReachablePlacements();
+        assertFalse(placements.isEmpty());
+        for (Placement p : placements) {
+            assertTrue(p.getColumn() + Tetromino.maxCol(p.getPiece(), p.getState())
+                    - Tetromino.minCol(p.getPiece(), p.getState()) < 7, p.toString());
+            boolean found = false;
+            for (Placement r : reachable) {
+                found |= r.getBoard().getHash() == p.getBoard().getHash();
+            }
+            assertTrue(found, p.toString());
+
+            t.restore(start);
+            p.play(t);
+            assertEquals(p.getBoard().getHash(), t.snapshot().getBoard().getHash(), p.toString());
+        }
+    }
+
+    @Test
+    public void testOriginalBoardUnchanged() {
+        BitBoard b = new BitBoard();
+        PlacementFinder.findHardDrops(b, id('L'), 0);
+        for (int i = 0; i < BitBoard.ROWS; i++) {
+            assertEquals(0, b.getRow(i));
+        }
+    }
+
+}
@@ -0,0 +1,389 @@
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PositionDatabase implements AutoCloseable {
+
+    // first bytes of a database ("TPDB") and its version
+    public static final int MAGIC = 0x54504442;
+    public static final byte VERSION = 1;
+    // share of the entries that may be filled, linear probing slows down past it
+    public static final double MAX_LOAD = 0.9;
+
+    // the header is the magic number, version, whether the file was closed
+    // cleanly, the preview depth, the capacity and the number of positions
+    private static final int HEADER = 64;
+    private static final int CLEAN = 5;
+    private static final int DEPTH = 6;
+    private static final int CAPACITY = 8;
+    private static final int SIZE = 16;
+
+    // each entry is one cache line: the key, the 20 rows 10 bits each packed 6
+    // rows to a long, the queue packed like GameState's, the falling piece
+    // (id, orientation, column, row), the held piece, the flags, the lines
+    // cleared and the score
+    private static final int ENTRY = 64;
+    private static final int KEY = 0;
+    private static final int ROWS = 8;
+    private static final int QUEUE = 40;
+    private static final int FALLING = 48;
+    private static final int HELD = 52;
+    private static final int FLAGS = 53;
+    private static final int LINES = 56;
+    private static final int SCORE = 60;
+    private static final int ROWS_PER_LONG = 6;
+
+    // the file is mapped in chunks since one buffer holds at most 2 GB, entries
+    // never straddle two chunks
+    private static final int CHUNK_SHIFT = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_SHIFT) - 1;
+
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+
+    // INVARIANT: a key is never 0 (0 marks a free entry) and never changes once
+    // set. Hash 0 has its own entry after the probed ones, claimed by setting its
+    // key to 1
+    private final FileChannel channel;
+    private final MappedByteBuffer[] chunks;
+    private final long capacity;
+    private final long mask;
+    private final int previewDepth;
+    private final long queueMask;
+    private final AtomicLong size;
+
+    /**
+     * Constructor for a new database file of a fixed number of entries. The file
+     * is sparse, pages are only allocated as entries are filled
+     *
+     * @param filename     The file to create, must not exist yet
+     * @param capacity     Maximum number of entries, rounded up to a power of two
+     * @param previewDepth Number of queued pieces that are part of a position
+     * @throws IOException If the file exists or cannot be created
+     */
+    public PositionDatabase(String filename, long capacity, int previewDepth) throws IOException {
+        if (previewDepth < 0 || previewDepth > Zobrist.MAX_QUEUE) {
+            throw new IllegalArgumentException("preview depth must be 0 to " + Zobrist.MAX_QUEUE);
+        }
+        this.capacity = Long.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        this.previewDepth = previewDepth;
+        Path path = Paths.get(filename);
+        channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE_NEW);
+        try {
+            chunks = map(channel, this.capacity);
+        } catch (IOException | RuntimeException e) {
+            // the file was made here, so it goes too
+            channel.close();
+            Files.deleteIfExists(path);
+            throw e;
+        }
+        chunks[0].putInt(0, MAGIC).put(4, VERSION).putShort(DEPTH, (short) previewDepth)
+                .putLong(CAPACITY, this.capacity);
+        mask = this.capacity - 1;
+        queueMask = previewDepth == Zobrist.MAX_QUEUE ? -1 : (1L << 4 * previewDepth) - 1;
+        size = new AtomicLong();
+    }
+
+    /**
+     * Constructor for a database stored in a file. If the file was not closed
+     * cleanly its positions are counted again
+     *
+     * @param filename The file written by a database
+     * @throws IOException If the file cannot be mapped or is not a database
+     */
+    public PositionDatabase(String filename) throws IOException {
+        channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    Math.min(channel.size(), HEADER));
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.limit() < HEADER || header.getInt(0) != MAGIC) {
+                throw new IOException("Invalid Position Database");
+            }
+            if (header.get(4) != VERSION) {
+                throw new IOException("Unsupported Position Database Version " + header.get(4));
+            }
+            capacity = header.getLong(CAPACITY);
+            previewDepth = header.getShort(DEPTH);
+            if (Long.bitCount(capacity) != 1 || channel.size() < offset(capacity + 1)) {
+                throw new IOException("Invalid Position Database");
+            }
+            chunks = map(channel, capacity);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        mask = capacity - 1;
+        queueMask = previewDepth == Zobrist.MAX_QUEUE ? -1 : (1L << 4 * previewDepth) - 1;
+        long count = chunks[0].getLong(SIZE);
+        if (chunks[0].get(CLEAN) == 0) {
+            count = 0;
+            for (long e = 0; e <= capacity; e++) {
+                count += getKey(e) != 0 ? 1 : 0;
+            }
+        }
+        size = new AtomicLong(count);
+        chunks[0].put(CLEAN, (byte) 0);
+    }
+
+    /**
+     * Method that adds a position unless it is already in the database. Positions
+     * are the same when their Zobrist hashes with the first previewDepth queued
+     * pieces are, the score and lines of the first one are kept. Safe to call
+     * from any number of threads at once without locking: entries are claimed
+     * with a compare and set of their key in the mapped file. A place is reserved
+     * in the count before probing, so threads racing for the last entries cannot
+     * fill the table and probe forever
+     *
+     * @param state The position to add
+     * @return boolean Whether the position was added, false for a duplicate or
+     *         when MAX_LOAD of the entries are filled
+     */
+    public boolean add(GameState state) {
+        long hash = state.getHash(previewDepth);
+        if (size.incrementAndGet() > MAX_LOAD * capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        long entry;
+        if (hash == 0) {
+            entry = capacity;
+            if (!claim(entry, 1)) {
+                size.decrementAndGet();
+                return false;
+            }
+        } else {
+            entry = hash & mask;
+            while (true) {
+                long current = getKey(entry);
+                if (current == 0) {
+                    if (claim(entry, hash)) {
+                        break;
+                    }
+                    current = getKey(entry);
+                }
+                if (current == hash) {
+                    size.decrementAndGet();
+                    return false;
+                }
+                entry = (entry + 1) & mask;
+            }
+        }
+        write(entry, state);
+        return true;
+    }
+
+    /**
+     * Method that checks whether a position is in the database
+     *
+     * @param state The position to look for
+     * @return boolean Whether a position with the same hash was added
+     */
+    public boolean contains(GameState state) {
+        long hash = state.getHash(previewDepth);
+        if (hash == 0) {
+            return getKey(capacity) != 0;
+        }
+        for (long entry = hash & mask;; entry = (entry + 1) & mask) {
+            long current = getKey(entry);
+            if (current == 0) {
+                return false;
+            }
+            if (current == hash) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Method that reads the position of an entry. Only the filled cells of the
+     * board are stored, so every cell gets the color of the first piece. An
+     * entry being added on another thread may be read half written
+     *
+     * @param entry      The entry, 0 to capacity() inclusive
+     * @param randomizer Generates the pieces after the stored queue
+     * @return GameState The position, null if the entry is free
+     */
+    public GameState get(long entry, Randomizer randomizer) {
+        if (getKey(entry) == 0) {
+            return null;
+        }
+        MappedByteBuffer chunk = chunks[(int) (offset(entry) >>> CHUNK_SHIFT)];
+        int at = (int) (offset(entry) & CHUNK_MASK);
+        BitBoard board = new BitBoard();
+        for (int r = 0; r < BitBoard.ROWS; r++) {
+            long rows = chunk.getLong(at + ROWS + 8 * (r / ROWS_PER_LONG));
+            int row = (int) (rows >>> BitBoard.COLS * (r % ROWS_PER_LONG)) & BitBoard.FULL_ROW;
+            for (; row != 0; row &= row - 1) {
+                board.fill(r, Integer.numberOfTrailingZeros(row), 1);
+            }
+        }
+        int flags = chunk.get(at + FLAGS);
+        return new GameState(board, chunk.get(at + FALLING), chunk.get(at + FALLING + 1),
+                chunk.get(at + FALLING + 2), chunk.get(at + FALLING + 3), chunk.get(at + HELD),
+                chunk.getLong(at + QUEUE), chunk.getInt(at + SCORE), chunk.getInt(at + LINES),
+                (flags & 1) != 0, (flags & 2) != 0, randomizer);
+    }
+
+    /**
+     * Getter method for the number of positions in the database
+     *
+     * @return long The number of filled entries
+     */
+    public long size() {
+        return size.get();
+    }
+
+    /**
+     * Getter method for the number of entries, positions are read back by
+     * calling get on entries 0 to capacity() inclusive
+     *
+     * @return long The number of probed entries
+     */
+    public long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Getter method for the number of queued pieces that are part of a position
+     *
+     * @return int The preview depth of the hashes
+     */
+    public int getPreviewDepth() {
+        return previewDepth;
+    }
+
+    /**
+     * Method that writes the number of positions and forces every changed page
+     * to the disk
+     */
+    public void flush() {
+        chunks[0].putLong(SIZE, size.get());
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    /**
+     * Method that flushes the database and marks the file as cleanly closed. The
+     * mapping itself is released when the buffers are garbage collected
+     *
+     * @throws IOException If the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        chunks[0].put(CLEAN, (byte) 1);
+        chunks[0].force();
+        channel.close();
+    }
+
+    /**
+     * Helper method that maps the header and the entries of a database in chunks
+     * of 1 GB, growing the file to its full length
+     */
+    private static MappedByteBuffer[] map(FileChannel channel, long capacity) throws IOException {
+        long length = offset(capacity + 1);
+        MappedByteBuffer[] chunks = new MappedByteBuffer[(int) ((length + CHUNK_MASK) >>> CHUNK_SHIFT)];
+        for (int i = 0; i < chunks.length; i++) {
+            long start = (long) i << CHUNK_SHIFT;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_WRITE, start,
+                    Math.min(length - start, 1L << CHUNK_SHIFT));
+            chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return chunks;
+    }
+
+    private static long offset(long entry) {
+        return HEADER + entry * ENTRY;
+    }
+
+    private long getKey(long entry) {
+        long offset = offset(entry);
+        return (long) LONGS.getVolatile(chunks[(int) (offset >>> CHUNK_SHIFT)],
+                (int) (offset & CHUNK_MASK) + KEY);
+    }
+
+    private boolean claim(long entry, long key) {
+        long offset = offset(entry);
+        return LONGS.compareAndSet(chunks[(int) (offset >>> CHUNK_SHIFT)],
+                (int) (offset & CHUNK_MASK) + KEY, 0L, key);
+    }
+
+    /**
+     * Helper method that stores a position in an entry whose key it has claimed
+     */
+    private void write(long entry, GameState state) {
+        MappedByteBuffer chunk = chunks[(int) (offset(entry) >>> CHUNK_SHIFT)];
+        int at = (int) (offset(entry) & CHUNK_MASK);
+        BitBoard board = state.board();
+        long rows = 0;
+        for (int r = 0; r < BitBoard.ROWS; r++) {
+            rows |= (long) board.getRow(r) << BitBoard.COLS * (r % ROWS_PER_LONG);
+            if (r % ROWS_PER_LONG == ROWS_PER_LONG - 1 || r == BitBoard.ROWS - 1) {
+                chunk.putLong(at + ROWS + 8 * (r / ROWS_PER_LONG), rows);
+                rows = 0;
+            }
+        }
+        chunk.putLong(at + QUEUE, state.packedQueue() & queueMask);
+        chunk.put(at + FALLING, (byte) state.getFallingPiece());
+        chunk.put(at + FALLING + 1, (byte) state.getFallingState());
+        chunk.put(at + FALLING + 2, (byte) state.getFallingX());
+        chunk.put(at + FALLING + 3, (byte) state.getFallingY());
+        chunk.put(at + HELD, (byte) state.getHeldPiece());
+        chunk.put(at + FLAGS, (byte) ((state.canHold() ? 1 : 0) | (state.isGameOver() ? 2 : 0)));
+        chunk.putInt(at + LINES, state.getLinesCleared());
+        chunk.putInt(at + SCORE, state.getScore());
+    }
+
+    /**
+     * Collects the positions of seeded games with random placements into a new
+     * database and prints the number of positions added per second and how many
+     * were duplicates
+     *
+     * @param args Optional database file, capacity, number of games and preview
+     *             depth
+     */
+    public static void main(String[] args) throws IOException {
+        String filename = args.length > 0 ? args[0] : "files/positions.db";
+        long capacity = args.length > 1 ? Long.parseLong(args[1]) : 1L << 24;
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        PositionDatabase db = new PositionDatabase(filename, capacity, depth);
+        try {
+            XorShiftRandom random = new XorShiftRandom(1);
+            long attempts = 0;
+            long start = System.nanoTime();
+            for (int g = 0; g < games && db.size() < MAX_LOAD * db.capacity(); g++) {
+                Tetris game = new Tetris(new BagRandomizer(g % 100));
+                for (int i = 0; i < 50 && !game.gameIsOver(); i++) {
+                    List<Placement> placements = game.getPlacements();
+                    if (placements.isEmpty()) {
+                        break;
+                    }
+                    placements.get(random.nextInt(placements.size())).play(game);
+                    db.add(game.snapshot());
+                    attempts++;
+                }
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("%d positions of %d added (%.0f adds/s), %d entries%n", db.size(),
+                    attempts, attempts / seconds, db.capacity());
+        } finally {
+            db.close();
+        }
+    }
+
+}
@@ -0,0 +1,159 @@
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PositionDatabaseTest {
+
+    private static File tempDatabase() throws IOException {
+        File file = File.createTempFile("positions", ".db");
+        file.delete();
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static List<GameState> positions(int games, int pieces) {
+        List<GameState> positions = new ArrayList<GameState>();
+        for (int g = 0; g < games; g++) {
+            Tetris t = new Tetris(new BagRandomizer(g % 3));
+            for (int i = 0; i < pieces && !t.getPlacements().isEmpty(); i++) {
+                List<Placement> placements = t.getPlacements();
+                placements.get((g + i * 7) % placements.size()).play(t);
+                positions.add(t.snapshot());
+            }
+        }
+        return positions;
+    }
+
+    @Test
+    public void testDuplicatesAreDropped() throws IOException {
+        PositionDatabase db = new PositionDatabase(tempDatabase().getPath(), 1 << 12, 5);
+        List<GameState> positions = positions(20, 10);
+        Set<Long> distinct = new HashSet<Long>();
+        for (GameState state : positions) {
+            assertEquals(distinct.add(state.getHash(5)), db.add(state));
+        }
+        assertEquals(distinct.size(), db.size());
+        for (GameState state : positions) {
+            assertTrue(db.contains(state));
+        }
+        assertFalse(db.contains(new Tetris(new BagRandomizer(99)).snapshot()));
+        db.close();
+    }
+
+    @Test
+    public void testReopenReadsPositionsBack() throws IOException {
+        File file = tempDatabase();
+        PositionDatabase db = new PositionDatabase(file.getPath(), 1000, 16);
+        List<GameState> positions = positions(5, 12);
+        for (GameState state : positions) {
+            db.add(state);
+        }
+        long size = db.size();
+        db.close();
+
+        PositionDatabase reopened = new PositionDatabase(file.getPath());
+        assertEquals(size, reopened.size());
+        assertEquals(1024, reopened.capacity());
+        assertEquals(16, reopened.getPreviewDepth());
+        int found = 0;
+        for (long e = 0; e <= reopened.capacity(); e++) {
+            GameState state = reopened.get(e, new BagRandomizer(0));
+            if (state == null) {
+                continue;
+            }
+            found++;
+            GameState original = null;
+            for (GameState p : positions) {
+                if (p.getHash() == state.getHash()) {
+                    original = p;
+                }
+            }
+            assertNotNull(original);
+            assertEquals(original.getScore(), state.getScore());
+            assertEquals(original.getLinesCleared(), state.getLinesCleared());
+            assertEquals(original.getHeldPiece(), state.getHeldPiece());
+            assertEquals(original.getFallingX(), state.getFallingX());
+            assertEquals(original.canHold(), state.canHold());
+        }
+        assertEquals(size, found);
+        reopened.close();
+    }
+
+    @Test
+    public void testUncleanFileIsRecounted() throws IOException {
+        File file = tempDatabase();
+        PositionDatabase db = new PositionDatabase(file.getPath(), 256, 3);
+        for (GameState state : positions(4, 5)) {
+            db.add(state);
+        }
+        // opened again as if the first one had crashed
+        PositionDatabase other = new PositionDatabase(file.getPath());
+        assertEquals(db.size(), other.size());
+        other.close();
+        db.close();
+    }
+
+    @Test
+    public void testConcurrentAddsKeepOneCopy() throws Exception {
+        PositionDatabase db = new PositionDatabase(tempDatabase().getPath(), 1 << 12, 4);
+        List<GameState> positions = positions(30, 8);
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                for (GameState state : positions) {
+                    db.add(state);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        Set<Long> distinct = new HashSet<Long>();
+        for (GameState state : positions) {
+            distinct.add(state.getHash(4));
+        }
+        assertEquals(distinct.size(), db.size());
+        db.close();
+    }
+
+    @Test
+    public void testFullDatabaseRejectsPositions() throws IOException {
+        PositionDatabase db = new PositionDatabase(tempDatabase().getPath(), 16, 5);
+        int added = 0;
+        for (GameState state : positions(10, 10)) {
+            added += db.add(state) ? 1 : 0;
+        }
+        assertEquals(14, added);
+        assertEquals(14, db.size());
+        db.close();
+    }
+
+    @Test
+    public void testConcurrentAddsStopAtMaxLoad() throws Exception {
+        PositionDatabase db = new PositionDatabase(tempDatabase().getPath(), 16, 5);
+        List<GameState> positions = positions(40, 10);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; i++) {
+            int first = i;
+            threads[i] = new Thread(() -> {
+                for (int j = first; j < positions.size(); j += threads.length) {
+                    db.add(positions.get(j));
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread t : threads) {
+            t.join(10000);
+            assertFalse(t.isAlive());
+        }
+        assertEquals(14, db.size());
+        db.close();
+    }
+
+}
@@ -0,0 +1,19 @@
+public class RandomPolicy implements MovePolicy {
+
+    private XorShiftRandom random;
+
+    /**
+     * Constructor for a policy that plays uniformly random rotations and columns
+     * 
+     * @param seed Seed of the policy's random choices
+     */
+    public RandomPolicy(long seed) {
+        random = new XorShiftRandom(seed);
+    }
+
+    @Override
+    public Move choose(Tetris game) {
+        return new Move(false, random.nextInt(4), random.nextInt(BitBoard.COLS));
+    }
+
+}
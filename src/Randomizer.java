@@ -0,0 +1,35 @@
+public interface Randomizer {
+
+    /**
+     * Method that generates the id of the next piece
+     * 
+     * @return int The id of the piece, an index into Tetromino.PIECES
+     */
+    int next();
+
+    /**
+     * Method that returns a randomizer that will generate the same pieces as this
+     * one from now on
+     * 
+     * @return Randomizer Independent copy of the randomizer
+     */
+    Randomizer copy();
+
+    /**
+     * Method that returns the distribution of the piece the next call to next
+     * generates, used by searches that average over unseen pieces
+     * 
+     * @return double[] Probability of each piece id, summing to 1
+     */
+    double[] probabilities();
+
+    /**
+     * Method that updates the randomizer as if the next call to next had generated
+     * a piece, so probabilities describes the piece after it. Searches use it to
+     * follow one outcome of probabilities
+     * 
+     * @param piece The id of the piece, must have a non zero probability
+     */
+    void advance(int piece);
+
+}
@@ -0,0 +1,132 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RandomizerTest {
+
+    @Test
+    public void testXorShiftSameSeedSameSequence() {
+        XorShiftRandom r1 = new XorShiftRandom(7);
+        XorShiftRandom r2 = new XorShiftRandom(7);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(r1.nextLong(), r2.nextLong());
+        }
+    }
+
+    @Test
+    public void testXorShiftNextIntInBounds() {
+        XorShiftRandom r = new XorShiftRandom(0);
+        int[] counts = new int[7];
+        for (int i = 0; i < 7000; i++) {
+            counts[r.nextInt(7)]++;
+        }
+        for (int c : counts) {
+            assertTrue(c > 800 && c < 1200, "roughly uniform");
+        }
+    }
+
+    @Test
+    public void testXorShiftCopy() {
+        XorShiftRandom r = new XorShiftRandom(3);
+        r.nextLong();
+        XorShiftRandom copy = r.copy();
+        assertEquals(r.nextLong(), copy.nextLong());
+    }
+
+    @Test
+    public void testBagDealsEveryPieceOnce() {
+        Randomizer r = new BagRandomizer(11);
+        for (int bag = 0; bag < 10; bag++) {
+            boolean[] seen = new boolean[7];
+            for (int i = 0; i < 7; i++) {
+                int piece = r.next();
+                assertFalse(seen[piece], "piece repeated within a bag");
+                seen[piece] = true;
+            }
+        }
+    }
+
+    @Test
+    public void testBagRemaining() {
+        BagRandomizer r = new BagRandomizer(5);
+        assertEquals(0x7F, r.getRemaining());
+        int first = r.next();
+        assertEquals(0x7F & ~(1 << first), r.getRemaining());
+    }
+
+    @Test
+    public void testHistoryFirstPiece() {
+        for (long seed = 0; seed < 50; seed++) {
+            int first = new HistoryRandomizer(seed, 4).next();
+            char c = Tetromino.PIECES.charAt(first);
+            assertTrue(c == 'I' || c == 'J' || c == 'L' || c == 'T');
+        }
+    }
+
+    @Test
+    public void testProbabilitiesMatchSampling() {
+        int[] dealt = { 3, 5, 1 };
+        for (int kind = 0; kind < 3; kind++) {
+            double[] p = null;
+            int[] counts = new int[7];
+            for (long seed = 0; seed < 20000; seed++) {
+                // same dealt pieces, different random state
+                Randomizer r = kind == 0 ? new UniformRandomizer(seed)
+                        : kind == 1 ? new BagRandomizer(seed) : new HistoryRandomizer(seed, 4);
+                for (int piece : dealt) {
+                    r.advance(piece);
+                }
+                p = r.probabilities();
+                counts[r.next()]++;
+            }
+            double total = 0;
+            for (int piece = 0; piece < 7; piece++) {
+                total += p[piece];
+                assertEquals(p[piece], counts[piece] / 20000.0, 0.02);
+            }
+            assertEquals(1, total, 1e-9);
+        }
+    }
+
+    @Test
+    public void testAdvanceFollowsOutcome() {
+        BagRandomizer bag = new BagRandomizer(3);
+        bag.advance(4);
+        assertEquals(0x7F & ~(1 << 4), bag.getRemaining());
+        assertEquals(0.0, bag.probabilities()[4]);
+        for (int piece = 0; piece < 7; piece++) {
+            if (piece != 4) {
+                bag.advance(piece);
+            }
+        }
+        assertEquals(0x7F, bag.getRemaining());
+
+        HistoryRandomizer history = new HistoryRandomizer(3, 6);
+        history.advance(0);
+        assertTrue(history.probabilities()[0] < history.probabilities()[1]);
+    }
+
+    @Test
+    public void testRandomizerCopy() {
+        Randomizer[] randomizers = { new UniformRandomizer(1), new BagRandomizer(1),
+            new HistoryRandomizer(1, 6) };
+        for (Randomizer r : randomizers) {
+            r.next();
+            Randomizer copy = r.copy();
+            for (int i = 0; i < 50; i++) {
+                assertEquals(r.next(), copy.next());
+            }
+        }
+    }
+
+    @Test
+    public void testSeededGamesAreReproducible() {
+        Tetris t1 = new Tetris(42);
+        Tetris t2 = new Tetris(42);
+        for (int i = 0; i < 20; i++) {
+            assertEquals(t1.getFallingTetromino(), t2.getFallingTetromino());
+            t1.hardFall();
+            t2.hardFall();
+        }
+    }
+
+}
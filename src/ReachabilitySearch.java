@@ -0,0 +1,193 @@
+import java.util.ArrayList;
+import java.util.List;
+
+public class ReachabilitySearch {
+
+    // inputs recorded on the path to each placement
+    public static final byte LEFT = 0;
+    public static final byte RIGHT = 1;
+    public static final byte DOWN = 2;
+    public static final byte CW = 3;
+    public static final byte CCW = 4;
+    public static final byte HALF_TURN = 5;
+
+    // bounds of the searched bounding box positions, wide enough for every piece
+    // orientation that fits on the board and for spawns pushed up by a tall stack
+    private static final int X_MIN = -2;
+    private static final int WIDTH = BitBoard.COLS + 2;
+    private static final int Y_MIN = -BitBoard.ROWS;
+    private static final int HEIGHT = 2 * BitBoard.ROWS;
+    private static final int STATES = 4 * HEIGHT * WIDTH;
+
+    private RotationSystem rotationSystem;
+
+    // search buffers reused by every search: a visited bitset over (state, y, x), a
+    // queue of state indices and how each state was first reached
+    private long[] visited;
+    private int[] queue;
+    private int[] parent;
+    private byte[] input;
+    private long[] seen;
+
+    /**
+     * Constructor for a search that follows the rotation rules of a rotation
+     * system. A search object is not thread safe, use one per thread
+     * 
+     * @param rotationSystem The kick tables used for rotations
+     */
+    public ReachabilitySearch(RotationSystem rotationSystem) {
+        this.rotationSystem = rotationSystem;
+        visited = new long[(STATES + 63) / 64];
+        queue = new int[STATES];
+        parent = new int[STATES];
+        input = new byte[STATES];
+        seen = new long[STATES];
+    }
+
+    /**
+     * Method that finds every placement a piece can lock in by any sequence of
+     * moves, soft drops and rotations from its starting position, including tucks
+     * under overhangs and positions only reachable through kicks. Moves follow
+     * the same rules as Tetris.moveLeft, moveRight, fall, rotateCW, rotateCCW and
+     * rotate180. Placements covering the same cells are merged and keep the
+     * shortest input path
+     * 
+     * @param board The board the piece moves on
+     * @param piece The id of the piece
+     * @param state The starting orientation of the piece
+     * @param x     The starting column of the piece's bounding box
+     * @param y     The starting row of the piece's bounding box
+     * @return List of the placements, each with the inputs that reach it
+     */
+    public List<Placement> search(BitBoard board, int piece, int state, int x, int y) {
+        return search(board, piece, state, x, y, true);
+    }
+
+    /**
+     * Method that finds every placement a piece can lock in like search, without
+     * rebuilding the input paths when they are not needed
+     * 
+     * @param board  The board the piece moves on
+     * @param piece  The id of the piece
+     * @param state  The starting orientation of the piece
+     * @param x      The starting column of the piece's bounding box
+     * @param y      The starting row of the piece's bounding box
+     * @param inputs Whether to record the inputs that reach each placement
+     * @return List of the placements, with null inputs if not recorded
+     */
+    public List<Placement> search(BitBoard board, int piece, int state, int x, int y,
+            boolean inputs) {
+        List<Placement> placements = new ArrayList<Placement>();
+        if (y < Y_MIN || !board.fits(piece, state, x, y)) {
+            return placements;
+        }
+        for (int i = 0; i < visited.length; i++) {
+            visited[i] = 0;
+        }
+
+        int head = 0;
+        int tail = 0;
+        int seenCount = 0;
+        int start = index(state, x, y);
+        visit(start);
+        parent[start] = -1;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int current = queue[head++];
+            int s = current / (HEIGHT * WIDTH);
+            int cy = current / WIDTH % HEIGHT + Y_MIN;
+            int cx = current % WIDTH + X_MIN;
+
+            if (board.fits(piece, s, cx - 1, cy)) {
+                tail = enqueue(current, LEFT, s, cx - 1, cy, tail);
+            }
+            if (board.fits(piece, s, cx + 1, cy)) {
+                tail = enqueue(current, RIGHT, s, cx + 1, cy, tail);
+            }
+            for (int turns = 1; turns <= 3; turns++) {
+                int test = rotationSystem.kick(board, piece, s, turns, cx, cy);
+                if (test >= 0) {
+                    int[] kicks = rotationSystem.getKicks(piece, s, turns);
+                    byte move = turns == 1 ? CW : turns == 3 ? CCW : HALF_TURN;
+                    tail = enqueue(current, move, (s + turns) & 3, cx + kicks[test],
+                            cy + kicks[test + 1], tail);
+                }
+            }
+
+            if (board.fits(piece, s, cx, cy + 1)) {
+                tail = enqueue(current, DOWN, s, cx, cy + 1, tail);
+            } else if (cy + Tetromino.minRow(piece, s) >= 0) {
+                // the piece rests here, keep the first path that covers these cells
+                long key = PlacementFinder.cellsKey(piece, s, cx, cy);
+                if (!contains(seenCount, key)) {
+                    seen[seenCount++] = key;
+                    BitBoard result = board.copy();
+                    result.lock(piece, s, cx, cy);
+                    int lines = result.clearFullRows();
+                    placements.add(new Placement(piece, s, cx, cy, lines, result,
+                            inputs ? path(current) : null));
+                }
+            }
+        }
+        return placements;
+    }
+
+    /**
+     * Helper method that marks a state as reached and adds it to the queue if it
+     * was not reached before
+     * 
+     * @return int The new end of the queue
+     */
+    private int enqueue(int from, byte move, int state, int x, int y, int tail) {
+        if (y < Y_MIN) {
+            return tail;
+        }
+        int next = index(state, x, y);
+        if (isVisited(next)) {
+            return tail;
+        }
+        visit(next);
+        parent[next] = from;
+        input[next] = move;
+        queue[tail] = next;
+        return tail + 1;
+    }
+
+    /**
+     * Helper method that rebuilds the inputs leading to a state
+     */
+    private byte[] path(int state) {
+        int length = 0;
+        for (int s = state; parent[s] >= 0; s = parent[s]) {
+            length++;
+        }
+        byte[] inputs = new byte[length];
+        for (int s = state; parent[s] >= 0; s = parent[s]) {
+            inputs[--length] = input[s];
+        }
+        return inputs;
+    }
+
+    private static int index(int state, int x, int y) {
+        return (state * HEIGHT + y - Y_MIN) * WIDTH + x - X_MIN;
+    }
+
+    private boolean isVisited(int i) {
+        return (visited[i >>> 6] & 1L << i) != 0;
+    }
+
+    private void visit(int i) {
+        visited[i >>> 6] |= 1L << i;
+    }
+
+    private boolean contains(int count, long key) {
+        for (int i = 0; i < count; i++) {
+            if (seen[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
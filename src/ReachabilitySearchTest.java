@@ -0,0 +1,89 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+public class ReachabilitySearchTest {
+
+    private static int id(char block) {
+        return Tetromino.PIECES.indexOf(block);
+    }
+
+    @Test
+    public void testEmptyBoardMatchesHardDrops() {
+        BitBoard b = new BitBoard();
+        ReachabilitySearch search = new ReachabilitySearch(RotationSystem.SRS);
+        for (int p = 0; p < 7; p++) {
+            int y = p == id('O') ? -1 : 0;
+            assertEquals(PlacementFinder.findHardDrops(b, p, y).size(),
+                    search.search(b, p, 0, 3, y).size());
+        }
+    }
+
+    @Test
+    public void testFindsTuckUnderOverhang() {
+        // a roof over columns 0 and 1 leaves a 2x2 pocket under it that an O can
+        // only enter by sliding in from the right
+        BitBoard b = new BitBoard();
+        b.fill(17, 0, 7);
+        b.fill(17, 1, 7);
+        int o = id('O');
+        assertFalse(containsPocket(PlacementFinder.findHardDrops(b, o, -1)));
+        assertTrue(containsPocket(new ReachabilitySearch(RotationSystem.SRS).search(b, o, 0, 3, -1)));
+    }
+
+    private static boolean containsPocket(List<Placement> placements) {
+        for (Placement p : placements) {
+            BitBoard result = p.getBoard();
+            if (result.isOccupied(18, 0) && result.isOccupied(19, 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    public void testTSpinSlot() {
+        // T slot in row 19 covered by an overhang at (18, 3): only reachable by
+        // rotating in from above
+        BitBoard b = new BitBoard();
+        for (int j = 0; j < BitBoard.COLS; j++) {
+            if (j < 3 || j > 5) {
+                b.fill(19, j, 7);
+                b.fill(18, j, 7);
+            }
+        }
+        b.fill(19, 3, 7);
+        b.fill(19, 5, 7);
+        b.fill(17, 3, 7);
+        int t = id('T');
+        ReachabilitySearch search = new ReachabilitySearch(RotationSystem.SRS);
+        boolean foundSpin = false;
+        for (Placement p : search.search(b, t, 0, 3, 0)) {
+            if (p.getLinesCleared() == 2) {
+                foundSpin = true;
+                assertEquals(2, p.getState());
+            }
+        }
+        assertTrue(foundSpin);
+
+        boolean hardDropClears = false;
+        for (Placement p : PlacementFinder.findHardDrops(b, t, 0)) {
+            hardDropClears |= p.getLinesCleared() == 2;
+        }
+        assertFalse(hardDropClears);
+    }
+
+    @Test
+    public void testInputsReachPlacement() {
+        Tetris game = new Tetris(3);
+        for (int i = 0; i < 10; i++) {
+            List<Placement> placements = game.getReachablePlacements();
+            Placement target = placements.get(placements.size() / 2);
+            int linesBefore = game.getLinesCleared();
+            target.play(game);
+            assertEquals(linesBefore + target.getLinesCleared(), game.getLinesCleared());
+        }
+    }
+
+}
@@ -0,0 +1,229 @@
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+public class RolloutBot implements MovePolicy {
+
+    // rollouts played by one fork/join task before it stops splitting
+    private static final int ROLLOUTS_PER_TASK = 4;
+
+    private final BoardEvaluator evaluator;
+    private final int rollouts;
+    private final int horizon;
+    private final int preview;
+    private final RolloutTable table;
+    private final ForkJoinPool pool;
+    private final XorShiftRandom random; // seeds the rollouts of each decision
+
+    /**
+     * Constructor for a bot that plays its rollouts on the common fork/join pool
+     * 
+     * @param evaluator Places the pieces of the rollouts greedily and scores the
+     *                  board they end on
+     * @param rollouts  Number of rollouts played from every placement of the
+     *                  falling piece
+     * @param horizon   Number of pieces placed by each rollout
+     * @param preview   Number of queued pieces the rollouts see, the pieces after
+     *                  them are drawn from the game's randomizer distribution
+     * @param seed      Seed of the rollouts' pieces
+     */
+    public RolloutBot(BoardEvaluator evaluator, int rollouts, int horizon, int preview,
+            long seed) {
+        this(evaluator, rollouts, horizon, preview, seed, new RolloutTable(1 << 12),
+                ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructor for a bot that records its results in a given table and plays
+     * its rollouts on a given fork/join pool
+     * 
+     * @param evaluator Places the pieces of the rollouts greedily and scores the
+     *                  board they end on
+     * @param rollouts  Number of rollouts played from every placement of the
+     *                  falling piece
+     * @param horizon   Number of pieces placed by each rollout
+     * @param preview   Number of queued pieces the rollouts see
+     * @param seed      Seed of the rollouts' pieces
+     * @param table     Collects the results of every rollout by position hash, may
+     *                  be shared between bots that do not decide at the same time
+     * @param pool      The pool the rollouts are split over
+     */
+    public RolloutBot(BoardEvaluator evaluator, int rollouts, int horizon, int preview,
+            long seed, RolloutTable table, ForkJoinPool pool) {
+        if (rollouts < 1) {
+            throw new IllegalArgumentException("at least one rollout is needed");
+        }
+        this.evaluator = evaluator;
+        this.rollouts = rollouts;
+        this.horizon = horizon;
+        this.preview = preview;
+        this.table = table;
+        this.pool = pool;
+        this.random = new XorShiftRandom(seed);
+    }
+
+    /**
+     * Method that plays the placement of the falling piece with the best average
+     * rollout result. Every placement is followed by rollouts that place the next
+     * pieces greedily, known pieces first and then pieces sampled from the game's
+     * randomizer. The results are added to the table under the hash of the
+     * position after the placement, positions reached before keep their earlier
+     * results. The table is emptied when it is more than half full. The falling
+     * piece is placed from where it is and every piece rotates with the game's
+     * rotation system
+     */
+    @Override
+    public Move choose(Tetris game) {
+        if (table.size() > table.capacity() / 2) {
+            table.clear();
+        }
+        GameState state = game.snapshot();
+        int[] known = new int[Math.min(preview, state.getQueueLength())];
+        for (int i = 0; i < known.length; i++) {
+            known[i] = state.getQueuedPiece(i);
+        }
+        List<Placement> candidates = game.getPlacements();
+        if (candidates.isEmpty()) {
+            return new Move(false, 0, Tetromino.SPAWN_X);
+        }
+
+        long[] keys = new long[candidates.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = positionHash(candidates.get(i).getBoard(), known);
+        }
+        pool.invoke(new RolloutRange(candidates, keys, known, state.randomizer(),
+                game.getRotationSystem(), random.nextLong(), 0, candidates.size() * rollouts));
+
+        int best = 0;
+        for (int i = 1; i < keys.length; i++) {
+            if (table.getMean(keys[i]) > table.getMean(keys[best])) {
+                best = i;
+            }
+        }
+        return candidates.get(best).toMove(false);
+    }
+
+    /**
+     * Getter method for the table the rollout results are collected in
+     * 
+     * @return RolloutTable The table of the bot
+     */
+    public RolloutTable getTable() {
+        return table;
+    }
+
+    /**
+     * Helper method that hashes a board together with the known pieces that
+     * follow it
+     */
+    private static long positionHash(BitBoard board, int[] known) {
+        long hash = board.getHash();
+        for (int i = 0; i < known.length; i++) {
+            hash ^= Zobrist.queued(i, known[i]);
+        }
+        return hash;
+    }
+
+    /**
+     * Helper method that plays one rollout from a board and returns the value of
+     * the board it ends on, GAME_OVER if a piece cannot be placed
+     */
+    private double rollout(BitBoard board, int lines, int[] known, Randomizer randomizer,
+            RotationSystem rotationSystem, XorShiftRandom sampler) {
+        for (int k = 0; k < horizon; k++) {
+            int piece;
+            if (k < known.length) {
+                piece = known[k];
+            } else {
+                piece = sample(randomizer.probabilities(), sampler.nextDouble());
+                randomizer.advance(piece);
+            }
+
+            Placement best = null;
+            double bestValue = 0;
+            int y = PlacementFinder.spawnRow(board, piece);
+            for (Placement p : PlacementFinder.findHardDrops(board, piece, 0, Tetromino.SPAWN_X,
+                    y, rotationSystem)) {
+                double value = evaluator.evaluate(p.getBoard(), lines + p.getLinesCleared());
+                if (best == null || value > bestValue) {
+                    best = p;
+                    bestValue = value;
+                }
+            }
+            if (best == null) {
+                return BoardEvaluator.GAME_OVER;
+            }
+            board = best.getBoard();
+            lines += best.getLinesCleared();
+        }
+        return evaluator.evaluate(board, lines);
+    }
+
+    /**
+     * Helper method that picks a piece from a distribution with a uniform number
+     * in [0, 1)
+     */
+    private static int sample(double[] p, double u) {
+        int last = 0;
+        for (int piece = 0; piece < 7; piece++) {
+            if (p[piece] > 0) {
+                if (u < p[piece]) {
+                    return piece;
+                }
+                u -= p[piece];
+                last = piece;
+            }
+        }
+        return last; // rounding left u just above the total
+    }
+
+    /**
+     * Fork/join task that plays a range of rollouts, rollout i starting from
+     * candidate i / rollouts, splitting the range in half until it is small
+     */
+    @SuppressWarnings("serial")
+    private class RolloutRange extends RecursiveAction {
+
+        private final List<Placement> candidates;
+        private final long[] keys;
+        private final int[] known;
+        private final Randomizer randomizer; // never advanced, copied before use
+        private final RotationSystem rotationSystem;
+        private final long seed;
+        private final int from;
+        private final int to;
+
+        RolloutRange(List<Placement> candidates, long[] keys, int[] known, Randomizer randomizer,
+                RotationSystem rotationSystem, long seed, int from, int to) {
+            this.candidates = candidates;
+            this.keys = keys;
+            this.known = known;
+            this.randomizer = randomizer;
+            this.rotationSystem = rotationSystem;
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ROLLOUTS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    // each rollout has its own pieces whatever thread plays it
+                    XorShiftRandom sampler = new XorShiftRandom(seed + i);
+                    Placement start = candidates.get(i / rollouts);
+                    double value = rollout(start.getBoard(), start.getLinesCleared(), known,
+                            randomizer.copy(), rotationSystem, sampler);
+                    table.add(keys[i / rollouts], value);
+                }
+            } else {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RolloutRange(candidates, keys, known, randomizer, rotationSystem,
+                        seed, from, mid),
+                        new RolloutRange(candidates, keys, known, randomizer, rotationSystem,
+                                seed, mid, to));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RolloutBotTest {
+
+    @Test
+    public void testTableAddsConcurrently() throws InterruptedException {
+        RolloutTable table = new RolloutTable(64);
+        Thread[] threads = new Thread[4];
+        for (int n = 0; n < threads.length; n++) {
+            threads[n] = new Thread(() -> {
+                for (int i = 0; i < 10000; i++) {
+                    table.add(i % 20, 2.0);
+                }
+            });
+            threads[n].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(20, table.size());
+        assertEquals(2000, table.getVisits(7));
+        assertEquals(2.0, table.getMean(0), 1e-9);
+        assertTrue(Double.isNaN(table.getMean(99)));
+    }
+
+    @Test
+    public void testTableFull() {
+        RolloutTable table = new RolloutTable(4);
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(table.add(i, 1));
+        }
+        assertFalse(table.add(5, 1));
+        table.clear();
+        assertEquals(0, table.size());
+        assertTrue(table.add(5, 1));
+    }
+
+    @Test
+    public void testSameSeedSameMoves() {
+        Tetris a = new Tetris(new BagRandomizer(4));
+        Tetris b = new Tetris(new BagRandomizer(4));
+        RolloutBot botA = new RolloutBot(new BoardEvaluator(), 4, 3, 1, 9);
+        RolloutBot botB = new RolloutBot(new BoardEvaluator(), 4, 3, 1, 9);
+        for (int i = 0; i < 30; i++) {
+            botA.choose(a).play(a);
+            botB.choose(b).play(b);
+        }
+        assertFalse(a.gameIsOver());
+        assertEquals(a.getHash(), b.getHash());
+        assertTrue(botA.getTable().size() > 0);
+    }
+
+    @Test
+    public void testPlaysFromMovedPiece() {
+        // with no look ahead the bot plays the placement the evaluator prefers
+        // among those reachable from where the rotated and shifted piece is, also
+        // with a rotation system other than SRS
+        BoardEvaluator evaluator = new BoardEvaluator();
+        for (RotationSystem system : new RotationSystem[] { RotationSystem.SRS,
+            RotationSystem.ARS }) {
+            Tetris t = new Tetris(new BagRandomizer(6));
+            t.setRotationSystem(system);
+            for (int j = 0; j < 6; j++) {
+                t.fill(19, j);
+            }
+            t.rotateCW();
+            t.moveLeft();
+            t.moveLeft();
+
+            Placement best = null;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (Placement p : t.getPlacements()) {
+                double value = evaluator.evaluate(p.getBoard(), p.getLinesCleared());
+                if (value > bestValue) {
+                    best = p;
+                    bestValue = value;
+                }
+            }
+            new RolloutBot(evaluator, 1, 0, 0, 3).choose(t).play(t);
+            assertEquals(best.getBoard().getHash(), t.snapshot().getBoard().getHash());
+        }
+    }
+
+}
@@ -0,0 +1,148 @@
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class RolloutTable {
+
+    // each entry takes 3 consecutive longs: the key, the number of results and the
+    // raw bits of the sum of the results
+    private static final int KEY = 0;
+    private static final int VISITS = 1;
+    private static final int SUM = 2;
+
+    // INVARIANT: a key is never 0 (0 marks a free entry) and never changes once
+    // set until clear is called. Hash 0 has its own entry after the probed ones
+    private final AtomicLongArray entries;
+    private final int mask;
+    private final AtomicInteger size; // number of claimed entries
+
+    /**
+     * Constructor for an empty table
+     * 
+     * @param capacity Maximum number of positions, rounded up to a power of two
+     */
+    public RolloutTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        entries = new AtomicLongArray(3 * size + 3);
+        mask = size - 1;
+        this.size = new AtomicInteger();
+    }
+
+    /**
+     * Method that adds a result to the statistics of a position. Safe to call from
+     * any number of threads at once without locking: entries are claimed with a
+     * compare and set of their key and updated with atomic adds
+     * 
+     * @param hash  The hash of the position
+     * @param value The result to add
+     * @return boolean False, leaving the table unchanged, if the table is full
+     */
+    public boolean add(long hash, double value) {
+        int entry = find(hash, true);
+        if (entry < 0) {
+            return false;
+        }
+        entries.getAndIncrement(entry + VISITS);
+        long bits;
+        do {
+            bits = entries.get(entry + SUM);
+        } while (!entries.compareAndSet(entry + SUM, bits,
+                Double.doubleToRawLongBits(Double.longBitsToDouble(bits) + value)));
+        return true;
+    }
+
+    /**
+     * Getter method for the number of results added for a position
+     * 
+     * @param hash The hash of the position
+     * @return long The number of results, 0 for an unknown position
+     */
+    public long getVisits(long hash) {
+        int entry = find(hash, false);
+        return entry < 0 ? 0 : entries.get(entry + VISITS);
+    }
+
+    /**
+     * Getter method for the average result of a position. While results are being
+     * added the count and the sum may be read from different moments
+     * 
+     * @param hash The hash of the position
+     * @return double The average of the results, NaN for an unknown position
+     */
+    public double getMean(long hash) {
+        int entry = find(hash, false);
+        if (entry < 0) {
+            return Double.NaN;
+        }
+        long visits = entries.get(entry + VISITS);
+        return Double.longBitsToDouble(entries.get(entry + SUM)) / visits;
+    }
+
+    /**
+     * Getter method for the number of positions in the table
+     * 
+     * @return int The number of positions with at least one result
+     */
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Getter method for the number of positions the table can hold
+     * 
+     * @return int The capacity of the table
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Method that removes every position, must not run while results are added
+     */
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++) {
+            entries.set(i, 0);
+        }
+        size.set(0);
+    }
+
+    /**
+     * Helper method that finds the entry of a position by linear probing from the
+     * low bits of its hash, optionally claiming a free entry
+     * 
+     * @return int Index of the entry's key, -1 if it is missing and not claimed
+     */
+    private int find(long hash, boolean claim) {
+        if (hash == 0) {
+            int entry = 3 * (mask + 1);
+            if (entries.get(entry + VISITS) == 0 && !claim) {
+                return -1;
+            }
+            if (claim && entries.compareAndSet(entry + KEY, 0, 1)) {
+                size.incrementAndGet();
+            }
+            return entry;
+        }
+        long key = hash;
+        int slot = (int) key & mask;
+        for (int probe = 0; probe <= mask; probe++) {
+            int entry = 3 * slot;
+            long current = entries.get(entry + KEY);
+            if (current == 0) {
+                if (!claim) {
+                    return -1;
+                }
+                if (entries.compareAndSet(entry + KEY, 0, key)) {
+                    size.incrementAndGet();
+                    return entry;
+                }
+                current = entries.get(entry + KEY);
+            }
+            if (current == key) {
+                return entry;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+}
@@ -0,0 +1,152 @@
+public class RotationSystem {
+
+    // kick class of each piece id (see Tetromino.PIECES): 0 for J, L, S, T and Z,
+    // 1 for I and 2 for O
+    private static final int[] KICK_CLASS = { 1, 2, 0, 0, 0, 0, 0 };
+
+    private static final int[] NONE = { 0, 0 };
+    private static final int[] BLOCKED = {};
+
+    // SRS offsets in board coordinates (y grows downwards), indexed [from state].
+    // Each entry is a flat list of (x, y) pairs tested in order
+    private static final int[][] JLSTZ_CW = {
+        { 0, 0, -1, 0, -1, -1, 0, 2, -1, 2 },
+        { 0, 0, 1, 0, 1, 1, 0, -2, 1, -2 },
+        { 0, 0, 1, 0, 1, -1, 0, 2, 1, 2 },
+        { 0, 0, -1, 0, -1, 1, 0, -2, -1, -2 } };
+    private static final int[][] JLSTZ_CCW = {
+        { 0, 0, 1, 0, 1, -1, 0, 2, 1, 2 },
+        { 0, 0, 1, 0, 1, 1, 0, -2, 1, -2 },
+        { 0, 0, -1, 0, -1, -1, 0, 2, -1, 2 },
+        { 0, 0, -1, 0, -1, 1, 0, -2, -1, -2 } };
+    private static final int[][] I_CW = {
+        { 0, 0, -2, 0, 1, 0, -2, 1, 1, -2 },
+        { 0, 0, -1, 0, 2, 0, -1, -2, 2, 1 },
+        { 0, 0, 2, 0, -1, 0, 2, -1, -1, 2 },
+        { 0, 0, 1, 0, -2, 0, 1, 2, -2, -1 } };
+    private static final int[][] I_CCW = {
+        { 0, 0, -1, 0, 2, 0, -1, -2, 2, 1 },
+        { 0, 0, 2, 0, -1, 0, 2, -1, -1, 2 },
+        { 0, 0, 1, 0, -2, 0, 1, 2, -2, -1 },
+        { 0, 0, -2, 0, 1, 0, -2, 1, 1, -2 } };
+
+    // 180 degree kicks used by modern guideline games, indexed [from state]
+    private static final int[][] HALF_TURN = {
+        { 0, 0, 0, -1, 1, -1, -1, -1, 1, 0, -1, 0 },
+        { 0, 0, 1, 0, 1, -2, 1, -1, 0, -2, 0, -1 },
+        { 0, 0, 0, 1, -1, 1, 1, 1, -1, 0, 1, 0 },
+        { 0, 0, -1, 0, -1, -2, -1, -1, 0, -2, 0, -1 } };
+
+    // ARS style kicks: try in place, then one column right, then one column left
+    private static final int[] ARS_KICKS = { 0, 0, 1, 0, -1, 0 };
+
+    private static final int[][] IN_PLACE = { NONE, NONE, NONE, NONE };
+    private static final int[][] NEVER = { BLOCKED, BLOCKED, BLOCKED, BLOCKED };
+    private static final int[][] ARS_ALL = { ARS_KICKS, ARS_KICKS, ARS_KICKS, ARS_KICKS };
+
+    /**
+     * Super Rotation System without 180 degree rotations, the default
+     */
+    public static final RotationSystem SRS = new RotationSystem(new int[][][][] {
+        { JLSTZ_CW, NEVER, JLSTZ_CCW },
+        { I_CW, NEVER, I_CCW },
+        { IN_PLACE, NEVER, IN_PLACE } });
+
+    /**
+     * Super Rotation System with kicked 180 degree rotations
+     */
+    public static final RotationSystem SRS_180 = new RotationSystem(new int[][][][] {
+        { JLSTZ_CW, HALF_TURN, JLSTZ_CCW },
+        { I_CW, HALF_TURN, I_CCW },
+        { IN_PLACE, IN_PLACE, IN_PLACE } });
+
+    /**
+     * Arika style kicks on the SRS shapes: J, L, S, T and Z may shift one column
+     * right or left, I and O never kick and 180 degree rotations are not allowed
+     */
+    public static final RotationSystem ARS = new RotationSystem(new int[][][][] {
+        { ARS_ALL, NEVER, ARS_ALL },
+        { IN_PLACE, NEVER, IN_PLACE },
+        { IN_PLACE, NEVER, IN_PLACE } });
+
+    /**
+     * Rotations only succeed in place
+     */
+    public static final RotationSystem NO_KICKS = new RotationSystem(new int[][][][] {
+        { IN_PLACE, IN_PLACE, IN_PLACE },
+        { IN_PLACE, IN_PLACE, IN_PLACE },
+        { IN_PLACE, IN_PLACE, IN_PLACE } });
+
+    // INVARIANT: kicks[kick class][turns - 1][from state] is an even length list of
+    // (x, y) offsets, empty if the rotation is not allowed
+    private final int[][][][] kicks;
+
+    /**
+     * Constructor for a rotation system from its kick tables
+     * 
+     * @param kicks Offsets indexed [kick class][clockwise turns - 1][from state], with
+     *              kick class 0 for J, L, S, T and Z, 1 for I and 2 for O. Each entry
+     *              is a list of (x, y) pairs in board coordinates tested in order,
+     *              an empty list forbids the rotation
+     */
+    public RotationSystem(int[][][][] kicks) {
+        if (kicks.length != 3) {
+            throw new IllegalArgumentException("expected 3 kick classes");
+        }
+        this.kicks = new int[3][3][4][];
+        for (int c = 0; c < 3; c++) {
+            if (kicks[c].length != 3) {
+                throw new IllegalArgumentException("expected 3 rotation directions");
+            }
+            for (int t = 0; t < 3; t++) {
+                if (kicks[c][t].length != 4) {
+                    throw new IllegalArgumentException("expected 4 states");
+                }
+                for (int s = 0; s < 4; s++) {
+                    int[] tests = kicks[c][t][s];
+                    if (tests.length % 2 != 0) {
+                        throw new IllegalArgumentException("kick tests must be (x, y) pairs");
+                    }
+                    this.kicks[c][t][s] = tests.clone();
+                }
+            }
+        }
+    }
+
+    /**
+     * Getter method for the offsets tested when rotating a piece
+     * 
+     * @param piece The id of the piece
+     * @param from  The state the piece rotates from
+     * @param turns Number of clockwise quarter turns (1, 2 or 3)
+     * @return int[] Flat list of (x, y) offsets, must not be modified
+     */
+    public int[] getKicks(int piece, int from, int turns) {
+        return kicks[KICK_CLASS[piece]][turns - 1][from];
+    }
+
+    /**
+     * Method that runs the kick tests of a rotation in order against a board and
+     * stops at the first one where the rotated piece fits
+     * 
+     * @param board The board to test against
+     * @param piece The id of the piece
+     * @param from  The state the piece rotates from
+     * @param turns Number of clockwise quarter turns (1, 2 or 3)
+     * @param x     The column of the piece's bounding box before rotating
+     * @param y     The row of the piece's bounding box before rotating
+     * @return int Index of the x offset of the successful test in getKicks, or -1
+     *         if the rotation is blocked
+     */
+    public int kick(BitBoard board, int piece, int from, int turns, int x, int y) {
+        int[] tests = kicks[KICK_CLASS[piece]][turns - 1][from];
+        int to = (from + turns) & 3;
+        for (int k = 0; k < tests.length; k += 2) {
+            if (board.fitsInside(piece, to, x + tests[k], y + tests[k + 1])) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+}
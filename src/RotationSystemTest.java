@@ -0,0 +1,203 @@
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RotationSystemTest {
+
+    private static int id(char block) {
+        return Tetromino.PIECES.indexOf(block);
+    }
+
+    /**
+     * Helper method that starts a game with a piece falling at a position, with
+     * T pieces queued after it
+     */
+    private static Tetris game(BitBoard board, char piece, int state, int x, int y) {
+        return new Tetris(new GameState(board, id(piece), state, x, y, -1, 0x44444L, 0, 0,
+                true, false, new UniformRandomizer(0)));
+    }
+
+    private static void assertFalling(Tetris t, int state, int x, int y) {
+        Tetromino falling = t.getFallingTetromino();
+        assertEquals(state, falling.getState(), "state");
+        assertEquals(x, falling.getX(), "x");
+        assertEquals(y, falling.getY(), "y");
+    }
+
+    @Test
+    public void testTSpinTriple() {
+        // rows 17 to 19 are full except for a T standing in column 4 with its nub
+        // in column 5, and an overhang at (15, 4) blocks the earlier kicks. The T
+        // lies flat above and only gets in through the last kick test, one
+        // column left and two rows down
+        BitBoard b = new BitBoard();
+        for (int i = 17; i < BitBoard.ROWS; i++) {
+            for (int j = 0; j < BitBoard.COLS; j++) {
+                if (j != 4 && !(i == 18 && j == 5)) {
+                    b.fill(i, j, 7);
+                }
+            }
+        }
+        b.fill(15, 4, 7);
+
+        assertEquals(8, RotationSystem.SRS.kick(b, id('T'), 0, 1, 4, 15));
+        Tetris t = game(b, 'T', 0, 4, 15);
+        assertTrue(t.rotateCW());
+        assertFalling(t, 1, 3, 17);
+        t.hardFall();
+        assertEquals(3, t.getLinesCleared());
+        assertEquals(300, t.getScore());
+    }
+
+    @Test
+    public void testKicksAreTestedInOrder() {
+        // a T against the left wall rotating from standing to flat fails in place
+        // and takes the first test that fits, one column right
+        BitBoard b = new BitBoard();
+        Tetris t = game(b, 'T', 1, -1, 10);
+        assertTrue(t.rotateCW());
+        assertFalling(t, 2, 0, 10);
+
+        // with that column blocked the next tests are tried
+        b.fill(11, 2, 7);
+        t = game(b, 'T', 1, -1, 10);
+        assertTrue(t.rotateCW());
+        int[] kicks = RotationSystem.SRS.getKicks(id('T'), 1, 1);
+        int test = RotationSystem.SRS.kick(b, id('T'), 1, 1, -1, 10);
+        assertTrue(test > 2);
+        assertFalling(t, 2, -1 + kicks[test], 10 + kicks[test + 1]);
+    }
+
+    @Test
+    public void testIWallKicks() {
+        // a vertical I in the last column kicks one column left to lie flat
+        Tetris t = game(new BitBoard(), 'I', 1, 7, 10);
+        assertTrue(t.rotateCW());
+        assertFalling(t, 2, 6, 10);
+        t = game(new BitBoard(), 'I', 1, 7, 10);
+        assertTrue(t.rotateCCW());
+        assertFalling(t, 0, 6, 10);
+
+        // a vertical I in the first column kicks one column right
+        t = game(new BitBoard(), 'I', 3, -1, 10);
+        assertTrue(t.rotateCW());
+        assertFalling(t, 0, 0, 10);
+        t = game(new BitBoard(), 'I', 3, -1, 10);
+        assertTrue(t.rotateCCW());
+        assertFalling(t, 2, 0, 10);
+    }
+
+    @Test
+    public void testICounterClockwise() {
+        // counter-clockwise rotations of the I turn it counter-clockwise from every
+        // state, not clockwise
+        for (int state = 0; state < 4; state++) {
+            Tetris t = game(new BitBoard(), 'I', state, 3, 5);
+            assertTrue(t.rotateCCW());
+            assertEquals((state + 3) & 3, t.getFallingTetromino().getState());
+        }
+    }
+
+    @Test
+    public void testORotatesInPlace() {
+        // the O never kicks, even wedged in a corner, and covers the same cells in
+        // every state
+        BitBoard b = new BitBoard();
+        b.fill(19, 2, 7);
+        b.fill(17, 2, 7);
+        Tetris t = game(b, 'O', 0, -1, 17);
+        for (int turn = 1; turn <= 4; turn++) {
+            assertTrue(t.rotateCW());
+            assertFalling(t, turn & 3, -1, 17);
+        }
+        for (int state = 1; state < 4; state++) {
+            for (int r = 0; r < 4; r++) {
+                assertEquals(Tetromino.rowMask(id('O'), 0, r),
+                        Tetromino.rowMask(id('O'), state, r));
+            }
+        }
+    }
+
+    @Test
+    public void testArs() {
+        // a T shifts right first, then left, and never moves up or down
+        BitBoard b = new BitBoard();
+        Tetris t = game(b, 'T', 3, 8, 10);
+        t.setRotationSystem(RotationSystem.ARS);
+        assertTrue(t.rotateCW());
+        assertFalling(t, 0, 7, 10);
+
+        b.fill(11, 4, 7);
+        t = game(b, 'T', 1, 4, 10);
+        t.setRotationSystem(RotationSystem.ARS);
+        assertTrue(t.rotateCW());
+        assertFalling(t, 2, 5, 10);
+
+        // the I does not kick off a wall
+        t = game(new BitBoard(), 'I', 1, 7, 10);
+        t.setRotationSystem(RotationSystem.ARS);
+        assertFalse(t.rotateCW());
+        assertFalling(t, 1, 7, 10);
+        assertFalse(t.rotate180());
+    }
+
+    @Test
+    public void testNoKicks() {
+        Tetris t = game(new BitBoard(), 'T', 1, -1, 10);
+        t.setRotationSystem(RotationSystem.NO_KICKS);
+        assertFalse(t.rotateCW());
+        assertFalse(t.rotateCCW());
+        assertFalling(t, 1, -1, 10);
+
+        // half turns are allowed where they fit
+        t = game(new BitBoard(), 'T', 0, 3, 10);
+        t.setRotationSystem(RotationSystem.NO_KICKS);
+        assertTrue(t.rotate180());
+        assertFalling(t, 2, 3, 10);
+    }
+
+    @Test
+    public void testHalfTurns() {
+        // plain SRS has no 180 degree rotation
+        Tetris t = game(new BitBoard(), 'T', 0, 3, 18);
+        assertFalse(t.rotate180());
+        assertFalling(t, 0, 3, 18);
+
+        // a flat T on the floor turns upside down by kicking one row up
+        t.setRotationSystem(RotationSystem.SRS_180);
+        assertTrue(t.rotate180());
+        assertFalling(t, 2, 3, 17);
+        assertTrue(t.rotate180());
+        assertFalling(t, 0, 3, 17);
+    }
+
+    @Test
+    public void testConstructorValidatesTables() {
+        int[] none = { 0, 0 };
+        int[][] states = { none, none, none, none };
+        int[][][] directions = { states, states, states };
+        assertThrows(IllegalArgumentException.class,
+                () -> new RotationSystem(new int[][][][] { directions, directions }));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RotationSystem(new int[][][][] { directions, directions,
+                    { states, states } }));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RotationSystem(new int[][][][] { directions, directions,
+                    { states, states, { none, none, none } } }));
+        assertThrows(IllegalArgumentException.class,
+                () -> new RotationSystem(new int[][][][] { directions, directions,
+                    { states, states, { none, none, none, { 0, 0, 1 } } } }));
+    }
+
+    @Test
+    public void testConstructorCopiesTables() {
+        int[] tests = { 0, 0 };
+        int[][] states = { tests, tests, tests, tests };
+        int[][][] directions = { states, states, states };
+        RotationSystem system = new RotationSystem(new int[][][][] { directions, directions,
+            directions });
+        tests[0] = 5;
+        assertEquals(0, system.getKicks(id('T'), 0, 1)[0]);
+        assertEquals(0, system.kick(new BitBoard(), id('T'), 0, 1, 3, 5));
+    }
+
+}
@@ -3,6 +3,24 @@ import java.awt.event.*;
 import javax.swing.*;
 
 public class RunTetris implements Runnable {
+
+    private final String journalFile;
+
+    /**
+     * Constructor for a game that does not write journals
+     */
+    public RunTetris() {
+        this(null);
+    }
+
+    /**
+     * Constructor for a game that writes the journal of every game to a file
+     * 
+     * @param journalFile The journal file, null for none
+     */
+    public RunTetris(String journalFile) {
+        this.journalFile = journalFile;
+    }
     public void run() {
 
         // Top-level frame in which game components live
@@ -16,7 +34,7 @@ public class RunTetris implements Runnable {
         status_panel.add(status);
 
         // Game board
-        final GameBoard board = new GameBoard(status);
+        final GameBoard board = new GameBoard(status, journalFile);
 
         board.setBackground(Color.BLACK);
         frame.add(board, BorderLayout.CENTER);
@@ -58,6 +76,13 @@ public class RunTetris implements Runnable {
         control_panel.add(save);
         control_panel.add(load);
 
+        // Write the saves still queued before the program exits
+        frame.addWindowListener(new WindowAdapter() {
+            public void windowClosing(WindowEvent e) {
+                board.close();
+            }
+        });
+
         // Put the frame on the screen
         frame.pack();
         frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -0,0 +1,231 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public final class SaveFormat {
+
+    // first bytes of every binary save ("TETR"), text saves never start with them
+    public static final int MAGIC = 0x54455452;
+    public static final byte VERSION = 1;
+
+    // upper bound of the size of an encoded game: header, a full board (10 bits of
+    // mask and 30 bits of colors per row), pieces, queue, counters and flags
+    public static final int MAX_SIZE = 5 + 1 + (BitBoard.ROWS * 40 + 7) / 8 + 6
+            + Zobrist.MAX_QUEUE + 9;
+
+    private SaveFormat() {
+    }
+
+    /**
+     * Method that encodes a game position. The board is stored from its highest
+     * filled row down: the number of rows, then a bit stream with the 10 bit
+     * occupancy mask of every row followed by the 3 bit color of each of its
+     * filled cells. The falling piece (id, orientation, column, row), the held
+     * piece and the queue are stored as bytes, then the lines cleared, the score
+     * and the flags. The randomizer is not stored
+     * 
+     * @param state  The position to encode
+     * @param buffer The buffer to write to, needs MAX_SIZE bytes left
+     */
+    public static void encode(GameState state, ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+
+        BitBoard board = state.board();
+        int top = 0;
+        while (top < BitBoard.ROWS && board.getRow(top) == 0) {
+            top++;
+        }
+        buffer.put((byte) (BitBoard.ROWS - top));
+        long bits = 0;
+        int count = 0; // number of bits in bits not yet written
+        for (int i = top; i < BitBoard.ROWS; i++) {
+            int row = board.getRow(i);
+            bits |= (long) row << count;
+            count += BitBoard.COLS;
+            for (int mask = row; mask != 0; mask &= mask - 1) {
+                bits |= (long) board.getColor(i, Integer.numberOfTrailingZeros(mask)) << count;
+                count += 3;
+                for (; count >= 8; count -= 8) {
+                    buffer.put((byte) bits);
+                    bits >>>= 8;
+                }
+            }
+            for (; count >= 8; count -= 8) {
+                buffer.put((byte) bits);
+                bits >>>= 8;
+            }
+        }
+        if (count > 0) {
+            buffer.put((byte) bits);
+        }
+
+        buffer.put((byte) state.getFallingPiece());
+        buffer.put((byte) state.getFallingState());
+        buffer.put((byte) state.getFallingX());
+        buffer.put((byte) state.getFallingY());
+        buffer.put((byte) state.getHeldPiece());
+        int length = state.getQueueLength();
+        buffer.put((byte) length);
+        for (int i = 0; i < length; i++) {
+            buffer.put((byte) state.getQueuedPiece(i));
+        }
+        buffer.putInt(state.getLinesCleared());
+        buffer.putInt(state.getScore());
+        buffer.put((byte) ((state.canHold() ? 1 : 0) | (state.isGameOver() ? 2 : 0)));
+    }
+
+    /**
+     * Method that decodes a game position written by encode
+     * 
+     * @param buffer     The buffer to read from, positioned at the magic number
+     * @param randomizer Generates the pieces after the decoded queue
+     * @return GameState The decoded position
+     * @throws IOException If the buffer does not hold a valid save of this version
+     */
+    public static GameState decode(ByteBuffer buffer, Randomizer randomizer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Invalid Save File");
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported Save Version " + version);
+            }
+
+            BitBoard board = new BitBoard();
+            int rows = buffer.get();
+            if (rows < 0 || rows > BitBoard.ROWS) {
+                throw new IOException("Invalid Save File");
+            }
+            long bits = 0;
+            int count = 0; // number of bits read into bits and not used yet
+            for (int i = BitBoard.ROWS - rows; i < BitBoard.ROWS; i++) {
+                for (; count < BitBoard.COLS; count += 8) {
+                    bits |= (buffer.get() & 0xFFL) << count;
+                }
+                int row = (int) bits & BitBoard.FULL_ROW;
+                bits >>>= BitBoard.COLS;
+                count -= BitBoard.COLS;
+                for (int mask = row; mask != 0; mask &= mask - 1) {
+                    if (count < 3) {
+                        bits |= (buffer.get() & 0xFFL) << count;
+                        count += 8;
+                    }
+                    int color = (int) bits & 7;
+                    bits >>>= 3;
+                    count -= 3;
+                    if (color == 0) {
+                        throw new IOException("Invalid Save File");
+                    }
+                    board.fill(i, Integer.numberOfTrailingZeros(mask), color);
+                }
+            }
+
+            int falling = piece(buffer.get());
+            int fallingState = buffer.get();
+            int fallingX = buffer.get();
+            int fallingY = buffer.get();
+            // the falling piece fits the board, pushed up above it at most by the
+            // height of the board
+            if (fallingState < 0 || fallingState > 3 || fallingY < -BitBoard.ROWS - 4
+                    || fallingY >= BitBoard.ROWS
+                    || !board.fits(falling, fallingState, fallingX, fallingY)) {
+                throw new IOException("Invalid Save File");
+            }
+            int held = buffer.get();
+            if (held != -1) {
+                held = piece(held);
+            }
+            // the game takes the next piece from the queue before it refills it
+            int length = buffer.get();
+            if (length < 1 || length > Zobrist.MAX_QUEUE) {
+                throw new IOException("Invalid Save File");
+            }
+            long queue = 0;
+            for (int i = 0; i < length; i++) {
+                queue |= (long) (piece(buffer.get()) + 1) << (4 * i);
+            }
+            int linesCleared = buffer.getInt();
+            int score = buffer.getInt();
+            int flags = buffer.get();
+            return new GameState(board, falling, fallingState, fallingX, fallingY, held, queue,
+                    score, linesCleared, (flags & 1) != 0, (flags & 2) != 0, randomizer);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Invalid Save File", e);
+        }
+    }
+
+    /**
+     * Method that writes a game position to a file without ever leaving a partly
+     * written save behind: the position goes to a temporary file next to it that
+     * is then renamed over the old save in one atomic step, so a crash leaves
+     * either the old or the new save
+     * 
+     * @param state    The position to save
+     * @param filename The save file
+     * @param fsync    Whether to force the data and the rename to the disk before
+     *                 returning, so the save also survives a power loss
+     * @throws IOException If the file cannot be written, the old save is kept
+     */
+    public static void write(GameState state, String filename, boolean fsync)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(MAX_SIZE);
+        encode(state, buffer);
+        buffer.flip();
+
+        Path file = Paths.get(filename).toAbsolutePath();
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (fsync) {
+                channel.force(true);
+            }
+        } finally {
+            channel.close();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+
+        if (fsync) {
+            // the rename is only durable once the directory is synced, which some
+            // platforms do not allow
+            try (FileChannel dir = FileChannel.open(file.getParent(), StandardOpenOption.READ)) {
+                dir.force(true);
+            } catch (IOException e) {
+                // the data itself is on the disk
+            }
+        }
+    }
+
+    /**
+     * Method that checks whether a buffer starts like a binary save
+     * 
+     * @param buffer The buffer to check, its position is not changed
+     * @return boolean Whether the next bytes are the magic number
+     */
+    public static boolean isBinary(ByteBuffer buffer) {
+        return buffer.remaining() >= 4 && buffer.getInt(buffer.position()) == MAGIC;
+    }
+
+    /**
+     * Helper method that checks a stored piece id
+     */
+    private static int piece(int id) throws IOException {
+        if (id < 0 || id >= Tetromino.PIECES.length()) {
+            throw new IOException("Invalid Save File");
+        }
+        return id;
+    }
+
+}
@@ -0,0 +1,498 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+public class SaveStore implements AutoCloseable {
+
+    // first bytes of a store ("TSAV") and its version
+    public static final int MAGIC = 0x54534156;
+    public static final byte VERSION = 1;
+    public static final int MAX_NAME = 255; // bytes of a slot name in UTF-8
+
+    private static final int FILE_HEADER = 5;
+    // a record is its body length and the CRC32 of its body, then the body: the
+    // type, the time, the name length and name, and for a save the SaveFormat
+    // bytes of the position
+    private static final int RECORD_HEADER = 8;
+    private static final int MAX_BODY = 1 + 8 + 1 + MAX_NAME + SaveFormat.MAX_SIZE;
+    private static final byte REMOVE = 0;
+    private static final byte PUT = 1;
+    // bytes of dead records the log may hold before it is compacted, as long as
+    // they are also more than the live ones
+    private static final long MIN_GARBAGE = 1 << 20;
+    private static final int SCAN_BUFFER = 1 << 20;
+
+    private final Path file;
+    private final ByteBuffer buffer = ByteBuffer.allocate(RECORD_HEADER + MAX_BODY);
+    private final CRC32 crc = new CRC32();
+
+    // guarded by this: the log, the latest record of every slot, the length of
+    // the log and the bytes of the records in the index
+    private FileChannel channel;
+    private final Map<String, Entry> index = new HashMap<String, Entry>();
+    private long size;
+    private long live;
+    private boolean compacting;
+    private Thread compactor;
+    private IOException compactionFailure;
+    private long counter; // makes generated slot names unique
+
+    /**
+     * Constructor for a store of many saves appended to one log file. The file is
+     * created if missing, otherwise it is scanned once to rebuild the index of
+     * slots. A record cut off by a crash at the end of the log is dropped
+     * 
+     * @param filename The log file
+     * @throws IOException If the file cannot be read, is not a save store or
+     *                     has a damaged record before its end
+     */
+    public SaveStore(String filename) throws IOException {
+        file = Paths.get(filename).toAbsolutePath();
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE);
+        try {
+            scan();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Method that saves a position under a name, replacing the position saved
+     * under it before. Only the new record is appended to the log
+     * 
+     * @param slot  The name of the save, at most MAX_NAME bytes in UTF-8
+     * @param state The position to save
+     * @throws IOException If the record cannot be appended
+     */
+    public synchronized void put(String slot, GameState state) throws IOException {
+        append(PUT, slot, System.currentTimeMillis(), state);
+    }
+
+    /**
+     * Method that saves a position under a new name made from the current time
+     * 
+     * @param state The position to save
+     * @return String The name the position is saved under
+     * @throws IOException If the record cannot be appended
+     */
+    public synchronized String put(GameState state) throws IOException {
+        long time = System.currentTimeMillis();
+        String slot = String.format("%tF %<tT.%<tL #%d", time, counter++);
+        append(PUT, slot, time, state);
+        return slot;
+    }
+
+    /**
+     * Method that reads a saved position
+     * 
+     * @param slot       The name of the save
+     * @param randomizer Generates the pieces after the saved queue
+     * @return GameState The saved position, null if nothing is saved under the name
+     * @throws IOException If the record cannot be read
+     */
+    public synchronized GameState get(String slot, Randomizer randomizer) throws IOException {
+        Entry entry = index.get(slot);
+        if (entry == null) {
+            return null;
+        }
+        buffer.clear().limit(entry.length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, entry.offset + buffer.position()) < 0) {
+                throw new IOException("Invalid Save Store");
+            }
+        }
+        // skip the header, type, time and name to the position
+        int nameLength = buffer.get(RECORD_HEADER + 9) & 0xFF;
+        buffer.position(RECORD_HEADER + 10 + nameLength);
+        return SaveFormat.decode(buffer, randomizer);
+    }
+
+    /**
+     * Method that deletes a save by appending a record that ends it
+     * 
+     * @param slot The name of the save
+     * @return boolean Whether something was saved under the name
+     * @throws IOException If the record cannot be appended
+     */
+    public synchronized boolean remove(String slot) throws IOException {
+        if (!index.containsKey(slot)) {
+            return false;
+        }
+        append(REMOVE, slot, System.currentTimeMillis(), null);
+        return true;
+    }
+
+    /**
+     * Getter method for the names of the saves, oldest first
+     * 
+     * @return List The names of all saves
+     */
+    public synchronized List<String> getSlots() {
+        List<Entry> entries = new ArrayList<Entry>(index.values());
+        entries.sort(Comparator.comparingLong((Entry e) -> e.time).thenComparing(e -> e.slot));
+        List<String> slots = new ArrayList<String>(entries.size());
+        for (Entry e : entries) {
+            slots.add(e.slot);
+        }
+        return slots;
+    }
+
+    /**
+     * Getter method for when a position was saved
+     * 
+     * @param slot The name of the save
+     * @return long The time in milliseconds since the epoch, -1 if nothing is
+     *         saved under the name
+     */
+    public synchronized long getTime(String slot) {
+        Entry entry = index.get(slot);
+        return entry == null ? -1 : entry.time;
+    }
+
+    /**
+     * Getter method for the number of saves
+     * 
+     * @return int The number of slots
+     */
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * Getter method for the length of the log, including the records of
+     * replaced and removed saves until it is compacted
+     * 
+     * @return long The length of the file in bytes
+     */
+    public synchronized long getFileSize() {
+        return size;
+    }
+
+    /**
+     * Method that rewrites the log with only the latest record of every save.
+     * The live records are copied to a new file while saves go on, then the
+     * records appended meanwhile are copied and the new file is renamed over the
+     * log, so a crash leaves either log complete. Runs in the background by
+     * itself once most of the log is dead records
+     * 
+     * @throws IOException If the new log cannot be written, the old one is kept
+     */
+    public void compact() throws IOException {
+        List<Entry> entries;
+        long end;
+        FileChannel source;
+        synchronized (this) {
+            while (compacting) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Compaction interrupted", e);
+                }
+            }
+            compacting = true;
+            entries = new ArrayList<Entry>(index.values());
+            end = size;
+            source = channel;
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        FileChannel target = null;
+        boolean done = false;
+        try {
+            target = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            writeFileHeader(target);
+
+            // records below end are never changed, so they are copied without the
+            // lock, runs of neighboring records at once
+            entries.sort(Comparator.comparingLong((Entry e) -> e.offset));
+            long[] moved = new long[entries.size()];
+            long position = FILE_HEADER;
+            for (int i = 0; i < entries.size();) {
+                long start = entries.get(i).offset;
+                long stop = start;
+                for (; i < entries.size() && entries.get(i).offset == stop; i++) {
+                    moved[i] = position + stop - start;
+                    stop += entries.get(i).length;
+                }
+                transfer(source, start, stop - start, target, position);
+                position += stop - start;
+            }
+
+            synchronized (this) {
+                long tail = size - end;
+                transfer(channel, end, tail, target, position);
+                target.force(true);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+
+                // records appended meanwhile moved with the tail, the others
+                // are still the ones copied
+                for (Entry e : index.values()) {
+                    if (e.offset >= end) {
+                        e.offset += position - end;
+                    }
+                }
+                for (int i = 0; i < entries.size(); i++) {
+                    Entry e = entries.get(i);
+                    if (index.get(e.slot) == e) {
+                        e.offset = moved[i];
+                    }
+                }
+                channel.close();
+                // the open channel follows the file to its new name
+                channel = target;
+                size = position + tail;
+                done = true;
+            }
+        } finally {
+            if (!done) {
+                if (target != null) {
+                    target.close();
+                }
+                Files.deleteIfExists(temp);
+            }
+            synchronized (this) {
+                compacting = false;
+                notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Method that waits for a running compaction and closes the log
+     * 
+     * @throws IOException If the log cannot be closed or the last background
+     *                     compaction failed
+     */
+    @Override
+    public void close() throws IOException {
+        Thread running;
+        synchronized (this) {
+            running = compactor;
+        }
+        if (running != null) {
+            try {
+                running.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            // a compaction started by hand copies from the log without the lock
+            while (compacting) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            channel.close();
+            if (compactionFailure != null) {
+                throw compactionFailure;
+            }
+        }
+    }
+
+    /**
+     * Helper method that appends a record, updates the index and starts a
+     * background compaction when most of the log is dead records
+     */
+    private void append(byte type, String slot, long time, GameState state) throws IOException {
+        byte[] name = slot.getBytes(StandardCharsets.UTF_8);
+        if (name.length > MAX_NAME) {
+            throw new IllegalArgumentException("slot name longer than " + MAX_NAME + " bytes");
+        }
+        buffer.clear().position(RECORD_HEADER);
+        buffer.put(type).putLong(time).put((byte) name.length).put(name);
+        if (state != null) {
+            SaveFormat.encode(state, buffer);
+        }
+        int length = buffer.position();
+        crc.reset();
+        crc.update(buffer.array(), RECORD_HEADER, length - RECORD_HEADER);
+        buffer.putInt(0, length - RECORD_HEADER).putInt(4, (int) crc.getValue());
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer, size + buffer.position());
+        }
+
+        apply(type, slot, time, size, length);
+        size += length;
+        boolean running = compacting || compactor != null && compactor.isAlive();
+        if (!running && size - live > MIN_GARBAGE && size - live > live) {
+            compactor = new Thread(() -> {
+                try {
+                    compact();
+                } catch (IOException e) {
+                    synchronized (this) {
+                        compactionFailure = e;
+                    }
+                }
+            }, "save-store-compaction");
+            compactor.setDaemon(true);
+            compactor.start();
+        }
+    }
+
+    /**
+     * Helper method that applies a record at an offset to the index
+     */
+    private void apply(byte type, String slot, long time, long offset, int length) {
+        Entry old = type == PUT ? index.put(slot, new Entry(slot, time, offset, length))
+                : index.remove(slot);
+        if (old != null) {
+            live -= old.length;
+        }
+        if (type == PUT) {
+            live += length;
+        }
+    }
+
+    /**
+     * Helper method that rebuilds the index by reading the log from the start in
+     * large blocks. Only the names of the records are decoded, the positions are
+     * read when asked for. A damaged record is only dropped if it runs to the
+     * end of the log, as one cut off by a crash does, otherwise the saves after
+     * it would be lost with it
+     */
+    private void scan() throws IOException {
+        long length = channel.size();
+        if (length == 0) {
+            writeFileHeader(channel);
+            size = FILE_HEADER;
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+        channel.read(header, 0);
+        if (length < FILE_HEADER || header.getInt(0) != MAGIC) {
+            throw new IOException("Invalid Save Store");
+        }
+        if (header.get(4) != VERSION) {
+            throw new IOException("Unsupported Save Store Version " + header.get(4));
+        }
+
+        ByteBuffer block = ByteBuffer.allocate(SCAN_BUFFER);
+        block.flip();
+        long offset = FILE_HEADER; // of the record at the block's position
+        long read = FILE_HEADER; // of the byte after the block
+        while (true) {
+            if (block.remaining() < RECORD_HEADER + MAX_BODY && read < length) {
+                block.compact();
+                while (block.hasRemaining() && read < length) {
+                    read += channel.read(block, read);
+                }
+                block.flip();
+            }
+            if (block.remaining() < RECORD_HEADER) {
+                break;
+            }
+            int start = block.position();
+            int body = block.getInt(start);
+            if (body < 10 || body > MAX_BODY) {
+                throw new IOException("Invalid Save Store");
+            }
+            boolean last = offset + RECORD_HEADER + body >= length;
+            if (block.remaining() < RECORD_HEADER + body) {
+                break;
+            }
+            crc.reset();
+            crc.update(block.array(), start + RECORD_HEADER, body);
+            if ((int) crc.getValue() != block.getInt(start + 4)) {
+                if (last) {
+                    break;
+                }
+                throw new IOException("Invalid Save Store");
+            }
+            block.position(start + RECORD_HEADER);
+            byte type = block.get();
+            long time = block.getLong();
+            int nameLength = block.get() & 0xFF;
+            if (type != PUT && type != REMOVE || nameLength > body - 10) {
+                throw new IOException("Invalid Save Store");
+            }
+            String slot = new String(block.array(), block.position(), nameLength,
+                    StandardCharsets.UTF_8);
+            apply(type, slot, time, offset, RECORD_HEADER + body);
+            block.position(start + RECORD_HEADER + body);
+            offset += RECORD_HEADER + body;
+        }
+
+        // whatever follows the last valid record was cut off by a crash
+        if (offset < length) {
+            channel.truncate(offset);
+        }
+        size = offset;
+    }
+
+    private static void writeFileHeader(FileChannel target) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER);
+        header.putInt(MAGIC).put(VERSION).flip();
+        while (header.hasRemaining()) {
+            target.write(header, header.position());
+        }
+    }
+
+    private static void transfer(FileChannel source, long position, long count,
+            FileChannel target, long targetPosition) throws IOException {
+        target.position(targetPosition);
+        while (count > 0) {
+            long n = source.transferTo(position, count, target);
+            position += n;
+            count -= n;
+        }
+    }
+
+    /**
+     * The latest record of a slot: its name, when it was saved and where it is
+     * in the log
+     */
+    private static class Entry {
+
+        private final String slot;
+        private final long time;
+        private long offset;
+        private final int length;
+
+        Entry(String slot, long time, long offset, int length) {
+            this.slot = slot;
+            this.time = time;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * Lists the saves of a store
+     * 
+     * @param args The store file
+     */
+    public static void main(String[] args) throws IOException {
+        SaveStore store = new SaveStore(args.length > 0 ? args[0] : "files/saves.log");
+        try {
+            for (String slot : store.getSlots()) {
+                System.out.println(slot);
+            }
+            System.out.printf("%d saves, %d bytes%n", store.size(), store.getFileSize());
+        } finally {
+            store.close();
+        }
+    }
+
+}
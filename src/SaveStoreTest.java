@@ -0,0 +1,175 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SaveStoreTest {
+
+    private static File tempStore() throws IOException {
+        File file = File.createTempFile("saves", ".log");
+        file.delete();
+        file.deleteOnExit();
+        return file;
+    }
+
+    private static Tetris game(long seed, int pieces) {
+        Tetris t = new Tetris(new BagRandomizer(seed));
+        for (int i = 0; i < pieces; i++) {
+            t.getPlacements().get(i % 5).play(t);
+        }
+        return t;
+    }
+
+    @Test
+    public void testPutGetRemove() throws IOException {
+        SaveStore store = new SaveStore(tempStore().getPath());
+        Tetris a = game(1, 6);
+        Tetris b = game(2, 9);
+        store.put("a", a.snapshot());
+        store.put("b", b.snapshot());
+        store.put("a", b.snapshot());
+        assertEquals(2, store.size());
+        assertEquals(b.getHash(), new Tetris(store.get("a", new BagRandomizer(0))).getHash());
+
+        assertTrue(store.remove("b"));
+        assertFalse(store.remove("b"));
+        assertNull(store.get("b", new BagRandomizer(0)));
+        assertEquals(1, store.size());
+        store.close();
+    }
+
+    @Test
+    public void testReopenRebuildsIndex() throws IOException {
+        File file = tempStore();
+        SaveStore store = new SaveStore(file.getPath());
+        Tetris t = game(3, 7);
+        String slot = store.put(t.snapshot());
+        store.put("kept", game(4, 3).snapshot());
+        store.put("gone", t.snapshot());
+        store.remove("gone");
+        store.close();
+
+        SaveStore reopened = new SaveStore(file.getPath());
+        assertEquals(2, reopened.size());
+        assertEquals(slot, reopened.getSlots().get(0));
+        assertEquals(t.getHash(), new Tetris(reopened.get(slot, new BagRandomizer(0))).getHash());
+        reopened.close();
+    }
+
+    @Test
+    public void testTornRecordIsDropped() throws IOException {
+        File file = tempStore();
+        SaveStore store = new SaveStore(file.getPath());
+        store.put("first", game(5, 4).snapshot());
+        long length = store.getFileSize();
+        store.put("second", game(6, 4).snapshot());
+        store.close();
+
+        // a crash in the middle of the second record
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(length + 20);
+        raf.close();
+
+        SaveStore reopened = new SaveStore(file.getPath());
+        assertEquals(1, reopened.size());
+        assertEquals(length, reopened.getFileSize());
+        reopened.put("third", game(7, 4).snapshot());
+        reopened.close();
+        assertEquals(2, new SaveStore(file.getPath()).size());
+    }
+
+    @Test
+    public void testDamagedRecordIsNotDropped() throws IOException {
+        File file = tempStore();
+        SaveStore store = new SaveStore(file.getPath());
+        store.put("first", game(5, 4).snapshot());
+        long end = store.getFileSize();
+        store.put("second", game(6, 4).snapshot());
+        store.put("third", game(7, 4).snapshot());
+        long length = store.getFileSize();
+        store.close();
+
+        // a flipped bit in the first record must not cost the saves after it
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.seek(end - 1);
+        int last = raf.read();
+        raf.seek(end - 1);
+        raf.write(last ^ 1);
+        raf.close();
+        assertThrows(IOException.class, () -> new SaveStore(file.getPath()));
+        assertEquals(length, file.length());
+
+        // the same damage to the last record is taken for a torn write
+        raf = new RandomAccessFile(file, "rw");
+        raf.seek(end - 1);
+        raf.write(last);
+        raf.seek(length - 1);
+        last = raf.read();
+        raf.seek(length - 1);
+        raf.write(last ^ 1);
+        raf.close();
+        SaveStore reopened = new SaveStore(file.getPath());
+        assertEquals(2, reopened.size());
+        assertNull(reopened.get("third", new BagRandomizer(0)));
+        reopened.close();
+    }
+
+    @Test
+    public void testCompactKeepsLatestSaves() throws IOException {
+        File file = tempStore();
+        SaveStore store = new SaveStore(file.getPath());
+        Tetris t = game(8, 10);
+        for (int i = 0; i < 200; i++) {
+            store.put("slot " + i % 10, game(i, i % 4).snapshot());
+        }
+        store.put("slot 3", t.snapshot());
+        long before = store.getFileSize();
+        store.compact();
+
+        assertTrue(store.getFileSize() < before / 10);
+        assertEquals(10, store.size());
+        assertEquals(t.getHash(), new Tetris(store.get("slot 3", new BagRandomizer(0))).getHash());
+        store.put("slot 4", t.snapshot());
+        store.close();
+
+        SaveStore reopened = new SaveStore(file.getPath());
+        assertEquals(10, reopened.size());
+        assertEquals(t.getHash(), new Tetris(reopened.get("slot 4", new BagRandomizer(0))).getHash());
+        reopened.close();
+    }
+
+    @Test
+    public void testCompactsInBackgroundWhileSaving() throws IOException {
+        File file = tempStore();
+        SaveStore store = new SaveStore(file.getPath());
+        GameState[] states = new GameState[5];
+        for (int i = 0; i < states.length; i++) {
+            states[i] = game(i, 2 * i).snapshot();
+        }
+        for (int i = 0; i < 40000; i++) {
+            store.put("slot " + i % 5, states[(i + i / 5) % 5]);
+        }
+        store.close();
+        assertTrue(file.length() < 40000L * 40 / 2);
+
+        SaveStore reopened = new SaveStore(file.getPath());
+        assertEquals(5, reopened.size());
+        for (int i = 0; i < 5; i++) {
+            int last = 40000 - 5 + i;
+            GameState expected = states[(last + last / 5) % 5];
+            assertEquals(new Tetris(expected).getHash(),
+                    new Tetris(reopened.get("slot " + i, new BagRandomizer(0))).getHash());
+        }
+        reopened.close();
+    }
+
+    @Test
+    public void testRejectsOtherFiles() throws IOException {
+        File file = File.createTempFile("saves", ".log");
+        file.deleteOnExit();
+        new Tetris().save(file.getPath());
+        assertThrows(IOException.class, () -> new SaveStore(file.getPath()));
+    }
+
+}
@@ -1,171 +1,172 @@
-
-
-import java.awt.*;
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.util.*;
-
-import javax.swing.JFrame;
-import javax.swing.JOptionPane;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Tetris {
 
-    private Block[][] board; // board where the tetris pieces lie
+    private BitBoard board; // board where the tetris pieces lie
     private int linesCleared;
     private int score;
     private Tetromino saved;
     private Tetromino falling;
     private LinkedList<Tetromino> queue; // queue of incoming tetrominoes
-    private LinkedList<Integer> rowsToClear; // collection of rows to clear
     private boolean canSaveBlock; // whether or not you are allowed to save a block
     private boolean gameOver;
+    private RotationSystem rotationSystem = RotationSystem.SRS;
+    private Randomizer randomizer; // generates the pieces added to the queue
+    private ReachabilitySearch search; // created when first needed
+
+    // file used by the save and load buttons
+    public static final String SAVE_FILE = "files/saved_tetris_game.dat";
+    // text save file of earlier versions, loaded when there is no binary one
+    public static final String LEGACY_SAVE_FILE = "files/saved_tetris_game.txt";
 
     /**
-     * Constructor that calls the reset method to start the game
+     * Constructor that calls the reset method to start the game with uniformly
+     * random pieces
      */
     public Tetris() {
-        reset();
+        this(ThreadLocalRandom.current().nextLong());
     }
 
     /**
-     * Constructor that resets the game and loads in data from a saved file
+     * Constructor that starts a game whose uniformly random pieces are determined
+     * by a seed
      * 
-     * @param filename File where the saved data is stored
+     * @param seed Seed of the piece sequence
      */
-    public Tetris(String filename) {
-        reset();
-        load(filename);
+    public Tetris(long seed) {
+        this(new UniformRandomizer(seed));
     }
 
     /**
-     * Method that saves the state of the current tetris game to a text file
+     * Constructor that starts a game with pieces from a randomizer
+     * 
+     * @param randomizer Generates the pieces of the game
      */
-    public void save() {
-        try {
-            FileWriter writer = new FileWriter("files/saved_tetris_game.txt");
-            BufferedWriter bw = new BufferedWriter(writer);
-
-            // save all the current placed blocks on the 20x10 grid (lines 1-200)
-            for (int i = 0; i < 20; i++) {
-                for (int j = 0; j < 10; j++) {
-                    if (board[i][j] != null) {
-                        bw.write(board[i][j].getColorString() + "\n");
-                    } else {
-                        bw.write("\n");
-                    }
-
-                }
-            }
-
-            // save the block character, the position, and the state of the falling
-            // block(line 201)
-            bw.write(
-                    falling.getBlockChar() + " " + falling.getXPivot() + " " + falling.getYPivot()
-                            + " " + falling.getState() + "\n"
-            );
+    public Tetris(Randomizer randomizer) {
+        this.randomizer = randomizer;
+        reset();
+    }
 
-            // save the block character of the saved Tetromino if not null, else empty (line
-            // 202)
-            if (saved != null) {
-                bw.write(saved.getBlockChar() + "\n");
-            } else {
-                bw.write("\n");
-            }
+    /**
+     * Constructor that starts a game from a snapshot
+     * 
+     * @param state The snapshot to continue from
+     */
+    public Tetris(GameState state) {
+        restore(state);
+    }
 
-            // save all the block's chars in the queue (lines 203-206)
-            for (Tetromino t : queue) {
-                bw.write(t.getBlockChar() + "\n");
-            }
+    /**
+     * Constructor that loads in data from a saved file
+     * 
+     * @param filename File where the saved data is stored
+     * @throws IOException If the file cannot be read or is not a valid save file
+     */
+    public Tetris(String filename) throws IOException {
+        this.randomizer = new UniformRandomizer(ThreadLocalRandom.current().nextLong());
+        load(filename);
+    }
 
-            // save the number of lines cleared (lines 207)
-            bw.write(linesCleared + "\n");
+    /**
+     * Method that saves the state of the current tetris game to the default save
+     * file
+     * 
+     * @throws IOException If the file cannot be written
+     */
+    public void save() throws IOException {
+        save(SAVE_FILE);
+    }
 
-            // save the current score (lines 208)
-            bw.write(score + "\n");
+    /**
+     * Method that saves the state of the current tetris game to a binary file in
+     * the SaveFormat encoding, tens of bytes per game. The old save is replaced
+     * atomically, see SaveFormat.write
+     * 
+     * @param filename The file to write the tetris game data to
+     * @throws IOException If the file cannot be written
+     */
+    public void save(String filename) throws IOException {
+        SaveFormat.write(snapshot(), filename, false);
+    }
 
-            // save whether or not a block can be saved (line 209)
-            if (canSaveBlock) {
-                bw.write("true" + "\n");
-            } else {
-                bw.write("false" + "\n");
-            }
+    /**
+     * method that loads a saved tetris game from a binary save file, or from a
+     * text save file written by earlier versions, the game is reset if loading
+     * fails. The pieces after the saved queue come from the game's randomizer
+     * 
+     * @param filename The file where tetris game data is stored
+     * @throws IOException If the file cannot be read or is not a valid save file
+     */
+    public void load(String filename) throws IOException {
+        byte[] data;
+        FileInputStream in = new FileInputStream(filename);
+        try {
+            data = in.readAllBytes();
+        } finally {
+            in.close();
+        }
 
-            // save whether or not the game is over (line 210)
-            if (gameOver) {
-                bw.write("true");
-            } else {
-                bw.write("false");
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (SaveFormat.isBinary(buffer)) {
+            try {
+                restore(SaveFormat.decode(buffer, randomizer));
+            } catch (IOException e) {
+                reset();
+                throw e;
             }
-
-            bw.flush();
-            bw.close();
-        } catch (IOException e) {
-            JFrame f = new JFrame();
-            JOptionPane.showMessageDialog(f, "Save Failed");
+        } else {
+            loadText(new BufferedReader(new InputStreamReader(new ByteArrayInputStream(data))));
         }
     }
 
     /**
-     * method that loads a saved tetris game from a text file
+     * Helper method that loads a game from the 210 line text format, one line per
+     * cell followed by the pieces, counters and flags
      * 
-     * @param filename The text file where tetris game data is stored
+     * @param br The reader of the text save file
+     * @throws IOException If the file is not a valid save file
      */
-    public void load(String filename) {
+    private void loadText(BufferedReader br) throws IOException {
+        reset();
         try {
-
-            FileReader reader = new FileReader(filename);
-            BufferedReader br = new BufferedReader(reader);
-
             // load all the placed blocks on the 20x10 grid (lines 1-200)
             for (int i = 0; i < 20; i++) {
                 for (int j = 0; j < 10; j++) {
-                    String color = br.readLine();
-                    if (color == null) {
-                        // reset the game if the save file ends too early
-                        reset();
-                        JOptionPane.showMessageDialog(null, "Invalid Save File");
-                        return;
-                    } else if (!color.equals("")) {
-                        Block b = new Block(i, j, color);
-                        board[i][j] = b;
+                    String color = readSaveLine(br);
+                    if (!color.equals("")) {
+                        board.fill(i, j, Block.colorCode(color));
                     }
                 }
             }
 
             // load the falling block (line 201)
-            String fallingData = br.readLine();
-            if (fallingData.equals(null) || fallingData.equals("")) {
-                // reset the game if save file ends too early, or previous falling block not
-                // saved
-                reset();
-                JOptionPane.showMessageDialog(null, "Invalid Save File");
-                return;
-            } else {
-                // scan the fallingData line to get information for the falling block
-                Scanner scan = new Scanner(fallingData);
-                char blockChar = scan.next().charAt(0);
-                double xPivot = scan.nextDouble();
-                double yPivot = scan.nextDouble();
-                int state = scan.nextInt();
-
-                // recreate the falling block
-                falling = new Tetromino(blockChar);
-                falling.setPivot(xPivot, yPivot);
-                falling.setState(state);
-                scan.close();
+            String fallingData = readSaveLine(br);
+            if (fallingData.equals("")) {
+                // previous falling block not saved
+                throw new IOException("Invalid Save File");
             }
 
+            // scan the fallingData line to get information for the falling block
+            Scanner scan = new Scanner(fallingData);
+            char blockChar = scan.next().charAt(0);
+            double xPivot = scan.nextDouble();
+            double yPivot = scan.nextDouble();
+            int state = scan.nextInt();
+            scan.close();
+
+            // recreate the falling block
+            falling = new Tetromino(blockChar);
+            falling.setPivot(xPivot, yPivot);
+            falling.setState(state);
+
             // load the block character of the saved Tetromino if line is not empty (line
             // 202)
-            String savedBlock = br.readLine();
-            if (savedBlock == null) {
-                // reset the game if the save file ends too early
-                reset();
-                JOptionPane.showMessageDialog(null, "Invalid Save File");
-                return;
-            } else if (!savedBlock.equals("")) {
-                // loads in the saved block
-                char blockSaved = savedBlock.charAt(0);
-                saved = new Tetromino(blockSaved);
+            String savedBlock = readSaveLine(br);
+            if (!savedBlock.equals("")) {
+                saved = new Tetromino(savedBlock.charAt(0));
             }
 
             // clear all the tetrominoes in the queue
@@ -173,72 +174,43 @@ public class Tetris {
 
             // load all the blocks in queue (lines 203-206)
             for (int i = 0; i < 4; i++) {
-                String queueBlock = br.readLine();
-                if (queueBlock == null) {
-                    // reset the game if the save file ends too early
-                    reset();
-                    JOptionPane.showMessageDialog(null, "Invalid Save File");
-                    return;
-                } else if (!queueBlock.equals("")) {
-                    // loads in the blocks in queue
-                    char blockQueue = queueBlock.charAt(0);
-                    queue.add(new Tetromino(blockQueue));
+                String queueBlock = readSaveLine(br);
+                if (!queueBlock.equals("")) {
+                    queue.add(new Tetromino(queueBlock.charAt(0)));
                 }
             }
 
-            // load the lines cleared in the saved game (line 207)
-            String linesClearedStr = br.readLine();
-            if (linesClearedStr == null) {
-                // reset the game if the save file ends too early
-                reset();
-                JOptionPane.showMessageDialog(null, "Invalid Save File");
-                return;
-            } else {
-                linesCleared = Integer.parseInt(linesClearedStr);
-            }
-
-            // load the score in the saved game (line 208)
-            String scoreStr = br.readLine();
-            if (scoreStr == null) {
-                // reset the game if the save file ends too early
-                reset();
-                JOptionPane.showMessageDialog(null, "Invalid Save File");
-                return;
-            } else {
-                score = Integer.parseInt(scoreStr);
-            }
-
-            // load whether or not a block can be saved in the current round (line 209)
-            String canSave = br.readLine();
-            if (canSave == null) {
-                // reset the game if the save file ends too early
-                reset();
-                JOptionPane.showMessageDialog(null, "Invalid Save File");
-                return;
-            } else {
-                canSaveBlock = Boolean.parseBoolean(canSave);
-            }
-
-            // load whether or not the game is over (line 210)
-            String gameOverStr = br.readLine();
-            if (gameOverStr == null) {
-                // reset the game if the save file ends too early
-                reset();
-                JOptionPane.showMessageDialog(null, "Invalid Save File");
-                return;
-            } else {
-                gameOver = Boolean.parseBoolean(gameOverStr);
-            }
-
-            br.close();
-
-        } catch (FileNotFoundException e) {
+            // load the lines cleared, score, whether or not a block can be saved in the
+            // current round and whether or not the game is over (lines 207-210)
+            linesCleared = Integer.parseInt(readSaveLine(br));
+            score = Integer.parseInt(readSaveLine(br));
+            canSaveBlock = Boolean.parseBoolean(readSaveLine(br));
+            gameOver = Boolean.parseBoolean(readSaveLine(br));
+        } catch (RuntimeException e) {
+            // malformed numbers, pieces or pivots
             reset();
-            JOptionPane.showMessageDialog(null, "Save File Could Not Be Found");
+            throw new IOException("Invalid Save File", e);
         } catch (IOException e) {
             reset();
-            JOptionPane.showMessageDialog(null, "Loading failed");
+            throw e;
+        } finally {
+            br.close();
+        }
+    }
+
+    /**
+     * Helper method that reads the next line of a save file
+     * 
+     * @param br The reader of the save file
+     * @return String The next line
+     * @throws IOException If the save file ends too early
+     */
+    private static String readSaveLine(BufferedReader br) throws IOException {
+        String line = br.readLine();
+        if (line == null) {
+            throw new IOException("Invalid Save File");
         }
+        return line;
     }
 
     /**
@@ -247,7 +219,6 @@ public class Tetris {
     public void reset() {
         gameOver = false;
         canSaveBlock = true;
-        rowsToClear = new LinkedList<Integer>();
         queue = new LinkedList<Tetromino>();
         saved = null;
         falling = generateTetromino();
@@ -255,26 +226,88 @@ public class Tetris {
             queue.add(generateTetromino());
         }
 
-        board = new Block[20][10];
+        board = new BitBoard();
         linesCleared = 0;
         score = 0;
     }
 
+    /**
+     * Method that takes an immutable snapshot of the whole game, including the
+     * state of the randomizer so restoring it replays the same pieces
+     * 
+     * @return GameState The snapshot
+     */
+    public GameState snapshot() {
+        return new GameState(board.copy(), falling, saved, queue, score, linesCleared,
+                canSaveBlock, gameOver, randomizer.copy());
+    }
+
+    /**
+     * Method that puts the game back in the state of a snapshot. The snapshot is
+     * not affected by the game continuing and can be restored again
+     * 
+     * @param state The snapshot to restore
+     */
+    public void restore(GameState state) {
+        board = state.board().copy();
+        falling = state.getFallingTetromino();
+        int held = state.getHeldPiece();
+        saved = held < 0 ? null : new Tetromino(Tetromino.PIECES.charAt(held));
+        queue = new LinkedList<Tetromino>();
+        for (long packed = state.packedQueue(); packed != 0; packed >>>= 4) {
+            queue.add(new Tetromino(Tetromino.PIECES.charAt((int) (packed & 15) - 1)));
+        }
+        score = state.getScore();
+        linesCleared = state.getLinesCleared();
+        canSaveBlock = state.canHold();
+        gameOver = state.isGameOver();
+        randomizer = state.randomizer().copy();
+    }
+
+    /**
+     * Method that returns the Zobrist hash of the position: the filled cells, the
+     * falling piece and its orientation, the held piece, whether holding is
+     * allowed and the whole queue
+     * 
+     * @return long The hash of the position
+     */
+    public long getHash() {
+        return getHash(Zobrist.MAX_QUEUE);
+    }
+
+    /**
+     * Method that returns the Zobrist hash of the position with only the first
+     * pieces of the queue, the board part of the hash is kept up to date as pieces
+     * lock and rows clear
+     * 
+     * @param previewDepth The number of queued pieces included in the hash
+     * @return long The hash of the position
+     */
+    public long getHash(int previewDepth) {
+        long hash = board.getHash() ^ Zobrist.falling(falling.getPieceId(), falling.getState())
+                ^ Zobrist.held(saved == null ? -1 : saved.getPieceId(), canSaveBlock);
+        int depth = Math.min(Math.min(previewDepth, queue.size()), Zobrist.MAX_QUEUE);
+        Iterator<Tetromino> it = queue.iterator();
+        for (int i = 0; i < depth; i++) {
+            hash ^= Zobrist.queued(i, it.next().getPieceId());
+        }
+        return hash;
+    }
+
     /**
      * Method that clears any rows that are completely filled
      */
     public void clear() {
 
-        // check if there are lines to clear
-        checkLinesToClear();
+        // remove the full rows, shifting everything above them down
+        int numLinesToClear = board.clearFullRows();
 
         // if there are not rows to clear, return
-        if (rowsToClear.isEmpty()) {
+        if (numLinesToClear == 0) {
             return;
         }
 
         // add score based on the number of lines cleared simultaneously
-        int numLinesToClear = rowsToClear.size();
         if (numLinesToClear == 1) {
             score += 40;
         } else if (numLinesToClear == 2) {
@@ -286,56 +319,6 @@ public class Tetris {
         }
 
         linesCleared += numLinesToClear;
-
-        // shift everything above the cleared row down by one
-        while (!rowsToClear.isEmpty()) {
-            int row = rowsToClear.remove();
-            for (int j = 0; j < 10; j++) {
-                board[row][j] = null;
-            }
-            shiftDownOne(row);
-        }
-    }
-
-    /**
-     * Helper method that checks if there are any lines to clear on the board, and
-     * then store
-     * those rows in the rowsToClear list (ordering matters since topmost full row
-     * is removed first)
-     */
-    private void checkLinesToClear() {
-        for (int i = 0; i < 20; i++) {
-            boolean fullRow = true;
-            // check if any of the cells in the row are empty
-            for (int j = 0; j < 10; j++) {
-                if (board[i][j] == null) {
-                    fullRow = false;
-                    break;
-                }
-            }
-
-            // add this row to the list of rows to clear
-            if (fullRow) {
-                rowsToClear.add(i);
-            }
-        }
-    }
-
-    /**
-     * Helper method that shifts everything above a specified row down by one
-     * 
-     * @param row The row that is removed
-     */
-    private void shiftDownOne(int row) {
-        for (int i = row; i > 0; i--) {
-            for (int j = 0; j < 10; j++) {
-                if (board[i - 1][j] != null) {
-                    board[i][j] = board[i - 1][j];
-                    board[i][j].setRow(i);
-                    board[i - 1][j] = null;
-                }
-            }
-        }
     }
 
     /**
@@ -366,14 +349,34 @@ public class Tetris {
             return;
         }
 
-        while (canFall(falling)) {
-            falling.fall();
-        }
+        falling.moveTo(falling.getX(), falling.getY() + getDropDistance(), falling.getState());
         fillBoard(falling);
         clear();
         sendNextBlock();
     }
 
+    /**
+     * Getter method for the number of rows the falling tetromino can still fall
+     * 
+     * @return int The distance a hard drop would move the falling tetromino
+     */
+    public int getDropDistance() {
+        return board.dropDistance(falling.getPieceId(), falling.getState(), falling.getX(),
+                falling.getY());
+    }
+
+    /**
+     * Getter method for the ghost of the falling tetromino, where it would land
+     * after a hard drop
+     * 
+     * @return Tetromino Copy of the falling tetromino at its landing position
+     */
+    public Tetromino getGhostTetromino() {
+        Tetromino ghost = falling.clone();
+        ghost.moveTo(ghost.getX(), ghost.getY() + getDropDistance(), ghost.getState());
+        return ghost;
+    }
+
     /**
      * Helper method that checks whether or not a Tetromino can continue to fall
      * in the grid
@@ -382,69 +385,48 @@ public class Tetris {
      * @return boolean Whether or not the Tetromino can fall again
      */
     private boolean canFall(Tetromino t) {
-        for (int i = 0; i < 4; i++) {
-            Block curr = t.getBlock(i);
-            int row = curr.getRow();
-            int col = curr.getCol();
-            if (row + 1 < 0) {
-                continue;
-            }
-            if (row + 1 >= 20 || board[row + 1][col] != null) {
-                return false;
-            }
-        }
-        return true;
+        return board.fits(t.getPieceId(), t.getState(), t.getX(), t.getY() + 1);
     }
 
     /**
      * Method that moves the falling tetromino to the left
+     * 
+     * @return boolean Whether or not the tetromino moved
      */
-    public void moveLeft() {
+    public boolean moveLeft() {
         // do nothing if the game is over
         if (gameOver) {
-            return;
+            return false;
         }
 
-        // check if tetromino can move left
-        for (int i = 0; i < 4; i++) {
-            Block curr = falling.getBlock(i);
-            int row = curr.getRow();
-            int col = curr.getCol();
-            if (row < 0) {
-                continue;
-            }
-            // do nothing if moving left goes out of bounds or intersects another block
-            if (col - 1 < 0 || board[row][col - 1] != null) {
-                return;
-            }
+        // do nothing if moving left goes out of bounds or intersects another block
+        if (!board.fits(falling.getPieceId(), falling.getState(), falling.getX() - 1,
+                falling.getY())) {
+            return false;
         }
         falling.moveLeft();
+        return true;
     }
 
     /**
      * Method that moves the falling tetromino to the right
+     * 
+     * @return boolean Whether or not the tetromino moved
      */
-    public void moveRight() {
+    public boolean moveRight() {
 
         // do nothing if the game is over
         if (gameOver) {
-            return;
+            return false;
         }
 
-        // check if tetromino can move right
-        for (int i = 0; i < 4; i++) {
-            Block curr = falling.getBlock(i);
-            int row = curr.getRow();
-            int col = curr.getCol();
-            // do nothing if moving right goes out of bounds or intersects another block
-            if (row < 0) {
-                continue;
-            }
-            if (col + 1 >= 10 || board[row][col + 1] != null) {
-                return;
-            }
+        // do nothing if moving right goes out of bounds or intersects another block
+        if (!board.fits(falling.getPieceId(), falling.getState(), falling.getX() + 1,
+                falling.getY())) {
+            return false;
         }
         falling.moveRight();
+        return true;
     }
 
     /**
@@ -465,7 +447,7 @@ public class Tetris {
                 gameOver = true;
                 return;
             }
-            board[row][col] = curr;
+            board.fill(row, col, t.getColorCode());
         }
     }
 
@@ -503,17 +485,8 @@ public class Tetris {
      * @return Boolean that represents whether or not spawn is blocked
      */
     private boolean spawnIntersectsGridBlocks() {
-        for (int i = 0; i < 4; i++) {
-            int row = falling.getBlock(i).getRow();
-            int col = falling.getBlock(i).getCol();
-            if (row < 0) {
-                continue;
-            }
-            if (board[row][col] != null) {
-                return true;
-            }
-        }
-        return false;
+        return !board.fits(falling.getPieceId(), falling.getState(), falling.getX(),
+                falling.getY());
     }
 
     /**
@@ -603,15 +576,56 @@ public class Tetris {
      * @return Copy of the Tetris board
      */
     public Block[][] getBoard() {
-        Block[][] tetBoard = new Block[20][10];
-        for (int i = 0; i < 20; i++) {
-            for (int j = 0; j < 10; j++) {
-                tetBoard[i][j] = board[i][j];
+        Block[][] tetBoard = new Block[BitBoard.ROWS][BitBoard.COLS];
+        for (int i = 0; i < BitBoard.ROWS; i++) {
+            for (int j = 0; j < BitBoard.COLS; j++) {
+                if (board.isOccupied(i, j)) {
+                    tetBoard[i][j] = new Block(i, j, Block.COLOR_NAMES[board.getColor(i, j)]);
+                }
             }
         }
         return tetBoard;
     }
 
+    /**
+     * Method that lists every distinct final resting placement the falling
+     * tetromino can reach from where it is by rotating, shifting and hard
+     * dropping
+     * 
+     * @return List of placements, each with the board that results from it and
+     *         the inputs that reach it
+     */
+    public List<Placement> getPlacements() {
+        return PlacementFinder.findHardDrops(board, falling.getPieceId(), falling.getState(),
+                falling.getX(), falling.getY(), rotationSystem);
+    }
+
+    /**
+     * Method that lists every distinct placement the falling tetromino can lock
+     * in through any sequence of moves, soft drops and rotations, including tucks
+     * and spins
+     * 
+     * @return List of placements, each with the inputs that reach it
+     */
+    public List<Placement> getReachablePlacements() {
+        if (search == null) {
+            search = new ReachabilitySearch(rotationSystem);
+        }
+        return search.search(board, falling.getPieceId(), falling.getState(), falling.getX(),
+                falling.getY());
+    }
+
+    /**
+     * Getter method for the color of a cell of the board, used for drawing
+     * 
+     * @param row The row of the cell
+     * @param col The column of the cell
+     * @return int The color code of the cell, 0 if the cell is empty
+     */
+    public int getCellColor(int row, int col) {
+        return board.getColor(row, col);
+    }
+
     /**
      * Method used for testing: fills a block on the grid
      * 
@@ -619,433 +633,92 @@ public class Tetris {
      * @param col The column of the block to be fileld
      */
     public void fill(int row, int col) {
-        board[row][col] = new Block(row, col, "red");
+        board.fill(row, col, Block.colorCode("red"));
     }
 
     /**
-     * Helper method that generates a random Tetromino block based on assumption
-     * of uniform distribution, and no reduction of spawn chance from previous
-     * generated tetromino
+     * Helper method that generates the next Tetromino block of the randomizer
      * 
      * @return Tetromino that is randomly generated
      */
     private Tetromino generateTetromino() {
-        double numberGen = Math.random();
-        if (numberGen < 1.0 / 7) {
-            return new Tetromino('I');
-        } else if (numberGen < 2.0 / 7) {
-            return new Tetromino('O');
-        } else if (numberGen < 3.0 / 7) {
-            return new Tetromino('J');
-        } else if (numberGen < 4.0 / 7) {
-            return new Tetromino('T');
-        } else if (numberGen < 5.0 / 7) {
-            return new Tetromino('L');
-        } else if (numberGen < 6.0 / 7) {
-            return new Tetromino('S');
-        } else {
-            return new Tetromino('Z');
-        }
+        return new Tetromino(Tetromino.PIECES.charAt(randomizer.next()));
     }
 
     /**
-     * Draw all the blocks within the board
+     * Getter method for the rotation system used to kick rotated tetrominoes
      * 
-     * @param g The Graphics context we are drawing in
+     * @return RotationSystem The kick tables in use
      */
-    public void draw(Graphics g) {
-        // draw all the blocks in the grid
-        for (int i = 0; i < 20; i++) {
-            for (int j = 0; j < 10; j++) {
-                if (board[i][j] != null) {
-                    board[i][j].draw(g);
-                }
-            }
-        }
-
-        // draw the saved tetromino
-        if (saved != null) {
-            Tetromino savedDisplay = saved.clone();
-            savedDisplay.setPivot(-4, 4);
-            savedDisplay.draw(g);
-        }
-
-        // draw the tetrominoes in the queue
-        int order = 1;
-        for (Tetromino t : queue) {
-            Tetromino display = t.clone();
-            display.setPivot(13.5, 4 * order);
-            display.draw(g);
-            order++;
-        }
-
-        // draw text for score and lines cleared
-        Graphics2D g2 = (Graphics2D) g;
-        Font font = new Font("serif", Font.BOLD, 25);
-        g2.setFont(font);
-        g2.drawString("Lines Cleared: " + linesCleared, 10, 650);
-        g2.drawString("Score: " + score, 10, 750);
-
-        // draw the falling block
-        falling.draw(g);
+    public RotationSystem getRotationSystem() {
+        return rotationSystem;
     }
 
     /**
-     * method that tries to rotate the tetromino clockwise by testing if the
-     * rotated
-     * tetromino is in bounds and not intersecting any other placed blocks. If it is
-     * not possible,
-     * we will sequentially run series of tests based on the state the tetromino is
-     * in (number of
-     * clockwise rotation deviations from spawn)
+     * Setter method for the rotation system used to kick rotated tetrominoes
+     * 
+     * @param rotationSystem The kick tables to use
      */
-    public void rotateCW() {
-        double xPivot = falling.getXPivot();
-        double yPivot = falling.getYPivot();
-        int state = falling.getState();
-        if (canRotateCW(0, 0)) {
-            falling.rotateCW();
-        } else if (falling.getBlockChar() == 'I') {
-            // if the falling block is I block, attempt to rotate it
-            rotateCWIBlock();
-        } else if (state == 0) {
-            // Perform the following tests for blocks J, L, S, T, Z, and O (O does not
-            // matter) run all the tests for state 0
-            if (canRotateCW(-1, 0)) {
-                falling.setPivot(xPivot - 1, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(-1, -1)) {
-                falling.setPivot(xPivot - 1, yPivot - 1);
-                falling.rotateCW();
-            } else if (canRotateCW(0, 2)) {
-                falling.setPivot(xPivot, yPivot + 2);
-                falling.rotateCW();
-            } else if (canRotateCW(-1, 2)) {
-                falling.setPivot(xPivot - 1, yPivot + 2);
-                falling.rotateCW();
-            }
-        } else if (state == 1) {
-            // run all the tests for state 1
-            if (canRotateCW(1, 0)) {
-                falling.setPivot(xPivot + 1, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(1, 1)) {
-                falling.setPivot(xPivot + 1, yPivot + 1);
-                falling.rotateCW();
-            } else if (canRotateCW(0, -2)) {
-                falling.setPivot(xPivot, yPivot - 2);
-                falling.rotateCW();
-            } else if (canRotateCW(1, -2)) {
-                falling.setPivot(xPivot + 1, yPivot - 2);
-                falling.rotateCW();
-            }
-        } else if (state == 2) {
-            // run all the tests for state 2
-            if (canRotateCW(1, 0)) {
-                falling.setPivot(xPivot + 1, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(1, -1)) {
-                falling.setPivot(xPivot + 1, yPivot - 1);
-                falling.rotateCW();
-            } else if (canRotateCW(0, 2)) {
-                falling.setPivot(xPivot, yPivot + 2);
-                falling.rotateCW();
-            } else if (canRotateCW(1, 2)) {
-                falling.setPivot(xPivot + 1, yPivot + 2);
-                falling.rotateCW();
-            }
-        } else if (state == 3) {
-            // run all the tests for state 3
-            if (canRotateCW(-1, 0)) {
-                falling.setPivot(xPivot - 1, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(-1, 1)) {
-                falling.setPivot(xPivot - 1, yPivot + 1);
-                falling.rotateCW();
-            } else if (canRotateCW(0, -2)) {
-                falling.setPivot(xPivot, yPivot - 2);
-                falling.rotateCW();
-            } else if (canRotateCW(-1, -2)) {
-                falling.setPivot(xPivot - 1, yPivot - 2);
-                falling.rotateCW();
-            }
-        }
-
-    }
-
-    private void rotateCWIBlock() {
-        double xPivot = falling.getXPivot();
-        double yPivot = falling.getYPivot();
-        int state = falling.getState();
-
-        // run all the tests for state 0
-        if (state == 0) {
-            if (canRotateCW(-2, 0)) {
-                falling.setPivot(xPivot - 2, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(1, 0)) {
-                falling.setPivot(xPivot + 1, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(-2, 1)) {
-                falling.setPivot(xPivot - 2, yPivot + 1);
-                falling.rotateCW();
-            } else if (canRotateCW(1, -2)) {
-                falling.setPivot(xPivot + 1, yPivot - 2);
-                falling.rotateCW();
-            }
-        } else if (state == 1) {
-            // run all the tests for state 1
-            if (canRotateCW(-1, 0)) {
-                falling.setPivot(xPivot - 1, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(2, 0)) {
-                falling.setPivot(xPivot + 2, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(-1, -2)) {
-                falling.setPivot(xPivot - 1, yPivot - 2);
-                falling.rotateCW();
-            } else if (canRotateCW(2, 1)) {
-                falling.setPivot(xPivot + 2, yPivot + 1);
-                falling.rotateCW();
-            }
-        } else if (state == 2) {
-            // run all the tests for state 2
-            if (canRotateCW(2, 0)) {
-                falling.setPivot(xPivot + 2, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(-1, 0)) {
-                falling.setPivot(xPivot - 1, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(2, -1)) {
-                falling.setPivot(xPivot + 2, yPivot - 1);
-                falling.rotateCW();
-            } else if (canRotateCW(-1, 2)) {
-                falling.setPivot(xPivot - 1, yPivot + 2);
-                falling.rotateCW();
-            }
-        } else if (state == 3) {
-            // run all the tests for state 3
-            if (canRotateCW(1, 0)) {
-                falling.setPivot(xPivot + 1, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(-2, 0)) {
-                falling.setPivot(xPivot - 2, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(1, 2)) {
-                falling.setPivot(xPivot + 1, yPivot + 2);
-                falling.rotateCW();
-            } else if (canRotateCW(-2, -1)) {
-                falling.setPivot(xPivot - 2, yPivot - 1);
-                falling.rotateCW();
-            }
-        }
-
+    public void setRotationSystem(RotationSystem rotationSystem) {
+        this.rotationSystem = rotationSystem;
+        search = null;
     }
 
     /**
-     * Helper method that checks if the falling tetromino can rotate clockwise
-     * when translated in
-     * x and y directions
+     * method that tries to rotate the tetromino clockwise, kicking it to the first
+     * position of the rotation system that is in bounds and not intersecting any
+     * other placed blocks
      * 
-     * @param xKick The x direction to translate the tetromino
-     * @param yKick The Y direction to translate the tetromino
-     * @return boolean Whether the tetromino can rotate clockwise
+     * @return boolean Whether or not the tetromino rotated
      */
-    private boolean canRotateCW(double xKick, double yKick) {
-        Tetromino test = falling.clone();
-        double xPivot = test.getXPivot();
-        double yPivot = test.getYPivot();
-        test.setPivot(xPivot + xKick, yPivot + yKick);
-        test.rotateCW();
-        for (int i = 0; i < 4; i++) {
-            Block curr = test.getBlock(i);
-            int row = curr.getRow();
-            int col = curr.getCol();
-            // check if rotation is in bound
-            if (col < 0 || col >= 10 || row < 0 || row >= 20) {
-                return false;
-            }
-            // check if rotation causes intersection with other placed blocks
-            if (board[row][col] != null) {
-                return false;
-            }
-        }
-        return true;
+    public boolean rotateCW() {
+        return rotate(1);
     }
 
-    public void rotateCCW() {
-        double xPivot = falling.getXPivot();
-        double yPivot = falling.getYPivot();
-        int state = falling.getState();
-
-        if (canRotateCCW(0, 0)) {
-            falling.rotateCCW();
-        } else if (falling.getBlockChar() == 'I') {
-            // if the falling block is I block, attempt to rotate it
-            rotateCCWIBlock();
-        } else if (state == 0) {
-            // Perform the following tests for blocks J, L, S, T, Z, and O (O does
-            // not matter) run all the tests for state 0
-            if (canRotateCCW(1, 0)) {
-                falling.setPivot(xPivot + 1, yPivot);
-                falling.rotateCCW();
-            } else if (canRotateCCW(1, -1)) {
-                falling.setPivot(xPivot + 1, yPivot - 1);
-                falling.rotateCCW();
-            } else if (canRotateCCW(0, 2)) {
-                falling.setPivot(xPivot, yPivot + 2);
-                falling.rotateCCW();
-            } else if (canRotateCCW(1, 2)) {
-                falling.setPivot(xPivot + 1, yPivot + 2);
-                falling.rotateCCW();
-            }
-        } else if (state == 1) {
-            // run all the tests for state 1
-            if (canRotateCCW(1, 0)) {
-                falling.setPivot(xPivot + 1, yPivot);
-                falling.rotateCCW();
-            } else if (canRotateCCW(1, 1)) {
-                falling.setPivot(xPivot + 1, yPivot + 1);
-                falling.rotateCCW();
-            } else if (canRotateCCW(0, -2)) {
-                falling.setPivot(xPivot, yPivot - 2);
-                falling.rotateCCW();
-            } else if (canRotateCCW(1, -2)) {
-                falling.setPivot(xPivot + 1, yPivot - 2);
-                falling.rotateCCW();
-            }
-        } else if (state == 2) {
-            // run all the tests for state 2
-            if (canRotateCCW(-1, 0)) {
-                falling.setPivot(xPivot - 1, yPivot);
-                falling.rotateCCW();
-            } else if (canRotateCCW(-1, -1)) {
-                falling.setPivot(xPivot - 1, yPivot - 1);
-                falling.rotateCCW();
-            } else if (canRotateCCW(0, 2)) {
-                falling.setPivot(xPivot, yPivot + 2);
-                falling.rotateCCW();
-            } else if (canRotateCCW(-1, 2)) {
-                falling.setPivot(xPivot - 1, yPivot + 2);
-                falling.rotateCCW();
-            }
-        } else if (state == 3) {
-            // run all the tests for state 3
-            if (canRotateCCW(-1, 0)) {
-                falling.setPivot(xPivot - 1, yPivot);
-                falling.rotateCCW();
-            } else if (canRotateCCW(-1, 1)) {
-                falling.setPivot(xPivot - 1, yPivot + 1);
-                falling.rotateCCW();
-            } else if (canRotateCCW(0, -2)) {
-                falling.setPivot(xPivot, yPivot - 2);
-                falling.rotateCCW();
-            } else if (canRotateCCW(-1, -2)) {
-                falling.setPivot(xPivot - 1, yPivot - 2);
-                falling.rotateCCW();
-            }
-        }
+    /**
+     * method that tries to rotate the tetromino counter-clockwise, kicking it to
+     * the first position of the rotation system that is in bounds and not
+     * intersecting any other placed blocks
+     * 
+     * @return boolean Whether or not the tetromino rotated
+     */
+    public boolean rotateCCW() {
+        return rotate(3);
     }
 
-    private void rotateCCWIBlock() {
-        double xPivot = falling.getXPivot();
-        double yPivot = falling.getYPivot();
-        int state = falling.getState();
-
-        // run all the tests for state 0
-        if (state == 0) {
-            if (canRotateCCW(-1, 0)) {
-                falling.setPivot(xPivot - 1, yPivot);
-                falling.rotateCCW();
-            } else if (canRotateCCW(2, 0)) {
-                falling.setPivot(xPivot + 2, yPivot);
-                falling.rotateCCW();
-            } else if (canRotateCCW(-1, -2)) {
-                falling.setPivot(xPivot - 1, yPivot - 2);
-                falling.rotateCCW();
-            } else if (canRotateCCW(2, 1)) {
-                falling.setPivot(xPivot + 2, yPivot + 1);
-                falling.rotateCCW();
-            }
-        } else if (state == 1) {
-            // run all the tests for state 1
-            if (canRotateCW(2, 0)) {
-                falling.setPivot(xPivot + 2, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(-1, 0)) {
-                falling.setPivot(xPivot - 1, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(2, -1)) {
-                falling.setPivot(xPivot + 2, yPivot - 1);
-                falling.rotateCW();
-            } else if (canRotateCW(-1, 2)) {
-                falling.setPivot(xPivot - 1, yPivot + 2);
-                falling.rotateCW();
-            }
-        } else if (state == 2) {
-            // run all the tests for state 2
-            if (canRotateCW(1, 0)) {
-                falling.setPivot(xPivot + 1, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(-2, 0)) {
-                falling.setPivot(xPivot - 2, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(1, 2)) {
-                falling.setPivot(xPivot + 1, yPivot + 2);
-                falling.rotateCW();
-            } else if (canRotateCW(-2, -1)) {
-                falling.setPivot(xPivot - 2, yPivot - 1);
-                falling.rotateCW();
-            }
-        } else if (state == 3) {
-            // run all the tests for state 3
-            if (canRotateCW(-2, 0)) {
-                falling.setPivot(xPivot - 2, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(1, 0)) {
-                falling.setPivot(xPivot + 1, yPivot);
-                falling.rotateCW();
-            } else if (canRotateCW(-2, 1)) {
-                falling.setPivot(xPivot - 2, yPivot + 1);
-                falling.rotateCW();
-            } else if (canRotateCW(1, -2)) {
-                falling.setPivot(xPivot + 1, yPivot - 2);
-                falling.rotateCW();
-            }
-        }
+    /**
+     * method that tries to rotate the tetromino by 180 degrees, only possible when
+     * the rotation system has kicks for it
+     * 
+     * @return boolean Whether or not the tetromino rotated
+     */
+    public boolean rotate180() {
+        return rotate(2);
     }
 
     /**
-     * Helper method that checks if the falling tetromino can rotate
-     * counter-clockwise when
-     * translated in x and y directions
+     * Helper method that runs the kick tests of the rotation system for the
+     * falling tetromino and moves it to the first one that fits
      * 
-     * @param xKick The x direction to translate the tetromino
-     * @param yKick The Y direction to translate the tetromino
-     * @return boolean Whether the tetromino can rotate counter-clockwise
+     * @param turns Number of clockwise quarter turns (1, 2 or 3)
+     * @return boolean Whether or not the tetromino rotated
      */
-    private boolean canRotateCCW(double xKick, double yKick) {
-        Tetromino test = falling.clone();
-        double xPivot = test.getXPivot();
-        double yPivot = test.getYPivot();
-        test.setPivot(xPivot + xKick, yPivot + yKick);
-        test.rotateCCW();
-        for (int i = 0; i < 4; i++) {
-            Block curr = test.getBlock(i);
-            int row = curr.getRow();
-            int col = curr.getCol();
-            System.out.println("Column: " + col);
-            System.out.println("Row: " + row);
-            // check if rotation is in bound
-            if (col < 0 || col >= 10 || row < 0 || row >= 20) {
-                return false;
-            }
-
-            // check if rotation causes intersection with other placed blocks
-            if (board[row][col] != null) {
-                return false;
-            }
+    private boolean rotate(int turns) {
+        // do nothing if the game is over
+        if (gameOver) {
+            return false;
         }
+
+        int piece = falling.getPieceId();
+        int state = falling.getState();
+        int x = falling.getX();
+        int y = falling.getY();
+        int test = rotationSystem.kick(board, piece, state, turns, x, y);
+        if (test < 0) {
+            return false;
+        }
+        int[] kicks = rotationSystem.getKicks(piece, state, turns);
+        falling.moveTo(x + kicks[test], y + kicks[test + 1], state + turns);
         return true;
     }
 }
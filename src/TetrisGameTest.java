@@ -1,8 +1,9 @@
-
-
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.*;
+import java.nio.ByteBuffer;
+
 /**
  * You can use this file (and others) to test your
  * implementation.
@@ -351,4 +352,208 @@ public class TetrisGameTest {
         assertTrue(t.gameIsOver());
     }
 
+    @Test
+    public void testSaveAndLoad() throws IOException {
+        Tetris t = new Tetris();
+        t.fill(19, 0);
+        t.fill(18, 9);
+        t.moveLeft();
+        File file = File.createTempFile("tetris", ".txt");
+        file.deleteOnExit();
+        t.save(file.getPath());
+
+        Tetris loaded = new Tetris(file.getPath());
+        assertEquals(t.getFallingTetromino(), loaded.getFallingTetromino());
+        assertEquals(t.getQueue().size(), loaded.getQueue().size());
+        for (int i = 0; i < 4; i++) {
+            assertEquals(t.getQueue().get(i), loaded.getQueue().get(i));
+        }
+        Block[][] board = loaded.getBoard();
+        assertEquals("red", board[19][0].getColorString());
+        assertEquals("red", board[18][9].getColorString());
+        assertNull(board[19][1]);
+    }
+
+    @Test
+    public void testBinarySaveRoundTrip() throws IOException {
+        Tetris t = new Tetris(new BagRandomizer(2));
+        for (int i = 0; i < 12; i++) {
+            t.getPlacements().get(i % 5).play(t);
+        }
+        t.saveBlock();
+        File file = File.createTempFile("tetris", ".dat");
+        file.deleteOnExit();
+        t.save(file.getPath());
+        assertTrue(file.length() < 100);
+
+        Tetris loaded = new Tetris(file.getPath());
+        assertEquals(t.getHash(), loaded.getHash());
+        assertEquals(t.getScore(), loaded.getScore());
+        assertEquals(t.getLinesCleared(), loaded.getLinesCleared());
+        assertEquals(t.getSavedTetromino(), loaded.getSavedTetromino());
+        assertEquals(t.getFallingTetromino(), loaded.getFallingTetromino());
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 10; j++) {
+                assertEquals(t.getCellColor(i, j), loaded.getCellColor(i, j));
+            }
+        }
+    }
+
+    @Test
+    public void testLoadLegacyTextSave() throws IOException {
+        File file = File.createTempFile("tetris", ".txt");
+        file.deleteOnExit();
+        Tetromino falling = new Tetromino('T');
+        FileWriter writer = new FileWriter(file);
+        for (int i = 0; i < 200; i++) {
+            writer.write(i == 199 ? "blue\n" : "\n");
+        }
+        writer.write("T " + falling.getXPivot() + " " + falling.getYPivot() + " 0\n");
+        writer.write("O\nI\nJ\nL\nS\n");
+        writer.write("3\n120\nfalse\nfalse");
+        writer.close();
+
+        Tetris t = new Tetris(file.getPath());
+        assertEquals(falling, t.getFallingTetromino());
+        assertEquals('O', t.getSavedTetromino().getBlockChar());
+        assertEquals(4, t.getQueue().size());
+        assertEquals(3, t.getLinesCleared());
+        assertEquals(120, t.getScore());
+        assertEquals("blue", t.getBoard()[19][9].getColorString());
+    }
+
+    @Test
+    public void testLoadUnsupportedVersion() throws IOException {
+        File file = File.createTempFile("tetris", ".dat");
+        file.deleteOnExit();
+        DataOutputStream out = new DataOutputStream(new FileOutputStream(file));
+        out.writeInt(SaveFormat.MAGIC);
+        out.writeByte(SaveFormat.VERSION + 1);
+        out.close();
+
+        Tetris t = new Tetris();
+        t.fill(19, 0);
+        IOException e = assertThrows(IOException.class, () -> t.load(file.getPath()));
+        assertTrue(e.getMessage().contains("Version"));
+        assertNull(t.getBoard()[19][0]);
+    }
+
+    @Test
+    public void testDecodeRejectsMisplacedFallingPiece() throws IOException {
+        BitBoard board = new BitBoard();
+        for (int j = 0; j < 10; j++) {
+            board.fill(18, j, 1);
+            board.fill(19, j, 1);
+        }
+        int piece = Tetromino.PIECES.indexOf('T');
+        GameState[] corrupt = {
+            new GameState(board, piece, 5, 3, 0, -1, 0, 0, 0, true, false, null),
+            new GameState(board, piece, 0, 60, 0, -1, 0, 0, 0, true, false, null),
+            new GameState(board, piece, 0, 3, 100, -1, 0, 0, 0, true, false, null),
+            new GameState(board, piece, 0, 3, 17, -1, 0, 0, 0, true, false, null) };
+        for (GameState state : corrupt) {
+            ByteBuffer buffer = ByteBuffer.allocate(SaveFormat.MAX_SIZE);
+            SaveFormat.encode(state, buffer);
+            buffer.flip();
+            assertThrows(IOException.class, () -> SaveFormat.decode(buffer, new BagRandomizer(0)));
+        }
+
+        // a piece pushed up above the top of the board is valid
+        GameState above = new GameState(board, piece, 2, 3, -8, -1, 0x4444, 0, 0, true, false,
+                null);
+        ByteBuffer buffer = ByteBuffer.allocate(SaveFormat.MAX_SIZE);
+        SaveFormat.encode(above, buffer);
+        buffer.flip();
+        assertEquals(-8, SaveFormat.decode(buffer, new BagRandomizer(0)).getFallingY());
+    }
+
+    @Test
+    public void testDecodeRejectsEmptyQueue() throws IOException {
+        int piece = Tetromino.PIECES.indexOf('T');
+        GameState empty = new GameState(new BitBoard(), piece, 0, 3, 0, -1, 0, 0, 0, true,
+                false, null);
+        ByteBuffer buffer = ByteBuffer.allocate(SaveFormat.MAX_SIZE);
+        SaveFormat.encode(empty, buffer);
+        buffer.flip();
+        assertThrows(IOException.class, () -> SaveFormat.decode(buffer, new BagRandomizer(0)));
+
+        // one queued piece is enough to keep playing
+        GameState one = new GameState(new BitBoard(), piece, 0, 3, 0, -1, 0x4, 0, 0, true,
+                false, null);
+        ByteBuffer single = ByteBuffer.allocate(SaveFormat.MAX_SIZE);
+        SaveFormat.encode(one, single);
+        single.flip();
+        Tetris t = new Tetris(SaveFormat.decode(single, new BagRandomizer(0)));
+        t.hardFall();
+        t.hardFall();
+        assertNotNull(t.getBoard()[19][4]);
+        assertFalse(t.gameIsOver());
+    }
+
+    @Test
+    public void testLoadInvalidFile() throws IOException {
+        File file = File.createTempFile("tetris", ".txt");
+        file.deleteOnExit();
+        FileWriter writer = new FileWriter(file);
+        writer.write("red\n\nblue\n");
+        writer.close();
+
+        Tetris t = new Tetris();
+        t.fill(19, 0);
+        assertThrows(IOException.class, () -> t.load(file.getPath()));
+        assertNull(t.getBoard()[19][0]);
+        assertFalse(t.gameIsOver());
+    }
+
+    @Test
+    public void testSnapshotAndRestore() {
+        Tetris t = new Tetris(new BagRandomizer(7));
+        t.hardFall();
+        t.saveBlock();
+        t.moveLeft();
+        GameState state = t.snapshot();
+
+        Tetris branch = new Tetris(state);
+        for (int i = 0; i < 5; i++) {
+            t.hardFall();
+            branch.hardFall();
+        }
+        assertEquals(t.getScore(), branch.getScore());
+        for (int i = 0; i < 20; i++) {
+            for (int j = 0; j < 10; j++) {
+                assertEquals(t.getCellColor(i, j), branch.getCellColor(i, j));
+            }
+        }
+        assertEquals(t.getFallingTetromino().getBlockChar(),
+                branch.getFallingTetromino().getBlockChar());
+
+        t.restore(state);
+        assertEquals(state.getFallingX(), t.getFallingTetromino().getX());
+        assertEquals(state.getHeldPiece(), t.getSavedTetromino().getPieceId());
+        assertFalse(t.snapshot().canHold());
+        assertEquals(4, state.getQueueLength());
+        assertEquals(state.getQueuedPiece(0), t.getQueue().getFirst().getPieceId());
+        assertEquals(-1, state.getQueuedPiece(4));
+    }
+
+    @Test
+    public void testHashOfPosition() {
+        Tetris a = new Tetris(11);
+        Tetris b = new Tetris(11);
+        assertEquals(a.getHash(), b.getHash());
+        GameState state = a.snapshot();
+        assertEquals(a.getHash(), state.getHash());
+        assertEquals(a.getHash(2), state.getHash(2));
+
+        a.saveBlock();
+        assertNotEquals(a.getHash(), b.getHash());
+        a.restore(state);
+        assertEquals(b.getHash(), a.getHash());
+
+        a.hardFall();
+        b.hardFall();
+        assertEquals(a.getHash(), b.getHash());
+        assertEquals(a.snapshot().getHash(), b.getHash());
+    }
+
 }
@@ -0,0 +1,105 @@
+import java.awt.*;
+import java.util.LinkedList;
+
+public class TetrisRenderer {
+
+    // colors of the blocks indexed by color code (see Block.COLOR_NAMES)
+    private static final Color[] COLORS = { null, Color.CYAN, Color.YELLOW, Color.BLUE,
+        Color.MAGENTA, Color.ORANGE, Color.GREEN, Color.RED };
+
+    private TetrisRenderer() {
+    }
+
+    /**
+     * Draw all the blocks within the board, the saved and queued tetrominoes, the
+     * score and the falling tetromino of a game
+     * 
+     * @param g      The Graphics context we are drawing in
+     * @param tetris The game to draw
+     */
+    public static void draw(Graphics g, Tetris tetris) {
+        // draw all the blocks in the grid
+        for (int i = 0; i < BitBoard.ROWS; i++) {
+            for (int j = 0; j < BitBoard.COLS; j++) {
+                int color = tetris.getCellColor(i, j);
+                if (color != 0) {
+                    drawBlock(g, i, j, color);
+                }
+            }
+        }
+
+        // draw the saved tetromino
+        Tetromino saved = tetris.getSavedTetromino();
+        if (saved != null) {
+            saved.setPivot(-4, 4);
+            drawTetromino(g, saved);
+        }
+
+        // draw the tetrominoes in the queue
+        int order = 1;
+        LinkedList<Tetromino> queue = tetris.getQueue();
+        for (Tetromino t : queue) {
+            Tetromino display = t.clone();
+            display.setPivot(13.5, 4 * order);
+            drawTetromino(g, display);
+            order++;
+        }
+
+        // draw text for score and lines cleared
+        Graphics2D g2 = (Graphics2D) g;
+        Font font = new Font("serif", Font.BOLD, 25);
+        g2.setFont(font);
+        g2.drawString("Lines Cleared: " + tetris.getLinesCleared(), 10, 650);
+        g2.drawString("Score: " + tetris.getScore(), 10, 750);
+
+        // draw the outline of where the falling block lands, then the block itself
+        Tetromino ghost = tetris.getGhostTetromino();
+        g.setColor(Color.LIGHT_GRAY);
+        for (int i = 0; i < 4; i++) {
+            Block b = ghost.getBlock(i);
+            g.drawRect(b.getCol() * 45 + 251, b.getRow() * 45 + 1, 43, 43);
+        }
+        drawTetromino(g, tetris.getFallingTetromino());
+    }
+
+    /**
+     * Draw each block of a tetromino
+     * 
+     * @param g The current Graphics context to draw in
+     * @param t The tetromino to draw
+     */
+    public static void drawTetromino(Graphics g, Tetromino t) {
+        for (int i = 0; i < 4; i++) {
+            Block b = t.getBlock(i);
+            drawBlock(g, b.getRow(), b.getCol(), b.getColorCode());
+        }
+    }
+
+    /**
+     * Draws a block based on the column and row it is in, and draw a border
+     * around it
+     * 
+     * @param g      The Graphics context we are drawing in
+     * @param row    The row of the block
+     * @param column The column of the block
+     * @param color  The color code of the block
+     */
+    public static void drawBlock(Graphics g, int row, int column, int color) {
+
+        // draw the block
+        g.setColor(COLORS[color]);
+        g.fillRect(column * 45 + 250, row * 45, 45, 45);
+
+        // draw a border around the block
+        g.setColor(Color.WHITE);
+        // top line
+        g.drawLine(column * 45 + 250, row * 45, (column + 1) * 45 + 250, row * 45);
+        // left line
+        g.drawLine(column * 45 + 250, row * 45, column * 45 + 250, (row + 1) * 45);
+        // right line
+        g.drawLine((column + 1) * 45 + 250, row * 45, (column + 1) * 45 + 250, (row + 1) * 45);
+        // bottom line
+        g.drawLine(column * 45 + 250, (row + 1) * 45, (column + 1) * 45 + 250, (row + 1) * 45);
+    }
+
+}
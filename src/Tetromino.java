@@ -1,17 +1,53 @@
-
-
-import java.awt.Color;
-import java.awt.Graphics;
-import java.awt.geom.Point2D;
+import java.util.Arrays;
 
 public class Tetromino {
 
-    Point2D.Double pivot; // the point where the tetromino block rotates around
-    private Block[] tetromino;
+    // block characters in the order of their piece ids, a piece's color code on the
+    // board is its id plus one
+    public static final String PIECES = "IOJTLSZ";
+
+    // column of the bounding box of every piece at spawn
+    public static final int SPAWN_X = 3;
+
+    // size of the square bounding box of each piece
+    private static final int[] SIZES = { 4, 4, 3, 3, 3, 3, 3 };
+
+    // cell offsets of every piece in each of its 4 orientations relative to the top
+    // left corner of its bounding box, indexed [piece][state][block]. These tables
+    // are built once and never modified
+    private static final int[][][] CELL_ROWS = new int[7][4][4];
+    private static final int[][][] CELL_COLS = new int[7][4][4];
+
+    // occupancy mask of each row of the bounding box, bit c set for column offset c,
+    // indexed [piece][state][row offset]
+    private static final int[][][] ROW_MASKS = new int[7][4][];
+
+    // leftmost, rightmost, topmost and lowest cell offsets, indexed [piece][state]
+    private static final int[][] MIN_COL = new int[7][4];
+    private static final int[][] MAX_COL = new int[7][4];
+    private static final int[][] MIN_ROW = new int[7][4];
+    private static final int[][] MAX_ROW = new int[7][4];
+
+    // lowest cell offset in each column of the bounding box, -1 for empty columns,
+    // indexed [piece][state][column offset]
+    private static final int[][][] SKIRTS = new int[7][4][];
+
+    static {
+        for (int p = 0; p < 7; p++) {
+            boolean[][] blockSpace = spawnBlockSpace(PIECES.charAt(p));
+            for (int state = 0; state < 4; state++) {
+                buildOrientation(p, state, blockSpace);
+                blockSpace = rotateBlockSpaceCW(blockSpace);
+            }
+        }
+    }
+
+    private int piece; // id of the piece, index into PIECES
     private char block;
-    private Color color;
-    private boolean[][] blockSpace;
+    private int x; // column of the top left corner of the bounding box
+    private int y; // row of the top left corner of the bounding box
     private int numRotations; // number of clockwise rotations on the tetramino
+    private Block[] tetromino;
 
     /**
      * Constructor for Tetromino class
@@ -19,9 +55,15 @@ public class Tetromino {
      * @param block Character representing the block to be created
      */
     public Tetromino(char block) {
-        tetromino = new Block[4];
+        this.piece = PIECES.indexOf(block);
+        if (piece < 0) {
+            throw new IllegalArgumentException("invalid block");
+        }
         this.block = block;
-        pivot = (new Point2D.Double());
+        tetromino = new Block[4];
+        for (int i = 0; i < 4; i++) {
+            tetromino[i] = new Block(piece + 1);
+        }
         resetTetromino();
     }
 
@@ -31,8 +73,7 @@ public class Tetromino {
      */
     public Tetromino clone() {
         Tetromino clone = new Tetromino(block);
-        clone.setPivot(pivot.getX(), pivot.getY());
-        clone.setState(numRotations);
+        clone.moveTo(x, y, numRotations);
         return clone;
     }
 
@@ -41,133 +82,109 @@ public class Tetromino {
      * used in the contructor and used when player decides to hold a piece
      */
     public void resetTetromino() {
-
         // set the number of clockwise rotations to 0
         this.numRotations = 0;
 
-        // set up the block space based on block character
-        if (block == 'I' || block == 'O') {
-            ioTetromino();
-        } else if (block == 'L' || block == 'T' || block == 'J') {
-            jltTetromino();
-        } else if (block == 'S' || block == 'Z') {
-            szTetromino();
-        } else {
-            System.out.println("invalid block");
-        }
+        x = SPAWN_X;
+        y = spawnY(piece);
 
         // update orientation of the block
         updateOrientation();
     }
 
     /**
-     * Helper method that fills the Tetromino array with blocks of a certain color
+     * Helper method that sets up the Block Space (boolean matrix) of a block in its
+     * spawn orientation
      * 
-     * @param c The Color of the blocks
-     */
-    private void fillTetromino(Color c) {
-        for (int i = 0; i < 4; i++) {
-            tetromino[i] = new Block(c);
-        }
-    }
-
-    /**
-     * Helper method that sets up the Block Space (boolean matrix) of the i or o
-     * blocks, and sets the color of the Tetromino
+     * @param block Character representing the block
+     * @return Boolean matrix representing the spawn orientation
      */
-    private void ioTetromino() {
-        blockSpace = new boolean[4][4];
-        blockSpace[1][1] = true;
-        blockSpace[1][2] = true;
-        if (block == 'O') {
-            color = Color.YELLOW;
-            blockSpace[2][1] = true;
-            blockSpace[2][2] = true;
-            pivot.setLocation(4.5, 0.5);
-        } else if (block == 'I') {
-            color = Color.CYAN;
-            blockSpace[1][0] = true;
-            blockSpace[1][3] = true;
-            pivot.setLocation(4.5, 1.5);
-        }
-        fillTetromino(color);
-    }
-
-    /**
-     * Helper method that sets up the Block Space (boolean matrix) of the j,l, or
-     * t block, and sets the color of the Tetromino
-     */
-    private void jltTetromino() {
-        blockSpace = new boolean[3][3];
-        blockSpace[1][0] = true;
-        blockSpace[1][1] = true;
-        blockSpace[1][2] = true;
-        if (block == 'J') {
-            color = Color.BLUE;
-            blockSpace[0][0] = true;
-        } else if (block == 'L') {
-            color = Color.ORANGE;
-            blockSpace[0][2] = true;
-        } else if (block == 'T') {
-            color = Color.MAGENTA;
-            blockSpace[0][1] = true;
-        }
-
-        fillTetromino(color);
-        pivot.setLocation(4, 1);
-    }
-
-    /**
-     * Helper method that sets up the Block Space (boolean matrix) of the s or z
-     * block, and sets the color of the Tetromino
-     */
-    private void szTetromino() {
-        blockSpace = new boolean[3][3];
-        blockSpace[0][1] = true;
-        blockSpace[1][1] = true;
-
-        if (block == 'S') {
-            color = Color.GREEN;
-            blockSpace[0][2] = true;
+    private static boolean[][] spawnBlockSpace(char block) {
+        boolean[][] blockSpace;
+        if (block == 'I' || block == 'O') {
+            blockSpace = new boolean[4][4];
+            blockSpace[1][1] = true;
+            blockSpace[1][2] = true;
+            if (block == 'O') {
+                blockSpace[2][1] = true;
+                blockSpace[2][2] = true;
+            } else {
+                blockSpace[1][0] = true;
+                blockSpace[1][3] = true;
+            }
+        } else if (block == 'L' || block == 'T' || block == 'J') {
+            blockSpace = new boolean[3][3];
             blockSpace[1][0] = true;
-        } else if (block == 'Z') {
-            color = Color.RED;
-            blockSpace[0][0] = true;
+            blockSpace[1][1] = true;
             blockSpace[1][2] = true;
+            if (block == 'J') {
+                blockSpace[0][0] = true;
+            } else if (block == 'L') {
+                blockSpace[0][2] = true;
+            } else {
+                blockSpace[0][1] = true;
+            }
+        } else {
+            blockSpace = new boolean[3][3];
+            blockSpace[0][1] = true;
+            blockSpace[1][1] = true;
+            if (block == 'S') {
+                blockSpace[0][2] = true;
+                blockSpace[1][0] = true;
+            } else {
+                blockSpace[0][0] = true;
+                blockSpace[1][2] = true;
+            }
         }
-        fillTetromino(color);
-        pivot.setLocation(4, 1);
+        return blockSpace;
     }
 
     /**
-     * Helper method that helps propogate updateOrientation to ioUpdateOrientation
-     * or jlstzUpdateOrientation
+     * Helper method that returns the Block Space rotated clockwise
+     * 
+     * @param blockSpace Boolean matrix to rotate
+     * @return Boolean matrix after the rotation
      */
-    private void updateOrientation() {
-        if (block == 'I' || block == 'O') {
-            ioUpdateOrientation();
-        } else {
-            jltszUpdateOrientation();
+    private static boolean[][] rotateBlockSpaceCW(boolean[][] blockSpace) {
+        int size = blockSpace.length;
+        boolean[][] postRotation = new boolean[size][size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                postRotation[col][size - row - 1] = blockSpace[row][col];
+            }
         }
+        return postRotation;
     }
 
     /**
-     * Helper method that updates the orientation of the i or o block based on the
-     * our block space
-     * which is a boolean matrix
+     * Helper method that fills the cell offset tables of one orientation of a
+     * piece from its Block Space (cells are stored in row major order)
+     * 
+     * @param p          The id of the piece
+     * @param state      The orientation of the piece
+     * @param blockSpace Boolean matrix representing the orientation
      */
-    private void ioUpdateOrientation() {
-        // index for which block's location to update
+    private static void buildOrientation(int p, int state, boolean[][] blockSpace) {
+        int size = blockSpace.length;
+        ROW_MASKS[p][state] = new int[size];
+        SKIRTS[p][state] = new int[size];
+        Arrays.fill(SKIRTS[p][state], -1);
+        MIN_COL[p][state] = size;
+        MIN_ROW[p][state] = size;
+        MAX_COL[p][state] = -1;
+        MAX_ROW[p][state] = -1;
         int index = 0;
-        double pivotX = pivot.getX();
-        double pivotY = pivot.getY();
-        for (int i = 0; i < 4; i++) {
-            for (int j = 0; j < 4; j++) {
+        for (int i = 0; i < size; i++) {
+            for (int j = 0; j < size; j++) {
                 if (blockSpace[i][j]) {
-                    int x = (int) (pivotX - 1.5 + j);
-                    int y = (int) (pivotY - 1.5 + i);
-                    tetromino[index].setCol(x);
-                    tetromino[index].setRow(y);
+                    CELL_ROWS[p][state][index] = i;
+                    CELL_COLS[p][state][index] = j;
+                    ROW_MASKS[p][state][i] |= 1 << j;
+                    MIN_COL[p][state] = Math.min(MIN_COL[p][state], j);
+                    MAX_COL[p][state] = Math.max(MAX_COL[p][state], j);
+                    MIN_ROW[p][state] = Math.min(MIN_ROW[p][state], i);
+                    MAX_ROW[p][state] = Math.max(MAX_ROW[p][state], i);
+                    SKIRTS[p][state][j] = i;
                     index++;
                 }
             }
@@ -175,85 +192,43 @@ public class Tetromino {
     }
 
     /**
-     * Helper method that updates the orientation of the j,l,t,s, or z block based
-     * on the our
-     * block space which is a boolean matrix
+     * Helper method that moves the four blocks to the cells of the current
+     * orientation
      */
-    private void jltszUpdateOrientation() {
-        // index for which block's location to update
-        int index = 0;
-        double pivotX = pivot.getX();
-        double pivotY = pivot.getY();
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                if (blockSpace[i][j]) {
-                    int x = (int) (pivotX - 1 + j);
-                    int y = (int) (pivotY - 1 + i);
-                    tetromino[index].setCol(x);
-                    tetromino[index].setRow(y);
-                    index++;
-                }
-            }
+    private void updateOrientation() {
+        int[] rows = CELL_ROWS[piece][numRotations];
+        int[] cols = CELL_COLS[piece][numRotations];
+        for (int i = 0; i < 4; i++) {
+            tetromino[i].setRow(y + rows[i]);
+            tetromino[i].setCol(x + cols[i]);
         }
     }
 
     /**
-     * Method that rotates the Tetromino clockwise by updating the blockSpace and
-     * then updating it's
-     * orientation
+     * Method that rotates the Tetromino clockwise by moving to the next orientation
      */
     public void rotateCW() {
-        int size = blockSpace[0].length;
-        boolean[][] postRotation = new boolean[size][size];
-        for (int row = 0; row < size; row++) {
-            for (int col = 0; col < size; col++) {
-                postRotation[col][size - row - 1] = blockSpace[row][col];
-            }
-        }
-        blockSpace = postRotation;
-
-        // update the orientation of the tetromino
+        this.numRotations = (numRotations + 1) & 3;
         updateOrientation();
-
-        // add to the number of rotations
-        this.numRotations = (numRotations + 1) % 4;
     }
 
     /**
-     * method that rotates the Tetromino counterclockwise by updating blockSpace
-     * and then updating
-     * it's orientation
+     * method that rotates the Tetromino counterclockwise by moving to the previous
+     * orientation
      */
     public void rotateCCW() {
-        int size = blockSpace[0].length;
-        boolean[][] postRotation = new boolean[size][size];
-        for (int row = 0; row < size; row++) {
-            for (int col = 0; col < size; col++) {
-                postRotation[row][col] = blockSpace[col][size - row - 1];
-            }
-        }
-        blockSpace = postRotation;
-
-        // update the orientation
+        this.numRotations = (numRotations + 3) & 3;
         updateOrientation();
-
-        if (numRotations == 0) {
-            numRotations = 3;
-        } else {
-            numRotations--;
-        }
     }
 
     /**
      * method that makes the tetris pieces fall by one level
      */
     public void fall() {
-        // set the pivot one row lower
-        pivot.setLocation(pivot.getX(), pivot.getY() + 1);
+        y++;
         // set all the blocks one row lower
         for (Block b : tetromino) {
-            int row = b.getRow();
-            b.setRow(row + 1);
+            b.setRow(b.getRow() + 1);
         }
     }
 
@@ -261,13 +236,10 @@ public class Tetromino {
      * Method that moves every block in the Tetromino to the left
      */
     public void moveLeft() {
-        // set the pivot one column to the left
-        pivot.setLocation(pivot.getX() - 1, pivot.getY());
-
+        x--;
         // set all the blocks one column to the left
         for (Block b : tetromino) {
-            int col = b.getCol();
-            b.setCol(col - 1);
+            b.setCol(b.getCol() - 1);
         }
     }
 
@@ -275,26 +247,36 @@ public class Tetromino {
      * Method that moves every block in the Tetromino to the right
      */
     public void moveRight() {
-        // set the pivot one column to the right
-        pivot.setLocation(pivot.getX() + 1, pivot.getY());
-
+        x++;
         // set all the blocks one column to the right
         for (Block b : tetromino) {
-            int col = b.getCol();
-            b.setCol(col + 1);
+            b.setCol(b.getCol() + 1);
         }
     }
 
     /**
-     * Method that sets the state of the block (number of clockwise rotations it has
-     * experienced)
+     * Method that rotates the block clockwise a number of times from its current
+     * state
      * 
      * @param state Number of clockwise rotations
      */
     public void setState(int state) {
-        for (int i = 0; i < state; i++) {
-            rotateCW();
-        }
+        this.numRotations = (numRotations + state) & 3;
+        updateOrientation();
+    }
+
+    /**
+     * Method that places the tetromino at a position and orientation
+     * 
+     * @param x     The column of the top left corner of the bounding box
+     * @param y     The row of the top left corner of the bounding box
+     * @param state The number of clockwise rotations from spawn
+     */
+    public void moveTo(int x, int y, int state) {
+        this.x = x;
+        this.y = y;
+        this.numRotations = state & 3;
+        updateOrientation();
     }
 
     /**
@@ -305,7 +287,9 @@ public class Tetromino {
      * @param y The new Y pivot of the tetromino
      */
     public void setPivot(double x, double y) {
-        pivot.setLocation(x, y);
+        double half = (SIZES[piece] - 1) / 2.0;
+        this.x = (int) (x - half);
+        this.y = (int) (y - half);
         updateOrientation();
     }
 
@@ -315,7 +299,7 @@ public class Tetromino {
      * @return int The X coordinate of the pivot
      */
     public double getXPivot() {
-        return pivot.getX();
+        return x + (SIZES[piece] - 1) / 2.0;
     }
 
     /**
@@ -324,7 +308,25 @@ public class Tetromino {
      * @return int The Y coordinate of the pivot
      */
     public double getYPivot() {
-        return pivot.getY();
+        return y + (SIZES[piece] - 1) / 2.0;
+    }
+
+    /**
+     * Getter method for the column of the top left corner of the bounding box
+     * 
+     * @return int The column of the bounding box
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Getter method for the row of the top left corner of the bounding box
+     * 
+     * @return int The row of the bounding box
+     */
+    public int getY() {
+        return y;
     }
 
     /**
@@ -347,6 +349,24 @@ public class Tetromino {
         return block;
     }
 
+    /**
+     * Getter method for the id of the piece
+     * 
+     * @return int The index of the block character in PIECES
+     */
+    public int getPieceId() {
+        return piece;
+    }
+
+    /**
+     * Getter method for the color code the tetromino leaves on the board
+     * 
+     * @return int The color code of the tetromino (1-7)
+     */
+    public int getColorCode() {
+        return piece + 1;
+    }
+
     /**
      * method that returns the ith block of the Tetromino array
      * 
@@ -364,14 +384,7 @@ public class Tetromino {
      */
     public int getLowestBlock() {
         // higher the row number, the lower the block
-        int lowest = tetromino[0].getRow();
-        for (int i = 1; i < 4; i++) {
-            int level = tetromino[i].getRow();
-            if (level > lowest) {
-                lowest = level;
-            }
-        }
-        return lowest;
+        return y + MAX_ROW[piece][numRotations];
     }
 
     /**
@@ -380,25 +393,125 @@ public class Tetromino {
      * @return Boolean matrix representing the block orientation
      */
     public boolean[][] getBlockSpace() {
-        int size = blockSpace.length;
+        int size = SIZES[piece];
         boolean[][] bSpace = new boolean[size][size];
-        for (int i = 0; i < size; i++) {
-            for (int j = 0; j < size; j++) {
-                bSpace[i][j] = blockSpace[i][j];
-            }
+        for (int i = 0; i < 4; i++) {
+            bSpace[CELL_ROWS[piece][numRotations][i]][CELL_COLS[piece][numRotations][i]] = true;
         }
         return bSpace;
     }
 
     /**
-     * Draw each block of the tetramino array
+     * Getter method for the size of the square bounding box of a piece
      * 
-     * @param g The current Graphics context to draw in
+     * @param piece The id of the piece
+     * @return int The width and height of the bounding box
      */
-    public void draw(Graphics g) {
-        for (Block b : tetromino) {
-            b.draw(g);
-        }
+    public static int size(int piece) {
+        return SIZES[piece];
+    }
+
+    /**
+     * Getter method for the row offset of a block of a piece orientation
+     * 
+     * @param piece The id of the piece
+     * @param state The orientation of the piece
+     * @param i     The index of the block (0-3)
+     * @return int The row of the block relative to the bounding box
+     */
+    public static int cellRow(int piece, int state, int i) {
+        return CELL_ROWS[piece][state][i];
+    }
+
+    /**
+     * Getter method for the column offset of a block of a piece orientation
+     * 
+     * @param piece The id of the piece
+     * @param state The orientation of the piece
+     * @param i     The index of the block (0-3)
+     * @return int The column of the block relative to the bounding box
+     */
+    public static int cellCol(int piece, int state, int i) {
+        return CELL_COLS[piece][state][i];
+    }
+
+    /**
+     * Getter method for the occupancy mask of one row of a piece orientation
+     * 
+     * @param piece The id of the piece
+     * @param state The orientation of the piece
+     * @param row   The row offset within the bounding box
+     * @return int Mask of the filled column offsets of the row
+     */
+    public static int rowMask(int piece, int state, int row) {
+        return ROW_MASKS[piece][state][row];
+    }
+
+    /**
+     * Getter method for the leftmost column offset of a piece orientation
+     * 
+     * @param piece The id of the piece
+     * @param state The orientation of the piece
+     * @return int The leftmost filled column of the bounding box
+     */
+    public static int minCol(int piece, int state) {
+        return MIN_COL[piece][state];
+    }
+
+    /**
+     * Getter method for the rightmost column offset of a piece orientation
+     * 
+     * @param piece The id of the piece
+     * @param state The orientation of the piece
+     * @return int The rightmost filled column of the bounding box
+     */
+    public static int maxCol(int piece, int state) {
+        return MAX_COL[piece][state];
+    }
+
+    /**
+     * Getter method for the topmost row offset of a piece orientation
+     * 
+     * @param piece The id of the piece
+     * @param state The orientation of the piece
+     * @return int The topmost filled row of the bounding box
+     */
+    public static int minRow(int piece, int state) {
+        return MIN_ROW[piece][state];
+    }
+
+    /**
+     * Getter method for the lowest row offset of a piece orientation
+     * 
+     * @param piece The id of the piece
+     * @param state The orientation of the piece
+     * @return int The lowest filled row of the bounding box
+     */
+    public static int maxRow(int piece, int state) {
+        return MAX_ROW[piece][state];
+    }
+
+    /**
+     * Getter method for the row of a piece's bounding box at spawn, the O block
+     * spawns one row higher since its bounding box has an empty top row
+     * 
+     * @param piece The id of the piece
+     * @return int The row of the bounding box at spawn on an empty board
+     */
+    public static int spawnY(int piece) {
+        return PIECES.charAt(piece) == 'O' ? -1 : 0;
+    }
+
+    /**
+     * Getter method for the lowest cell offset in a column of a piece orientation
+     * 
+     * @param piece The id of the piece
+     * @param state The orientation of the piece
+     * @param col   The column offset in the bounding box
+     * @return int The lowest filled row of the column, -1 if the column is empty
+     */
+    public static int skirt(int piece, int state, int col) {
+        return SKIRTS[piece][state][col];
     }
 
     /**
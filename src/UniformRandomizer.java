@@ -0,0 +1,43 @@
+import java.util.Arrays;
+
+public class UniformRandomizer implements Randomizer {
+
+    private XorShiftRandom random;
+
+    /**
+     * Constructor for a randomizer that picks each piece with the same chance,
+     * independently of the previous pieces
+     * 
+     * @param seed Seed of the piece sequence
+     */
+    public UniformRandomizer(long seed) {
+        random = new XorShiftRandom(seed);
+    }
+
+    private UniformRandomizer(XorShiftRandom random) {
+        this.random = random;
+    }
+
+    @Override
+    public int next() {
+        return random.nextInt(7);
+    }
+
+    @Override
+    public Randomizer copy() {
+        return new UniformRandomizer(random.copy());
+    }
+
+    @Override
+    public double[] probabilities() {
+        double[] p = new double[7];
+        Arrays.fill(p, 1.0 / 7);
+        return p;
+    }
+
+    @Override
+    public void advance(int piece) {
+        // every piece is independent of the ones before it
+    }
+
+}
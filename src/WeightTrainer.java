@@ -0,0 +1,327 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Scanner;
+
+public class WeightTrainer {
+
+    // spread of every weight in the first generation, about the size of the
+    // default weights
+    private static final double INITIAL_DEVIATION = 0.5;
+    // variance added to every weight after each generation so the search does not
+    // collapse early, divided by the generation number
+    private static final double NOISE = 0.05;
+
+    private final BatchSimulator simulator;
+    private final int population;
+    private final int elites;
+    private final int games;
+    private final boolean linesFitness;
+
+    // search state, everything a checkpoint holds
+    private long seed;
+    private int generation;
+    private double[] mean;
+    private double[] deviation;
+    private double[] best;
+    private double bestFitness;
+
+    /**
+     * Constructor for a trainer that starts from the default weights
+     * 
+     * @param population   Number of weight vectors tried in every generation
+     * @param elites       Number of the best vectors the next generation is drawn
+     *                     around
+     * @param games        Number of games played by every vector, all vectors of a
+     *                     generation play the same pieces
+     * @param maxPieces    Pieces after which a game is stopped even if not over
+     * @param threads      Number of games played at once
+     * @param seed         Seed of the sampled weights and of the games' pieces
+     * @param linesFitness Whether fitness is the average lines cleared instead of
+     *                     the average score
+     */
+    public WeightTrainer(int population, int elites, int games, int maxPieces, int threads,
+            long seed, boolean linesFitness) {
+        if (elites < 1 || elites > population || games < 1) {
+            throw new IllegalArgumentException("need 1 <= elites <= population and games >= 1");
+        }
+        this.simulator = new BatchSimulator(threads, maxPieces);
+        this.population = population;
+        this.elites = elites;
+        this.games = games;
+        this.linesFitness = linesFitness;
+        this.seed = seed;
+        mean = new BoardEvaluator().getWeights();
+        deviation = new double[BoardEvaluator.FEATURES];
+        Arrays.fill(deviation, INITIAL_DEVIATION);
+        best = mean.clone();
+        bestFitness = Double.NEGATIVE_INFINITY;
+    }
+
+    /**
+     * Method that runs one generation of the cross entropy method: weight vectors
+     * are drawn from a normal distribution per weight, every vector plays the
+     * same seeded games on all threads and the distribution is refit to the
+     * elite vectors. Everything is derived from the seed and the generation
+     * number, so a run resumed from a checkpoint continues exactly as it would
+     * have
+     * 
+     * @return double The best fitness of the generation
+     */
+    public double step() {
+        XorShiftRandom random = new XorShiftRandom(XorShiftRandom.mix(seed) + generation);
+        double[][] candidates = new double[population][];
+        BoardEvaluator[] evaluators = new BoardEvaluator[population];
+        for (int c = 0; c < population; c++) {
+            candidates[c] = new double[BoardEvaluator.FEATURES];
+            for (int f = 0; f < BoardEvaluator.FEATURES; f++) {
+                candidates[c][f] = mean[f] + deviation[f] * gaussian(random);
+            }
+            evaluators[c] = new BoardEvaluator(candidates[c]);
+        }
+
+        // game i is played by candidate i / games with pieces i % games
+        long gameSeed = random.nextLong();
+        GameResult[] results = simulator.run(population * games,
+                i -> new BagRandomizer(gameSeed + i % games),
+                i -> new GreedyPolicy(evaluators[i / games]));
+        double[] fitness = new double[population];
+        for (int i = 0; i < results.length; i++) {
+            GameResult r = results[i];
+            fitness[i / games] += linesFitness ? r.getLinesCleared() : r.getScore();
+        }
+        Integer[] order = new Integer[population];
+        for (int c = 0; c < population; c++) {
+            fitness[c] /= games;
+            order[c] = c;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(fitness[b], fitness[a]));
+
+        // refit the distribution to the elites
+        for (int f = 0; f < BoardEvaluator.FEATURES; f++) {
+            double sum = 0;
+            for (int e = 0; e < elites; e++) {
+                sum += candidates[order[e]][f];
+            }
+            double m = sum / elites;
+            double variance = 0;
+            for (int e = 0; e < elites; e++) {
+                double d = candidates[order[e]][f] - m;
+                variance += d * d;
+            }
+            mean[f] = m;
+            deviation[f] = Math.sqrt(variance / elites + NOISE / (generation + 1));
+        }
+
+        double generationBest = fitness[order[0]];
+        if (generationBest > bestFitness) {
+            bestFitness = generationBest;
+            best = candidates[order[0]];
+        }
+        generation++;
+        return generationBest;
+    }
+
+    /**
+     * Getter method for the number of generations run so far
+     * 
+     * @return int The number of completed generations
+     */
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Getter method for the mean of the weight distribution
+     * 
+     * @return double[] Copy of the mean weights, indexed by the feature constants
+     */
+    public double[] getMean() {
+        return mean.clone();
+    }
+
+    /**
+     * Getter method for the best weights any generation has tried
+     * 
+     * @return double[] Copy of the best weights, indexed by the feature constants
+     */
+    public double[] getBest() {
+        return best.clone();
+    }
+
+    /**
+     * Getter method for the fitness of the best weights
+     * 
+     * @return double The average score or lines of the best weights, negative
+     *         infinity before the first generation
+     */
+    public double getBestFitness() {
+        return bestFitness;
+    }
+
+    /**
+     * Method that saves the search state to a text file. The file is written
+     * under a temporary name and then moved over the old checkpoint, so a run
+     * killed while saving keeps the previous checkpoint
+     * 
+     * @param filename The text file to write the checkpoint to
+     * @throws IOException If the file cannot be written
+     */
+    public void save(String filename) throws IOException {
+        File temp = new File(filename + ".tmp");
+        BufferedWriter bw = new BufferedWriter(new FileWriter(temp));
+        try {
+            bw.write(seed + " " + generation + "\n");
+            bw.write(join(mean) + "\n");
+            bw.write(join(deviation) + "\n");
+            bw.write(join(best) + "\n");
+            bw.write(Double.toString(bestFitness));
+        } finally {
+            bw.close();
+        }
+        Files.move(temp.toPath(), new File(filename).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Method that resumes the search from a checkpoint written by save. The
+     * population, elites, games and fitness should match the saving trainer's for
+     * the run to continue exactly
+     * 
+     * @param filename The text file the checkpoint is stored in
+     * @throws IOException If the file cannot be read or is not a valid checkpoint
+     */
+    public void load(String filename) throws IOException {
+        BufferedReader br = new BufferedReader(new FileReader(filename));
+        try {
+            Scanner scan = new Scanner(readLine(br));
+            long seed = scan.nextLong();
+            int generation = scan.nextInt();
+            scan.close();
+            double[] mean = split(readLine(br));
+            double[] deviation = split(readLine(br));
+            double[] best = split(readLine(br));
+            double bestFitness = Double.parseDouble(readLine(br));
+
+            this.seed = seed;
+            this.generation = generation;
+            this.mean = mean;
+            this.deviation = deviation;
+            this.best = best;
+            this.bestFitness = bestFitness;
+        } catch (RuntimeException e) {
+            // malformed numbers or weight counts
+            throw new IOException("Invalid Checkpoint", e);
+        } finally {
+            br.close();
+        }
+    }
+
+    /**
+     * Helper method that draws a standard normal number (Box-Muller)
+     */
+    private static double gaussian(XorShiftRandom random) {
+        double u = 1 - random.nextDouble(); // in (0, 1] so the log is finite
+        return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * random.nextDouble());
+    }
+
+    private static String join(double[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            sb.append(i == 0 ? "" : " ").append(values[i]);
+        }
+        return sb.toString();
+    }
+
+    private static double[] split(String line) {
+        String[] parts = line.trim().split(" +");
+        if (parts.length != BoardEvaluator.FEATURES) {
+            throw new IllegalArgumentException("expected " + BoardEvaluator.FEATURES + " weights");
+        }
+        double[] values = new double[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            values[i] = Double.parseDouble(parts[i]);
+        }
+        return values;
+    }
+
+    private static String readLine(BufferedReader br) throws IOException {
+        String line = br.readLine();
+        if (line == null) {
+            throw new IOException("Invalid Checkpoint");
+        }
+        return line;
+    }
+
+    /**
+     * Policy that hard drops the falling tetromino where the evaluator scores the
+     * resulting board highest, cheap enough to play thousands of training games
+     */
+    private static class GreedyPolicy implements MovePolicy {
+
+        private final BoardEvaluator evaluator;
+
+        GreedyPolicy(BoardEvaluator evaluator) {
+            this.evaluator = evaluator;
+        }
+
+        @Override
+        public Move choose(Tetris game) {
+            Placement best = null;
+            double bestValue = 0;
+            for (Placement p : game.getPlacements()) {
+                double value = evaluator.evaluate(p.getBoard(), p.getLinesCleared());
+                if (best == null || value > bestValue) {
+                    best = p;
+                    bestValue = value;
+                }
+            }
+            return best != null ? best.toMove(false) : new Move(false, 0, Tetromino.SPAWN_X);
+        }
+    }
+
+    /**
+     * Trains the evaluator's weights and saves a checkpoint after every
+     * generation. An existing checkpoint is resumed, so a stopped run continues
+     * when started again with the same arguments
+     * 
+     * @param args Optional checkpoint file, number of generations, population,
+     *             games per vector, pieces per game, worker threads, seed and
+     *             fitness ("score" or "lines")
+     */
+    public static void main(String[] args) throws IOException {
+        String checkpoint = args.length > 0 ? args[0] : "files/weights_checkpoint.txt";
+        int generations = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int population = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int games = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        int maxPieces = args.length > 4 ? Integer.parseInt(args[4]) : 2000;
+        int threads = args.length > 5 ? Integer.parseInt(args[5])
+                : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : 0;
+        boolean lines = args.length > 7 && args[7].equals("lines");
+
+        WeightTrainer trainer = new WeightTrainer(population, Math.max(population / 10, 1), games,
+                maxPieces, threads, seed, lines);
+        if (new File(checkpoint).exists()) {
+            trainer.load(checkpoint);
+            System.out.println("resumed at generation " + trainer.getGeneration());
+        }
+        while (trainer.getGeneration() < generations) {
+            long start = System.nanoTime();
+            double fitness = trainer.step();
+            trainer.save(checkpoint);
+            System.out.printf("generation %d: best %.1f, overall best %.1f (%.1f s)%n",
+                    trainer.getGeneration(), fitness, trainer.getBestFitness(),
+                    (System.nanoTime() - start) / 1e9);
+        }
+        System.out.println("best weights " + Arrays.toString(trainer.getBest()));
+        System.out.println("mean weights " + Arrays.toString(trainer.getMean()));
+    }
+
+}
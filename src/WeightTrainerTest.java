@@ -0,0 +1,40 @@
+import java.io.File;
+import java.io.IOException;
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WeightTrainerTest {
+
+    @Test
+    public void testResumedRunMatchesUninterrupted() throws IOException {
+        WeightTrainer straight = new WeightTrainer(6, 2, 2, 20, 2, 5, false);
+        straight.step();
+        straight.step();
+
+        File checkpoint = File.createTempFile("weights", ".txt");
+        checkpoint.deleteOnExit();
+        WeightTrainer first = new WeightTrainer(6, 2, 2, 20, 2, 5, false);
+        first.step();
+        first.save(checkpoint.getPath());
+        WeightTrainer resumed = new WeightTrainer(6, 2, 2, 20, 2, 99, false);
+        resumed.load(checkpoint.getPath());
+        assertEquals(1, resumed.getGeneration());
+        resumed.step();
+
+        assertArrayEquals(straight.getMean(), resumed.getMean());
+        assertArrayEquals(straight.getBest(), resumed.getBest());
+        assertEquals(straight.getBestFitness(), resumed.getBestFitness());
+    }
+
+    @Test
+    public void testInvalidCheckpoint() throws IOException {
+        File checkpoint = File.createTempFile("weights", ".txt");
+        checkpoint.deleteOnExit();
+        WeightTrainer trainer = new WeightTrainer(4, 1, 1, 10, 1, 0, true);
+        trainer.save(checkpoint.getPath());
+        java.nio.file.Files.write(checkpoint.toPath(), "0 1\n1 2 3\n".getBytes());
+        assertThrows(IOException.class, () -> trainer.load(checkpoint.getPath()));
+        assertEquals(0, trainer.getGeneration());
+    }
+
+}
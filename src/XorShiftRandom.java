@@ -0,0 +1,88 @@
+public class XorShiftRandom {
+
+    private long state; // INVARIANT: never 0
+
+    /**
+     * Constructor for a generator whose sequence is fully determined by a seed
+     * 
+     * @param seed Any long, including 0
+     */
+    public XorShiftRandom(long seed) {
+        // scramble the seed with splitmix64 so nearby seeds give unrelated sequences
+        state = mix(seed + 0x9E3779B97F4A7C15L);
+        if (state == 0) {
+            state = 0x9E3779B97F4A7C15L;
+        }
+    }
+
+    /**
+     * Helper method that scrambles the bits of a long (splitmix64 finalizer)
+     * 
+     * @param z The long to scramble
+     * @return long The scrambled long
+     */
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Method that returns the next pseudo random long (xorshift64*)
+     * 
+     * @return long The next long of the sequence
+     */
+    public long nextLong() {
+        long x = state;
+        x ^= x >>> 12;
+        x ^= x << 25;
+        x ^= x >>> 27;
+        state = x;
+        return x * 0x2545F4914F6CDD1DL;
+    }
+
+    /**
+     * Method that returns a pseudo random int between 0 (inclusive) and a bound
+     * (exclusive)
+     * 
+     * @param bound The upper bound, must be positive
+     * @return int The next int of the sequence
+     */
+    public int nextInt(int bound) {
+        // multiply the top 31 bits by the bound instead of using a biased modulo
+        return (int) (((nextLong() >>> 33) * bound) >>> 31);
+    }
+
+    /**
+     * Method that returns a pseudo random double between 0 (inclusive) and 1
+     * (exclusive)
+     * 
+     * @return double The next double of the sequence
+     */
+    public double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /**
+     * Method that returns a new generator seeded from this one, used to give every
+     * thread or game its own independent sequence
+     * 
+     * @return XorShiftRandom A new independent generator
+     */
+    public XorShiftRandom split() {
+        return new XorShiftRandom(nextLong());
+    }
+
+    /**
+     * Method that returns a generator that continues with the same sequence as
+     * this one
+     * 
+     * @return XorShiftRandom Copy of the generator
+     */
+    public XorShiftRandom copy() {
+        XorShiftRandom copy = new XorShiftRandom(0);
+        copy.state = state;
+        return copy;
+    }
+
+}
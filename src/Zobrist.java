@@ -0,0 +1,93 @@
+public final class Zobrist {
+
+    // the longest queue prefix that can be hashed
+    public static final int MAX_QUEUE = 16;
+
+    // random keys of every cell, combined 5 columns at a time so the key of a whole
+    // row is two lookups: indexed [row][mask of columns 0-4] and [row][mask of
+    // columns 5-9]
+    private static final long[][] LOW_CELLS = new long[BitBoard.ROWS][32];
+    private static final long[][] HIGH_CELLS = new long[BitBoard.ROWS][32];
+
+    // keys of the falling piece [piece][state], the held piece [piece], the queue
+    // [position][piece] and whether holding is still allowed
+    private static final long[][] FALLING = new long[7][4];
+    private static final long[] HELD = new long[7];
+    private static final long[][] QUEUED = new long[MAX_QUEUE][7];
+    private static final long CAN_HOLD;
+
+    static {
+        // fixed seed so hashes are the same in every run and can be stored
+        XorShiftRandom random = new XorShiftRandom(0x5EED_2048L);
+        for (int r = 0; r < BitBoard.ROWS; r++) {
+            long[] cells = new long[BitBoard.COLS];
+            for (int c = 0; c < BitBoard.COLS; c++) {
+                cells[c] = random.nextLong();
+            }
+            for (int m = 1; m < 32; m++) {
+                int low = Integer.numberOfTrailingZeros(m);
+                LOW_CELLS[r][m] = LOW_CELLS[r][m & (m - 1)] ^ cells[low];
+                HIGH_CELLS[r][m] = HIGH_CELLS[r][m & (m - 1)] ^ cells[low + 5];
+            }
+        }
+        for (int p = 0; p < 7; p++) {
+            for (int s = 0; s < 4; s++) {
+                FALLING[p][s] = random.nextLong();
+            }
+            HELD[p] = random.nextLong();
+            for (int i = 0; i < MAX_QUEUE; i++) {
+                QUEUED[i][p] = random.nextLong();
+            }
+        }
+        CAN_HOLD = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * Method that returns the key of the filled cells of a row, the xor of the
+     * keys of each filled cell
+     * 
+     * @param row  The row of the cells
+     * @param mask The filled columns, bit c for column c
+     * @return long The key of the row, 0 for an empty row
+     */
+    public static long row(int row, int mask) {
+        return LOW_CELLS[row][mask & 31] ^ HIGH_CELLS[row][mask >>> 5];
+    }
+
+    /**
+     * Method that returns the key of the falling piece
+     * 
+     * @param piece The id of the piece
+     * @param state The orientation of the piece
+     * @return long The key of the falling piece
+     */
+    public static long falling(int piece, int state) {
+        return FALLING[piece][state];
+    }
+
+    /**
+     * Method that returns the key of the held piece
+     * 
+     * @param piece   The id of the held piece, -1 if no piece is held
+     * @param canHold Whether or not holding is still allowed
+     * @return long The key of the hold slot
+     */
+    public static long held(int piece, boolean canHold) {
+        return (piece < 0 ? 0 : HELD[piece]) ^ (canHold ? CAN_HOLD : 0);
+    }
+
+    /**
+     * Method that returns the key of a piece in the queue
+     * 
+     * @param position The position in the queue, 0 for the next piece
+     * @param piece    The id of the piece
+     * @return long The key of the queued piece
+     */
+    public static long queued(int position, int piece) {
+        return QUEUED[position][piece];
+    }
+
+}